@@ -45,8 +45,14 @@ dependencies {
     implementation("io.github.cdimascio:java-dotenv:5.2.2")
     implementation("com.google.code.gson:gson:2.10.1")
 
-    /* Database driver */
+    /* Caching */
+    implementation("com.github.ben-manes.caffeine:caffeine")
+
+    /* Database drivers + schema migrations */
+    implementation("org.flywaydb:flyway-core")
+    runtimeOnly("org.flywaydb:flyway-database-postgresql")
     runtimeOnly("org.postgresql:postgresql")
+    runtimeOnly("com.h2database:h2")
 
     /* Testing */
     testImplementation("org.springframework.boot:spring-boot-starter-test")
@@ -4,18 +4,13 @@ import com.gammatunes.component.spotify.config.SpotifyProperties;
 import com.gammatunes.config.LavalinkConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
-import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @EnableScheduling
 @EnableConfigurationProperties({LavalinkConfig.class, SpotifyProperties.class})
-@SpringBootApplication(exclude = {
-    DataSourceAutoConfiguration.class,
-    HibernateJpaAutoConfiguration.class
-})
+@SpringBootApplication
 public class GammaTunesApplication {
 
     public static void main(String[] args) {
@@ -2,31 +2,54 @@ package com.gammatunes.component.audio.core;
 
 import com.gammatunes.component.audio.lavalink.PlayerActionsHandler;
 import com.gammatunes.component.audio.lavalink.PlayerEventProcessor;
+import com.gammatunes.component.audio.queue.QueueEntry;
 import com.gammatunes.component.audio.queue.TrackScheduler;
 import com.gammatunes.component.lavalink.NodePlayer;
+import com.gammatunes.component.lavalink.search.ResolutionContext;
 import com.gammatunes.component.audio.events.PlayerUIState;
 import com.gammatunes.component.audio.events.PlayerPosition;
 import com.gammatunes.model.domain.PlayerState;
-import dev.arbjerg.lavalink.client.player.Track;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * Represents a single audio player instance for a guild.
  * Manages playback state, track scheduling, and UI state updates.
+ * <p>
+ * A player is a single-writer actor: every command, whether it comes from a user interaction or from a
+ * Lavalink event, is queued in the player's {@link PlayerMailbox} and runs alone. Only the volatile fields
+ * exposed through getters may be read from other threads.
+ * <p>
+ * Queue entries may be placeholders that are resolved just in time: the entries within the prefetch window after
+ * the current track are resolved right away, the ones within the background window behind them with background
+ * priority, and an entry that cannot be resolved is skipped when playback reaches it. Entries further ahead stay
+ * unresolved until the play cursor gets close, however long the queue is.
  */
 @Slf4j
 public class Player {
 
+    /** merge key for queued skips, which collapse into a single multi-track jump */
+    private static final String SKIP = "skip";
+
     @Getter
     private final long guildId;
 
     private final PlayerStateStore stateStore;
-    private final TrackScheduler trackScheduler = new TrackScheduler();
+    private final TrackScheduler trackScheduler;
     private final PlayerActionsHandler playerActionsHandler;
+    private final PlayerMailbox mailbox;
+    private final int prefetchWindow;
+    private final int backgroundPrefetchWindow;
+    private final long nearEndPrefetchMs;
+    private final Duration resolveTimeout;
 
     @Getter
     private final PlayerEventProcessor eventHandler;
@@ -34,40 +57,66 @@ public class Player {
     @Getter
     private volatile PlayerState state = PlayerState.STOPPED;
     private volatile boolean repeat;
-    @Getter
-    private volatile long positionMs = 0L;
+    /** last position reported by Lavalink or set by a command; extrapolated by readers while playing */
+    private volatile PositionSample positionSample = new PositionSample(0L, System.nanoTime());
+    /** length of the current track, kept for readers outside the mailbox */
+    private volatile long currentLengthMs = 0L;
     @Getter
     private volatile int volume = 100;
 
+    /** nanoTime of the last published state change or seek; position reports from Lavalink do not count, so a
+     *  paused player, which keeps receiving them, still ages towards idle */
+    private volatile long lastActiveNanos = System.nanoTime();
+
+    /** position the next track started by playCurrentTrack starts at; only touched from mailbox commands */
+    private long pendingStartPositionMs = 0L;
+
+    /** position the track last sent to the node starts at, applied once the node reports the start; only touched
+     *  from mailbox commands */
+    private long startingAtPositionMs = 0L;
+
+    /** entry whose successor was already prepared near its end; only touched from mailbox commands */
+    private QueueEntry nearEndPreparedFor;
+
     /**
      * Creates a new Player instance for the given NodePlayer and state store.
      *
      * @param nodePlayer The NodePlayer instance to control playback.
      * @param stateStore The PlayerStateStore to manage UI state and positions.
+     * @param scheduler  The shared scheduler the player's mailbox is drained on.
+     * @param prefetchWindow The number of upcoming entries to resolve ahead of the current track.
+     * @param backgroundPrefetchWindow The number of entries after the prefetch window to resolve with background
+     *                                 priority.
+     * @param nearEndPrefetchMs How long before the end of the current track the next one is made ready.
+     * @param resolveTimeout How long playback waits for a placeholder entry to resolve before skipping it.
+     * @param commandTimeout How long a single mailbox command may run before it is cancelled.
      */
-    public Player(NodePlayer nodePlayer, PlayerStateStore stateStore) {
+    public Player(
+        NodePlayer nodePlayer,
+        PlayerStateStore stateStore,
+        Scheduler scheduler,
+        int prefetchWindow,
+        int backgroundPrefetchWindow,
+        long nearEndPrefetchMs,
+        Duration resolveTimeout,
+        Duration commandTimeout
+    ) {
         this.guildId = nodePlayer.guildId();
         this.stateStore = stateStore;
+        this.trackScheduler = new TrackScheduler(guildId, stateStore::hasQueueDeltaSubscribers);
 
         this.playerActionsHandler = new PlayerActionsHandler(nodePlayer);
         this.eventHandler  = new PlayerEventProcessor(this);
+        this.mailbox = new PlayerMailbox(guildId, scheduler, commandTimeout);
+        this.prefetchWindow = prefetchWindow;
+        this.backgroundPrefetchWindow = backgroundPrefetchWindow;
+        this.nearEndPrefetchMs = nearEndPrefetchMs;
+        this.resolveTimeout = resolveTimeout;
 
         log.info("Player created for guild {}", this.guildId);
         publishStatus();
     }
 
-    /**
-     * Initializes the player by subscribing to state updates.
-     * This should be called after the player is created.
-     */
-    private Mono<Void> playCurrentTrack() {
-        log.debug("Playing current track for guild {}: state={}", guildId, getState());
-        Track track = trackScheduler.getCurrentTrack()
-            .orElseThrow(() -> new IllegalStateException("No track to play"));
-
-        return playerActionsHandler.playTrack(track, volume);
-    }
-
     /**
      * Advances to the next track or becomes idle if no tracks are available.
      * This method is called when a track ends or is skipped.
@@ -75,13 +124,7 @@ public class Player {
      * @return A Mono that completes when the next track starts playing, or empty if idle.
      */
     public Mono<Void> playNextOrBecomeIdle() {
-        log.debug("Advancing to next track for guild {}: state={}", guildId, getState());
-        if (trackScheduler.next().isPresent()) {
-            return playCurrentTrack();
-        }
-        log.debug("No next track available, entering idle state for guild {}", guildId);
-        updateState(PlayerState.IDLE);
-        return Mono.empty();
+        return mailbox.submit(this::advanceOrBecomeIdle);
     }
 
     /**
@@ -91,9 +134,11 @@ public class Player {
      * @return A Mono that completes when the track starts playing.
      */
     public Mono<Void> replayCurrent() {
-        if (trackScheduler.getCurrentTrack().isEmpty()) return Mono.empty();
-        log.debug("Replaying current track for guild {}", guildId);
-        return playCurrentTrack();
+        return mailbox.submit(() -> {
+            if (trackScheduler.getCurrentTrack().isEmpty()) return Mono.empty();
+            log.debug("Replaying current track for guild {}", guildId);
+            return playCurrentTrack();
+        });
     }
 
     /**
@@ -104,18 +149,21 @@ public class Player {
      * @param track The track to play.
      * @return A Mono that completes when the play request is processed.
      */
-    public Mono<Void> play(Track track) {
-        log.debug("Request to play track: {} (state={}) for guild {}", track.getInfo().getTitle(), getState(), guildId);
-
-        if (getState() == PlayerState.STOPPED || getState() == PlayerState.PAUSED) {
-            trackScheduler.push(track);
-            trackScheduler.next();
-            return playCurrentTrack();
-        }
+    public Mono<Void> play(QueueEntry track) {
+        return mailbox.submit(() -> {
+            log.debug("Request to play track: {} (state={}) for guild {}", track.getTitle(), state, guildId);
+
+            if (state == PlayerState.STOPPED || state == PlayerState.PAUSED) {
+                trackScheduler.push(track);
+                trackScheduler.next();
+                return playCurrentTrack();
+            }
 
-        trackScheduler.enqueue(track);
-        publishUIState();
-        return Mono.empty();
+            trackScheduler.enqueue(track);
+            publishUIState();
+            prefetchUpcoming();
+            return Mono.empty();
+        });
     }
 
     /**
@@ -126,25 +174,56 @@ public class Player {
      * @param tracks The list of tracks to play.
      * @return A Mono that completes when the play request is processed.
      */
-    public Mono<Void> playAll(List<Track> tracks) {
+    public Mono<Void> playAll(List<QueueEntry> tracks) {
         if (tracks.isEmpty()) return Mono.empty();
 
-        log.debug("Request to play {} tracks (state={}) for guild {}", tracks.size(), getState(), guildId);
-
-        if (getState() == PlayerState.STOPPED || getState() == PlayerState.PAUSED) {
-            // Add first track as next track, then enqueue the rest
-            trackScheduler.push(tracks.getFirst());
-            if (tracks.size() > 1) {
-                trackScheduler.enqueueAll(tracks.subList(1, tracks.size()));
+        return mailbox.submit(() -> {
+            log.debug("Request to play {} tracks (state={}) for guild {}", tracks.size(), state, guildId);
+
+            if (state == PlayerState.STOPPED || state == PlayerState.PAUSED) {
+                // Add first track as next track, then enqueue the rest
+                trackScheduler.push(tracks.getFirst());
+                if (tracks.size() > 1) {
+                    trackScheduler.enqueueAll(tracks.subList(1, tracks.size()));
+                }
+                trackScheduler.next();
+                return playCurrentTrack();
             }
-            trackScheduler.next();
-            return playCurrentTrack();
-        }
 
-        // Already playing - just enqueue all tracks
-        trackScheduler.enqueueAll(tracks);
-        publishUIState();
-        return Mono.empty();
+            // Already playing - just enqueue all tracks
+            trackScheduler.enqueueAll(tracks);
+            publishUIState();
+            prefetchUpcoming();
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * Appends tracks to the end of the queue without interrupting playback.
+     * Playback starts with the first of them if nothing is queued yet or the player has run out of tracks.
+     * Used for the later batches of a playlist that is still loading, so they never jump ahead of it.
+     *
+     * @param tracks The tracks to append.
+     * @return A Mono that completes when the tracks are queued.
+     */
+    public Mono<Void> enqueueAll(List<QueueEntry> tracks) {
+        if (tracks.isEmpty()) return Mono.empty();
+
+        return mailbox.submit(() -> {
+            log.debug("Appending {} tracks (state={}) for guild {}", tracks.size(), state, guildId);
+            boolean wasEmpty = trackScheduler.isEmpty();
+            trackScheduler.enqueueAll(tracks);
+
+            if (wasEmpty) {
+                return playCurrentTrack();
+            }
+            if (state == PlayerState.IDLE) {
+                return advanceOrBecomeIdle();
+            }
+            publishUIState();
+            prefetchUpcoming();
+            return Mono.empty();
+        });
     }
 
     /**
@@ -154,15 +233,45 @@ public class Player {
      * @param track The track to play immediately.
      * @return A Mono that completes when the play request is processed.
      */
-    public Mono<Void> playNow(Track track) {
-        log.debug("Playing track immediately: {}", track.getInfo().getTitle());
-        boolean wasEmpty = trackScheduler.isEmpty();
-        trackScheduler.push(track);
-        publishUIState();
-        if (wasEmpty) {
-            return playCurrentTrack();
-        }
-        return skip();
+    public Mono<Void> playNow(QueueEntry track) {
+        return playNow(List.of(track));
+    }
+
+    /**
+     * Immediately plays the first of the specified tracks and enqueues the rest, as one atomic command.
+     *
+     * @param tracks The tracks to play; the first one starts immediately.
+     * @return A Mono that completes when the play request is processed.
+     */
+    public Mono<Void> playNow(List<QueueEntry> tracks) {
+        return playNow(tracks, 0L);
+    }
+
+    /**
+     * Immediately plays the first of the specified tracks from the given position and enqueues the rest, as one
+     * atomic command. The track starts at the position right away instead of being seeked after it started.
+     *
+     * @param tracks          The tracks to play; the first one starts immediately.
+     * @param startPositionMs The position to start the first track at in milliseconds; 0 starts from the beginning.
+     * @return A Mono that completes when the play request is processed.
+     */
+    public Mono<Void> playNow(List<QueueEntry> tracks, long startPositionMs) {
+        if (tracks.isEmpty()) return Mono.empty();
+
+        return mailbox.submit(() -> {
+            log.debug("Playing track immediately: {} at {}ms", tracks.getFirst().getTitle(), startPositionMs);
+            pendingStartPositionMs = Math.max(0L, startPositionMs);
+            boolean wasEmpty = trackScheduler.isEmpty();
+            trackScheduler.push(tracks.getFirst());
+            if (tracks.size() > 1) {
+                trackScheduler.enqueueAll(tracks.subList(1, tracks.size()));
+            }
+            publishUIState();
+            if (wasEmpty) {
+                return playCurrentTrack();
+            }
+            return skipBy(1);
+        });
     }
 
     /**
@@ -172,30 +281,25 @@ public class Player {
      * @return A Mono that completes when the stop action is processed.
      */
     public Mono<Void> stop() {
-        log.debug("Stopping playback (state={}) for guild {}", getState(), guildId);
+        return mailbox.submit(() -> {
+            log.debug("Stopping playback (state={}) for guild {}", state, guildId);
 
-        trackScheduler.clearAll();
-        publishUIState();
+            trackScheduler.clearAll();
+            publishUIState();
 
-        return playerActionsHandler.stopTrack();
+            return playerActionsHandler.stopTrack();
+        });
     }
 
     /**
      * Skips the current track and plays the next one in the queue.
      * If no next track is available, it leaves playback as-is.
+     * Skips that queue up behind each other are merged into one jump, so only one track is sent to Lavalink.
      *
      * @return A Mono that completes when the skip action is processed.
      */
     public Mono<Void> skip() {
-        log.debug("Skipping track (state={}): guild={}", getState(), guildId);
-
-        if (trackScheduler.next().isPresent()) {
-            return playCurrentTrack();
-        }
-
-        log.debug("No next track available; leaving current playback as-is.");
-        publishUIState();
-        return Mono.empty();
+        return mailbox.submitMergeable(SKIP, this::skipBy);
     }
 
     /**
@@ -205,13 +309,15 @@ public class Player {
      * @return A Mono that completes when the previous action is processed.
      */
     public Mono<Void> previous() {
-        log.debug("Going back to previous track (state={}): guild={}", getState(), guildId);
-        if (trackScheduler.previous().isPresent()) {
-            return playCurrentTrack();
-        }
-        log.debug("No previous track available; cannot go back.");
-        publishUIState();
-        return Mono.empty();
+        return mailbox.submit(() -> {
+            log.debug("Going back to previous track (state={}): guild={}", state, guildId);
+            if (trackScheduler.previous().isPresent()) {
+                return playCurrentTrack();
+            }
+            log.debug("No previous track available; cannot go back.");
+            publishUIState();
+            return Mono.empty();
+        });
     }
 
     /**
@@ -221,21 +327,23 @@ public class Player {
      * @return A Mono that completes when the pause action is processed.
      */
     public Mono<Void> pause() {
-        log.debug("Pausing playback (state={}): guild={}", getState(), guildId);
-        if (getState() == PlayerState.PAUSED) {
-            publishUIState();
-            return Mono.empty();
-        }
+        return mailbox.submit(() -> {
+            log.debug("Pausing playback (state={}): guild={}", state, guildId);
+            if (state == PlayerState.PAUSED) {
+                publishUIState();
+                return Mono.empty();
+            }
 
-        PlayerState previousState = this.state;
-        updateState(PlayerState.PAUSED);
+            PlayerState previousState = this.state;
+            applyState(PlayerState.PAUSED);
 
-        return playerActionsHandler.pauseTrack()
-            .onErrorResume(e -> {
-                log.warn("Pause failed for guild {}, rolling back: {}", guildId, e.toString());
-                updateState(previousState);
-                return Mono.error(e);
-            });
+            return playerActionsHandler.pauseTrack()
+                .onErrorResume(e -> {
+                    log.warn("Pause failed for guild {}, rolling back: {}", guildId, e.toString());
+                    applyState(previousState);
+                    return Mono.error(e);
+                });
+        });
     }
 
     /**
@@ -245,19 +353,21 @@ public class Player {
      * @return A Mono that completes when the resume action is processed.
      */
     public Mono<Void> resume() {
-        if (getState() == PlayerState.PLAYING) {
-            publishUIState();
-            return Mono.empty();
-        }
-        PlayerState previousState = this.state;
-        updateState(PlayerState.PLAYING);
-
-        return playerActionsHandler.resumeTrack()
-            .onErrorResume(e -> {
-                log.warn("Resume failed for guild {}, rolling back: {}", guildId, e.toString());
-                updateState(previousState);
-                return Mono.error(e);
-            });
+        return mailbox.submit(() -> {
+            if (state == PlayerState.PLAYING) {
+                publishUIState();
+                return Mono.empty();
+            }
+            PlayerState previousState = this.state;
+            applyState(PlayerState.PLAYING);
+
+            return playerActionsHandler.resumeTrack()
+                .onErrorResume(e -> {
+                    log.warn("Resume failed for guild {}, rolling back: {}", guildId, e.toString());
+                    applyState(previousState);
+                    return Mono.error(e);
+                });
+        });
     }
 
     public Mono<Void> seek(long positionMs) {
@@ -265,17 +375,20 @@ public class Player {
             return Mono.error(new IllegalArgumentException("Seek position cannot be negative."));
         }
 
-        long previousPosition = this.positionMs;
-        this.positionMs = positionMs;
-        publishPosition();
-
-        return playerActionsHandler.seekTrack(positionMs)
-            .onErrorResume(e -> {
-                log.warn("Seek failed for guild {}, rolling back: {}", guildId, e.toString());
-                this.positionMs = previousPosition;
-                publishPosition();
-                return Mono.error(e);
-            });
+        return mailbox.submit(() -> {
+            long previousPosition = getPositionMs();
+            lastActiveNanos = System.nanoTime();
+            setPosition(positionMs);
+            publishPosition();
+
+            return playerActionsHandler.seekTrack(positionMs)
+                .onErrorResume(e -> {
+                    log.warn("Seek failed for guild {}, rolling back: {}", guildId, e.toString());
+                    setPosition(previousPosition);
+                    publishPosition();
+                    return Mono.error(e);
+                });
+        });
     }
 
     /**
@@ -287,34 +400,46 @@ public class Player {
      * @return A Mono that completes when the jump action is processed.
      */
     public Mono<Void> jumpToTrack(String trackIdentifier) {
-        log.debug("Jumping to track by identifier: {}", trackIdentifier);
-        if (trackScheduler.jumpToPrefixedIdentifier(trackIdentifier).isPresent()) {
-            return playCurrentTrack();
-        }
-        log.warn("Track identifier not found: {}", trackIdentifier);
-        publishUIState();
-        return Mono.empty();
+        return mailbox.submit(() -> {
+            log.debug("Jumping to track by identifier: {}", trackIdentifier);
+            if (trackScheduler.jumpToPrefixedIdentifier(trackIdentifier).isPresent()) {
+                return playCurrentTrack();
+            }
+            log.warn("Track identifier not found: {}", trackIdentifier);
+            publishUIState();
+            return Mono.empty();
+        });
     }
 
     /**
      * Shuffles the current track queue.
      * This will randomize the order of tracks in the queue.
+     *
+     * @return A Mono that completes when the queue has been shuffled.
      */
-    public void shuffle() {
-        log.debug("Shuffling track queue for guild {}", guildId);
-        trackScheduler.shuffle();
-        publishUIState();
+    public Mono<Void> shuffle() {
+        return mailbox.submit(() -> {
+            log.debug("Shuffling track queue for guild {}", guildId);
+            trackScheduler.shuffle();
+            publishUIState();
+            return Mono.empty();
+        });
     }
 
     /**
      * Toggles the repeat mode for the player.
      * If repeat is enabled, it will replay the current track when it ends.
      * If disabled, it will play the next track in the queue.
+     *
+     * @return A Mono that completes when the repeat mode has been toggled.
      */
-    public synchronized void toggleRepeat() {
-        log.debug("Toggling repeat mode for guild {}: current state={}", guildId, repeat);
-        this.repeat = !this.repeat;
-        publishUIState();
+    public Mono<Void> toggleRepeat() {
+        return mailbox.submit(() -> {
+            log.debug("Toggling repeat mode for guild {}: current state={}", guildId, repeat);
+            this.repeat = !this.repeat;
+            publishUIState();
+            return Mono.empty();
+        });
     }
 
 
@@ -322,9 +447,111 @@ public class Player {
         return repeat;
     }
 
+    /**
+     * Returns the playback position, extrapolated from the last reported position while playing.
+     * Lavalink reports positions only every few seconds; in between the position is advanced by the time passed
+     * since the report, capped at the track length.
+     *
+     * @return The current position in milliseconds.
+     */
+    public long getPositionMs() {
+        PositionSample sample = positionSample;
+        if (state != PlayerState.PLAYING) {
+            return sample.positionMs();
+        }
+        long extrapolated = sample.positionMs() + (System.nanoTime() - sample.sampledAtNanos()) / 1_000_000L;
+        long lengthMs = currentLengthMs;
+        return lengthMs > 0 ? Math.min(extrapolated, lengthMs) : extrapolated;
+    }
+
+    /**
+     * Computes the player's current position on demand.
+     *
+     * @return The extrapolated position together with the length of the current track.
+     */
+    public PlayerPosition getPosition() {
+        return new PlayerPosition(guildId, getPositionMs(), currentLengthMs);
+    }
+
+    /**
+     * Checks whether the player has been idle for at least the given time: nothing is playing, and its state has
+     * not changed nor has anybody seeked in that time. A paused player counts as idle.
+     *
+     * @param ttl The idle time.
+     * @return true if the player has not been playing or changed for at least {@code ttl}.
+     */
+    public boolean isIdleFor(Duration ttl) {
+        return state != PlayerState.PLAYING && System.nanoTime() - lastActiveNanos >= ttl.toNanos();
+    }
+
+    /**
+     * Checks whether the player has nothing to play: no current track and an empty queue.
+     * Must only be called from within a mailbox command, e.g. as a {@link #releaseIf} condition.
+     *
+     * @return true if neither a current track nor queued tracks exist.
+     */
+    public boolean isEmpty() {
+        return trackScheduler.getCurrentTrack().isEmpty() && trackScheduler.getQueue().isEmpty();
+    }
+
+    /**
+     * Releases the player if the condition still holds once the release command runs, so commands queued before
+     * it are taken into account: clears the queue without publishing the change and destroys the player on the
+     * Lavalink node. The player must not be used after it was released.
+     *
+     * @param condition  Checked from within the mailbox; the player is kept if it does not hold.
+     * @param onReleased Runs from within the mailbox right before the player is released, e.g. to unregister it
+     *                   before any later command can look it up.
+     * @return A Mono emitting the estimated number of bytes held by the released queue, or empty if the player
+     *         was kept.
+     */
+    public Mono<Long> releaseIf(Predicate<Player> condition, Runnable onReleased) {
+        return mailbox.submit(() -> {
+            if (!condition.test(this)) {
+                log.debug("Keeping player (state={}) for guild {}; it is in use again", state, guildId);
+                return Mono.empty();
+            }
+            onReleased.run();
+            log.debug("Releasing player (state={}) for guild {}", state, guildId);
+            long queueBytes = trackScheduler.estimatedSizeBytes();
+
+            trackScheduler.clearAll();
+            trackScheduler.drainDeltas();
+            nearEndPreparedFor = null;
+            state = PlayerState.STOPPED;
+            setPosition(0L);
+
+            return playerActionsHandler.destroyPlayer().thenReturn(queueBytes);
+        });
+    }
+
+    /**
+     * Marks the current track as started: the player is playing from the position the track was started at,
+     * which is zero unless it was played at a position.
+     *
+     * @return A Mono that completes when the state has been updated.
+     */
+    public Mono<Void> markTrackStarted() {
+        return mailbox.submit(() -> {
+            long startPositionMs = startingAtPositionMs;
+            startingAtPositionMs = 0L;
+            applyState(PlayerState.PLAYING);
+            applyPosition(startPositionMs);
+            return Mono.empty();
+        });
+    }
 
-    public List<Track> getQueue() {
-        return trackScheduler.getQueue();
+    /**
+     * Marks playback as stopped by Lavalink.
+     * The player becomes idle when nothing is left to play, and stopped otherwise.
+     *
+     * @return A Mono that completes when the state has been updated.
+     */
+    public Mono<Void> markTrackStopped() {
+        return mailbox.submit(() -> {
+            applyState(trackScheduler.getQueue().isEmpty() ? PlayerState.IDLE : PlayerState.STOPPED);
+            return Mono.empty();
+        });
     }
 
     /**
@@ -332,15 +559,13 @@ public class Player {
      * This method is called when the player state changes (e.g., to PAUSED, PLAYING, or STOPPED).
      *
      * @param newState The new state to set for the player.
+     * @return A Mono that completes when the state has been updated.
      */
-    public void updateState(PlayerState newState) {
-        log.debug("Updating state for guild {}", guildId);
-        this.state = newState;
-        if (newState == PlayerState.STOPPED) {
-            this.positionMs = 0L;
-        }
-        publishUIState();
-        publishPosition();
+    public Mono<Void> updateState(PlayerState newState) {
+        return mailbox.submit(() -> {
+            applyState(newState);
+            return Mono.empty();
+        });
     }
 
     /**
@@ -348,50 +573,202 @@ public class Player {
      * This method is called periodically to update the current playback position.
      *
      * @param positionMs The new position in milliseconds.
+     * @return A Mono that completes when the position has been updated.
+     */
+    public Mono<Void> updatePosition(long positionMs) {
+        return mailbox.submit(() -> {
+            applyPosition(positionMs);
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * Plays the scheduler's current track, resolving it first if it is a placeholder.
+     * An entry that cannot be resolved, or does not resolve within the resolve timeout, is skipped in favour of
+     * the next one by a separate command, see {@link #skipUnresolvable}. Must only be called from within a mailbox
+     * command.
      */
-    public void updatePosition(long positionMs) {
-        this.positionMs = positionMs;
+    private Mono<Void> playCurrentTrack() {
+        log.debug("Playing current track for guild {}: state={}", guildId, state);
+        QueueEntry entry = trackScheduler.getCurrentTrack()
+            .orElseThrow(() -> new IllegalStateException("No track to play"));
+
+        long startPositionMs = pendingStartPositionMs;
+        pendingStartPositionMs = 0L;
+
+        prefetchUpcoming();
+        return entry.resolve()
+            .contextWrite(ResolutionContext.interactive(guildId))
+            .timeout(resolveTimeout)
+            .map(Optional::of)
+            .onErrorResume(resolveError -> {
+                log.warn("Skipping unresolvable entry '{}' in guild {}: {}",
+                    entry.getTitle(), guildId, resolveError.toString());
+                return Mono.just(Optional.empty());
+            })
+            .flatMap(track -> {
+                if (track.isEmpty()) {
+                    return skipUnresolvable(entry);
+                }
+                startingAtPositionMs = startPositionMs;
+                return playerActionsHandler.playTrack(track.get(), volume, startPositionMs);
+            });
+    }
+
+    /**
+     * Queues the skip past an unresolvable entry as a command of its own instead of advancing inline.
+     * A run of unresolvable entries therefore neither recurses nor keeps the mailbox busy, and commands queued in
+     * the meantime, e.g. a stop, run in between. The skip is dropped if playback has moved on by the time it runs.
+     * Must only be called from within a mailbox command.
+     */
+    private Mono<Void> skipUnresolvable(QueueEntry entry) {
+        mailbox.submit(() -> trackScheduler.getCurrentTrack().orElse(null) == entry
+                ? advanceOrBecomeIdle()
+                : Mono.<Void>empty())
+            .subscribe(
+                ignored -> { },
+                error -> log.warn("Skipping unresolvable entry failed for guild {}: {}", guildId, error.toString())
+            );
+        return Mono.empty();
+    }
+
+    /**
+     * Starts resolving the entries within the prefetch window after the current track, which are about to be
+     * played and therefore resolved with interactive priority, and the entries of the background window after them.
+     * Called whenever the queue or the current track changes, so the windows move along with the play cursor.
+     * Must only be called from within a mailbox command.
+     */
+    private void prefetchUpcoming() {
+        Context interactive = ResolutionContext.interactive(guildId);
+        Context background = ResolutionContext.background(guildId);
+        List<QueueEntry> upcoming = trackScheduler.upcoming(prefetchWindow + backgroundPrefetchWindow);
+        for (int i = 0; i < upcoming.size(); i++) {
+            upcoming.get(i).prefetch(i < prefetchWindow ? interactive : background);
+        }
+    }
+
+    /**
+     * Advances to the next track, or becomes idle when the queue is exhausted.
+     * Must only be called from within a mailbox command.
+     */
+    private Mono<Void> advanceOrBecomeIdle() {
+        log.debug("Advancing to next track for guild {}: state={}", guildId, state);
+        if (trackScheduler.next().isPresent()) {
+            return playCurrentTrack();
+        }
+        log.debug("No next track available, entering idle state for guild {}", guildId);
+        applyState(PlayerState.IDLE);
+        return Mono.empty();
+    }
+
+    /**
+     * Moves forward by up to {@code count} tracks and plays the track it lands on.
+     * Must only be called from within a mailbox command.
+     *
+     * @param count The number of tracks to skip.
+     */
+    private Mono<Void> skipBy(int count) {
+        log.debug("Skipping {} track(s) (state={}): guild={}", count, state, guildId);
+
+        boolean moved = false;
+        for (int i = 0; i < count && trackScheduler.next().isPresent(); i++) {
+            moved = true;
+        }
+        if (moved) {
+            return playCurrentTrack();
+        }
+
+        log.debug("No next track available; leaving current playback as-is.");
+        publishUIState();
+        return Mono.empty();
+    }
+
+    /**
+     * Sets the player state, resetting the position when stopped, and publishes the change.
+     * Must only be called from within a mailbox command.
+     */
+    private void applyState(PlayerState newState) {
+        log.debug("Updating state for guild {}", guildId);
+        // freeze the extrapolated position when playback stops advancing, restart the clock when it resumes
+        setPosition(newState == PlayerState.STOPPED ? 0L : getPositionMs());
+        this.state = newState;
+        publishUIState();
         publishPosition();
     }
 
+    /**
+     * Records the playback position reported by Lavalink, publishing it only if somebody watches it.
+     * Must only be called from within a mailbox command.
+     */
+    private void applyPosition(long positionMs) {
+        setPosition(positionMs);
+        publishPosition();
+        prepareNextNearEnd();
+    }
+
+    private void setPosition(long positionMs) {
+        positionSample = new PositionSample(positionMs, System.nanoTime());
+    }
+
+    /**
+     * Makes the next entry ready once the current track is about to end, so the play request can be sent the
+     * moment TrackEnd arrives. This covers entries outside the prefetch window, e.g. after the queue was shuffled
+     * or extended; a lazy entry is resolved with interactive priority, a loaded entry is already ready to send.
+     * Runs at most once per current entry. Must only be called from within a mailbox command.
+     */
+    private void prepareNextNearEnd() {
+        if (state != PlayerState.PLAYING || repeat) return;
+        QueueEntry current = trackScheduler.getCurrentTrack().orElse(null);
+        if (current == null || current == nearEndPreparedFor) return;
+
+        long lengthMs = current.getLengthMs();
+        if (lengthMs <= 0 || lengthMs - positionSample.positionMs() > nearEndPrefetchMs) return;
+
+        nearEndPreparedFor = current;
+        trackScheduler.upcoming(1).forEach(next -> {
+            log.debug("Preparing next entry '{}' near the end of the current track in guild {}", next.getTitle(), guildId);
+            next.prefetch(ResolutionContext.interactive(guildId));
+        });
+    }
+
     /**
      * Publishes the current UI state to the state store.
      * This includes the guild ID, player state, volume, repeat mode,
      * current track, queue, and history.
+     * Queue deltas recorded since the last publish are emitted first, so the snapshot's version is never
+     * behind a delta a consumer has already seen.
      * This method is called whenever the player state changes.
      * It ensures that the UI is kept in sync with the current playback state.
      */
     private void publishUIState() {
         log.debug("Publishing UI state for guild {}: state={}, volume={}, repeat={}", guildId, state, volume, repeat);
+        lastActiveNanos = System.nanoTime();
+        currentLengthMs = trackScheduler.getCurrentTrack().map(QueueEntry::getLengthMs).orElse(0L);
+        stateStore.publishQueueDeltas(trackScheduler.drainDeltas());
         PlayerUIState uiState = new PlayerUIState(
             guildId,
             state,
             volume,
             repeat,
             trackScheduler.getCurrentTrack().orElse(null),
-            List.copyOf(trackScheduler.getQueue()),
-            List.copyOf(trackScheduler.getHistory())
+            trackScheduler.getQueue(),
+            trackScheduler.getHistory(),
+            trackScheduler.getVersion()
         );
         stateStore.setUIState(uiState);
     }
 
     /**
-     * Publishes the current playback position to the state store.
-     * This includes the guild ID, current position in milliseconds,
-     * and the length of the current track.
-     * This method is called periodically to keep the position updated.
+     * Publishes the current playback position to the state store, if anyone subscribed to it.
+     * Readers without a subscription compute the position on demand through {@link #getPosition()}, so
+     * position updates of unwatched guilds cost no allocation or emission.
      */
     private void publishPosition() {
-        log.debug("Publishing position for guild {}: positionMs={}", guildId, positionMs);
-        long lengthMs = trackScheduler.getCurrentTrack()
-            .map(t -> t.getInfo().getLength())
-            .orElse(0L);
-
-        PlayerPosition position = new PlayerPosition(
-            guildId,
-            positionMs,
-            lengthMs
-        );
+        if (!stateStore.isPositionObserved(guildId)) {
+            return;
+        }
+        PlayerPosition position = getPosition();
+        log.debug("Publishing position for guild {}: positionMs={}", guildId, position.positionMs());
         stateStore.setPosition(position);
     }
 
@@ -401,8 +778,10 @@ public class Player {
      * or playback position, ensuring that both are kept in sync.
      */
     private void publishStatus() {
-        log.debug("Publishing status for guild {}: state={}, positionMs={}", guildId, state, positionMs);
+        log.debug("Publishing status for guild {}: state={}", guildId, state);
         publishUIState();
         publishPosition();
     }
+
+    private record PositionSample(long positionMs, long sampledAtNanos) { }
 }
@@ -0,0 +1,133 @@
+package com.gammatunes.component.audio.core;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free mailbox that turns a {@link Player} into a single-writer actor.
+ * Commands from any thread are queued and drained one at a time on a shared scheduler; the next command only
+ * starts once the Mono returned by the previous one has terminated, so compound check-then-act sequences
+ * never interleave. Consecutive commands submitted with the same merge key are collapsed into a single run.
+ * <p>
+ * Every command is bounded by the command timeout: a command whose Mono has not terminated by then is cancelled
+ * and fails with a {@link TimeoutException}, so a hung track load or Lavalink call cannot hold up the commands
+ * queued behind it.
+ */
+@Slf4j
+final class PlayerMailbox {
+
+    private final long guildId;
+    private final Scheduler scheduler;
+    private final Duration commandTimeout;
+    private final Queue<Envelope<?>> queue = new ConcurrentLinkedQueue<>();
+
+    /** number of submitted envelopes not yet completed; the submitter that moves it off zero starts the drain */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    PlayerMailbox(long guildId, Scheduler scheduler, Duration commandTimeout) {
+        this.guildId = guildId;
+        this.scheduler = scheduler;
+        this.commandTimeout = commandTimeout;
+    }
+
+    /**
+     * Queues a command for serial execution.
+     *
+     * @param command The command to run; it may only touch player state from within the returned Mono.
+     * @return A Mono that completes with the command's result once it has run.
+     */
+    <T> Mono<T> submit(Supplier<Mono<T>> command) {
+        return enqueue(null, ignoredCount -> command.get());
+    }
+
+    /**
+     * Queues a command that is merged with identical commands waiting directly behind it.
+     * The command receives the number of merged submissions, e.g. three queued skips run as one skip by three.
+     *
+     * @param mergeKey Key identifying commands that may be merged.
+     * @param command  The command to run, given the number of merged submissions.
+     * @return A Mono that completes with the merged command's result once it has run.
+     */
+    <T> Mono<T> submitMergeable(Object mergeKey, IntFunction<Mono<T>> command) {
+        return enqueue(Objects.requireNonNull(mergeKey), command);
+    }
+
+    private <T> Mono<T> enqueue(Object mergeKey, IntFunction<Mono<T>> command) {
+        return Mono.create(sink -> {
+            queue.offer(new Envelope<>(mergeKey, command, sink));
+            if (pending.getAndIncrement() == 0) {
+                scheduler.schedule(this::runNext);
+            }
+        });
+    }
+
+    /**
+     * Runs the command at the head of the queue, merged with any mergeable followers,
+     * and schedules the next run once its Mono has terminated.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void runNext() {
+        Envelope head = queue.poll();
+        if (head == null) {
+            return;
+        }
+
+        List<Envelope> batch = new ArrayList<>(1);
+        batch.add(head);
+        while (head.mergeKey() != null) {
+            Envelope<?> next = queue.peek();
+            if (next == null || !head.mergeKey().equals(next.mergeKey())) {
+                break;
+            }
+            batch.add(queue.poll());
+        }
+        if (batch.size() > 1) {
+            log.debug("Merged {} '{}' commands for guild {}", batch.size(), head.mergeKey(), guildId);
+        }
+
+        Mono<?> result;
+        try {
+            result = Objects.requireNonNull((Mono<?>) head.command().apply(batch.size()), "command returned null");
+        } catch (Throwable commandError) {
+            result = Mono.error(commandError);
+        }
+
+        int completed = batch.size();
+        result
+            .timeout(commandTimeout)
+            .doOnError(TimeoutException.class, timeout -> log.warn(
+                "Command for guild {} did not finish within {}ms, cancelling it", guildId, commandTimeout.toMillis()))
+            .subscribe(
+                value -> batch.forEach(envelope -> envelope.sink().success(value)),
+                error -> {
+                    batch.forEach(envelope -> envelope.sink().error(error));
+                    release(completed);
+                },
+                () -> {
+                    batch.forEach(envelope -> envelope.sink().success());
+                    release(completed);
+                }
+            );
+    }
+
+    private void release(int completed) {
+        if (pending.addAndGet(-completed) > 0) {
+            scheduler.schedule(this::runNext);
+        }
+    }
+
+    private record Envelope<T>(Object mergeKey, IntFunction<Mono<T>> command, MonoSink<T> sink) { }
+}
@@ -1,32 +1,62 @@
 package com.gammatunes.component.audio.core;
 
+import com.gammatunes.component.guild.GuildContext;
+import com.gammatunes.component.guild.GuildContexts;
 import com.gammatunes.component.lavalink.NodePlayer;
 import dev.arbjerg.lavalink.client.LavalinkClient;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Keeps exactly one {@link Player} instance per guild.
- *  • Caches the player so queue/repeat state survive between commands.
+ *  • Caches the player in the guild's {@link GuildContext} so queue/repeat state survive between commands.
  *  • Lazily creates the player on first use.
- *  • Provides a cleanup hook when the bot leaves a guild.
+ *  • Provides a cleanup hook when the bot leaves a guild; tearing down everything else a guild holds is up to
+ *    the {@code PlayerLifecycleManager}.
+ *  • Owns the scheduler every player's command mailbox is drained on.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class PlayerRegistry {
 
-    /** guild ID → cached {@code Player} */
-    private final Map<Long, Player> players = new ConcurrentHashMap<>();
-
+    private final GuildContexts guildContexts;
     private final LavalinkClient lavalinkClient;
     private final PlayerStateStore playerStateStore;
 
+    /** shared by all players; each player's mailbox only ever occupies one worker at a time */
+    private final Scheduler playerScheduler = Schedulers.newParallel("player-actor");
+
+    @Value("${gamma.bot.player.prefetch-window:3}")
+    private int prefetchWindow;
+
+    @Value("${gamma.bot.player.background-prefetch-window:20}")
+    private int backgroundPrefetchWindow;
+
+    @Value("${gamma.bot.player.near-end-prefetch-ms:15000}")
+    private long nearEndPrefetchMs;
+
+    @Value("${gamma.bot.player.resolve-timeout-ms:10000}")
+    private long resolveTimeoutMs;
+
+    @Value("${gamma.bot.player.command-timeout-ms:30000}")
+    private long commandTimeoutMs;
+
+    /** number of guilds that currently have a player */
+    private final AtomicInteger livePlayers = new AtomicInteger();
+
     /**
      * Get the cached player for a guild, or create & cache it if it doesn’t exist.
      *
@@ -34,13 +64,34 @@ public class PlayerRegistry {
      * @return a Mono that emits the {@link Player}
      */
     public Mono<Player> getOrCreate(long guildId) {
-        return Mono.fromCallable(() ->
-            players.computeIfAbsent(guildId, id -> {
-                log.debug("Creating Player for guild {}", id);
-                NodePlayer nodePlayer = new NodePlayer(lavalinkClient, id);
-                return new Player(nodePlayer, playerStateStore);
-            })
-        );
+        return Mono.fromCallable(() -> {
+            Player player;
+            do {
+                player = guildContexts.getOrCreate(guildId).getOrCreatePlayer(this::createPlayer);
+            } while (player == null);
+            return player;
+        });
+    }
+
+    /**
+     * Like {@link #getOrCreate}, but also tells whether this call created the player, so a request that set up a
+     * player only for itself knows the player is its own to tear down again.
+     *
+     * @param guildId Discord guild/server id
+     * @return a Mono that emits the {@link Player} and whether it was created by this call
+     */
+    public Mono<Acquired> acquire(long guildId) {
+        return Mono.fromCallable(() -> {
+            AtomicBoolean created = new AtomicBoolean();
+            Player player;
+            do {
+                player = guildContexts.getOrCreate(guildId).getOrCreatePlayer(id -> {
+                    created.set(true);
+                    return createPlayer(id);
+                });
+            } while (player == null);
+            return new Acquired(player, created.get());
+        });
     }
 
     /**
@@ -50,11 +101,34 @@ public class PlayerRegistry {
      * @return true if a player exists for this guild, false otherwise
      */
     public Mono<Player> get(long guildId) {
-        return Mono.justOrEmpty(players.get(guildId));
+        return Mono.justOrEmpty(find(guildId));
     }
 
     public boolean exists(long guildId) {
-        return players.containsKey(guildId);
+        return find(guildId) != null;
+    }
+
+    /**
+     * Returns the number of cached players.
+     *
+     * @return The number of guilds that currently have a player.
+     */
+    public int size() {
+        return livePlayers.get();
+    }
+
+    /**
+     * Returns a snapshot of the cached players.
+     *
+     * @return The players, in no particular order.
+     */
+    public List<Player> players() {
+        List<Player> players = new ArrayList<>();
+        for (GuildContext context : guildContexts.all()) {
+            Player player = context.getPlayer();
+            if (player != null) players.add(player);
+        }
+        return players;
     }
 
     /**
@@ -63,7 +137,45 @@ public class PlayerRegistry {
      * @param guildId Discord guild/server id
      */
     public void destroy(long guildId) {
-        players.remove(guildId);
+        GuildContext context = guildContexts.get(guildId);
+        if (context != null && context.removePlayer() != null) {
+            livePlayers.decrementAndGet();
+        }
         log.debug("Destroyed player for guild {}", guildId);
     }
+
+    private Player find(long guildId) {
+        GuildContext context = guildContexts.get(guildId);
+        return context == null ? null : context.getPlayer();
+    }
+
+    private Player createPlayer(long guildId) {
+        log.debug("Creating Player for guild {}", guildId);
+        NodePlayer nodePlayer = new NodePlayer(lavalinkClient, guildId);
+        Player player = new Player(
+            nodePlayer,
+            playerStateStore,
+            playerScheduler,
+            prefetchWindow,
+            backgroundPrefetchWindow,
+            nearEndPrefetchMs,
+            Duration.ofMillis(resolveTimeoutMs),
+            Duration.ofMillis(commandTimeoutMs)
+        );
+        livePlayers.incrementAndGet();
+        return player;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        playerScheduler.dispose();
+    }
+
+    /**
+     * A player returned by {@link #acquire}.
+     *
+     * @param player  The guild's player.
+     * @param created Whether the player was created by the acquiring call.
+     */
+    public record Acquired(Player player, boolean created) { }
 }
@@ -2,97 +2,177 @@ package com.gammatunes.component.audio.core;
 
 import com.gammatunes.component.audio.events.PlayerUIState;
 import com.gammatunes.component.audio.events.PlayerPosition;
+import com.gammatunes.component.audio.events.QueueDelta;
+import com.gammatunes.component.guild.GuildContext;
+import com.gammatunes.component.guild.GuildContexts;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Sinks;
-import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.List;
 
 /**
  * PlayerStateStore is a component that manages the state of the audio player for different guilds.
  * It provides methods to set and get the current UI state and position, as well as to stream these states.
- * The states are stored in a thread-safe manner using ConcurrentHashMap and Sinks for reactive streaming.
+ * The latest states are kept as versioned cells in each guild's {@link GuildContext} and published through a
+ * {@link StateHub}: setting a state never blocks or fails, and each subscriber receives the latest state of every
+ * guild it has not seen yet, conflating updates it could not keep up with.
+ * Queue changes are additionally streamed as versioned {@link QueueDelta}s, so consumers can follow large queues
+ * without re-reading the full UI state. Deltas are never conflated; they are emitted serially from any thread, and
+ * only recorded while somebody subscribes to them.
  */
 @Component
 public class PlayerStateStore {
 
-    private final ConcurrentHashMap<Long, PlayerUIState> currentUI = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Long, PlayerPosition> currentPosition = new ConcurrentHashMap<>();
-
-    private final ConcurrentHashMap<Long, Sinks.Many<PlayerUIState>> perGuildUI = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Long, Sinks.Many<PlayerPosition>> perGuildPosition = new ConcurrentHashMap<>();
+    private final GuildContexts guildContexts;
+    private final StateHub<PlayerUIState> uiStates;
+    private final StateHub<PlayerPosition> positions;
+    private final SerializedEmitter<QueueDelta> queueDeltas;
 
-    private final Sinks.Many<PlayerUIState> globalUI = Sinks.many().multicast().directBestEffort();
-    private final Sinks.Many<PlayerPosition> globalPosition = Sinks.many().multicast().directBestEffort();
+    public PlayerStateStore(GuildContexts guildContexts, StateHubMetrics stateHubMetrics) {
+        this.guildContexts = guildContexts;
+        this.uiStates = new StateHub<>("ui", guildContexts, GuildContext::getUiCell, stateHubMetrics);
+        this.positions = new StateHub<>("position", guildContexts, GuildContext::getPositionCell, stateHubMetrics);
+        this.queueDeltas = new SerializedEmitter<>("queue_deltas", stateHubMetrics);
+    }
 
     /**
-     * Retrieves the sink for PlayerUIState for a specific guild, creating it if it does not exist.
+     * Gets the current UI state for a specific guild.
      *
      * @param guildId The ID of the guild.
-     * @return The Sinks.Many instance for PlayerUIState.
+     * @return The PlayerUIState for the guild, or null if not set.
      */
-    private Sinks.Many<PlayerUIState> sinkUI(long guildId) {
-        return perGuildUI.computeIfAbsent(guildId, id -> Sinks.many().replay().latest());
+    public PlayerUIState getUI(long guildId) {
+        return uiStates.latest(guildId);
     }
 
     /**
-     * Retrieves the sink for PlayerPosition for a specific guild, creating it if it does not exist.
+     * Gets the current position for a specific guild, computed from its player on demand.
      *
      * @param guildId The ID of the guild.
-     * @return The Sinks.Many instance for PlayerPosition.
+     * @return The PlayerPosition for the guild, or null if not set.
      */
-    private Sinks.Many<PlayerPosition> sinkPosition(long guildId) {
-        return perGuildPosition.computeIfAbsent(guildId, id -> Sinks.many().replay().latest());
+    public PlayerPosition getPosition(long guildId) {
+        GuildContext context = guildContexts.get(guildId);
+        return context == null ? null : context.getPosition();
     }
 
     /**
-     * Gets the current UI state for a specific guild.
+     * Tells whether anybody subscribes to a guild's position, directly or through a stream of all guilds.
+     * Players skip publishing positions nobody watches; readers compute them through {@link #getPosition}.
      *
      * @param guildId The ID of the guild.
-     * @return The PlayerUIState for the guild, or null if not set.
+     * @return true if position updates of the guild have a subscriber.
      */
-    public PlayerUIState getUI(long guildId) {
-        return currentUI.get(guildId);
+    public boolean isPositionObserved(long guildId) {
+        return positions.isObserved(guildId);
     }
 
     /**
-     * Gets the current position for a specific guild.
+     * Sets the UI state for a specific guild and notifies its subscribers.
+     *
+     * @param uiState The PlayerUIState to set.
+     */
+    public void setUIState(PlayerUIState uiState) {
+        uiStates.publish(uiState.guildId(), uiState);
+    }
+
+    /**
+     * Sets the position for a specific guild and notifies its subscribers.
+     *
+     * @param position The PlayerPosition to set.
+     */
+    public void setPosition(PlayerPosition position) {
+        positions.publish(position.guildId(), position);
+    }
+
+    /**
+     * Forgets the UI state and position stored for a guild.
+     * Called once the guild's player has been released.
      *
      * @param guildId The ID of the guild.
-     * @return The PlayerPosition for the guild, or null if not set.
      */
-    public PlayerPosition getPosition(long guildId) {
-        return currentPosition.get(guildId);
+    public void clear(long guildId) {
+        uiStates.clear(guildId);
+        positions.clear(guildId);
     }
 
     /**
-     * Sets the UI state for a specific guild and emits it to the corresponding sinks.
+     * Emits queue deltas in order.
+     * Deltas dropped for a slow subscriber show up as a version gap, after which it resyncs from {@link #getUI}.
      *
-     * @param uiState The PlayerUIState to set.
+     * @param deltas The deltas to emit, oldest first.
      */
-    public void setUIState(PlayerUIState uiState) {
-        currentUI.put(uiState.guildId(), uiState);
-        sinkUI(uiState.guildId()).tryEmitNext(uiState);
-        globalUI.tryEmitNext(uiState);
+    public void publishQueueDeltas(List<QueueDelta> deltas) {
+        for (QueueDelta delta : deltas) {
+            queueDeltas.emit(delta);
+        }
     }
 
     /**
-     * Sets the position for a specific guild and emits it to the corresponding sinks.
+     * Tells whether anybody subscribes to queue deltas. Players only record deltas while this holds; changes made
+     * before a subscription show up as a version gap that the subscriber resolves from {@link #getUI}.
      *
-     * @param position The PlayerPosition to set.
+     * @return true if queue deltas have a subscriber.
      */
-    public void setPosition(PlayerPosition position) {
-        currentPosition.put(position.guildId(), position);
-        sinkPosition(position.guildId()).tryEmitNext(position);
-        globalPosition.tryEmitNext(position);
+    public boolean hasQueueDeltaSubscribers() {
+        return queueDeltas.hasSubscribers();
     }
 
     /**
-     * Streams the PlayerPosition for a specific guild.
+     * Streams the UI states of all guilds, published from now on.
+     * A subscriber that falls behind receives only the latest state of each guild.
      *
-     * @return A Flux that emits PlayerPosition updates for the guild.
+     * @return A Flux that emits PlayerUIState updates of all guilds.
      */
     public Flux<PlayerUIState> streamAllUI() {
-        return globalUI.asFlux();
+        return uiStates.streamAll();
+    }
+
+    /**
+     * Streams the UI state of a specific guild, starting with its current state.
+     * While subscribed, the guild's state is kept even if its player is released.
+     *
+     * @param guildId The ID of the guild.
+     * @return A Flux that emits the guild's PlayerUIState updates, conflated to the latest.
+     */
+    public Flux<PlayerUIState> streamUI(long guildId) {
+        return uiStates.stream(guildId);
+    }
+
+    /**
+     * Streams the position of a specific guild, starting with its current position.
+     * Positions are not published while nobody subscribes, so the stored one is refreshed from the player first.
+     *
+     * @param guildId The ID of the guild.
+     * @return A Flux that emits the guild's PlayerPosition updates, conflated to the latest.
+     */
+    public Flux<PlayerPosition> streamPosition(long guildId) {
+        return Flux.defer(() -> {
+            PlayerPosition current = getPosition(guildId);
+            if (current != null) {
+                positions.publish(guildId, current);
+            }
+            return positions.stream(guildId);
+        });
+    }
+
+    /**
+     * Streams the queue deltas of all guilds.
+     *
+     * @return A Flux that emits every queue delta in per-guild version order.
+     */
+    public Flux<QueueDelta> streamAllQueueDeltas() {
+        return queueDeltas.asFlux();
+    }
+
+    /**
+     * Streams the queue deltas of a specific guild.
+     *
+     * @param guildId The ID of the guild.
+     * @return A Flux that emits the guild's queue deltas in version order.
+     */
+    public Flux<QueueDelta> streamQueueDeltas(long guildId) {
+        return queueDeltas.asFlux().filter(delta -> delta.guildId() == guildId);
     }
 
 }
@@ -0,0 +1,57 @@
+package com.gammatunes.component.audio.core;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multicast sink that may be emitted to from any number of threads.
+ * Values are queued and emitted by whichever caller finds the sink idle, one at a time and in queue order, so
+ * concurrent callers never make the sink fail with {@code FAIL_NON_SERIALIZED}. Values emitted while nobody
+ * subscribes are dropped without a trace, since nobody misses them; emissions the sink still rejects, e.g. because
+ * every subscriber is too slow, are counted instead of silently ignored.
+ *
+ * @param <T> The value type.
+ */
+final class SerializedEmitter<T> {
+
+    private final String name;
+    private final StateHubMetrics metrics;
+    private final Sinks.Many<T> sink = Sinks.many().multicast().directBestEffort();
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    SerializedEmitter(String name, StateHubMetrics metrics) {
+        this.name = name;
+        this.metrics = metrics;
+    }
+
+    void emit(T value) {
+        if (!hasSubscribers()) return;
+        queue.offer(value);
+        if (wip.getAndIncrement() != 0) return;
+        int missed = 1;
+        do {
+            T next;
+            while ((next = queue.poll()) != null) {
+                Sinks.EmitResult result = sink.tryEmitNext(next);
+                // a subscriber that left between the check above and the emission lost nothing
+                if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+                    metrics.recordEmitFailure(name, result);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    boolean hasSubscribers() {
+        return sink.currentSubscriberCount() > 0;
+    }
+
+    Flux<T> asFlux() {
+        return sink.asFlux();
+    }
+}
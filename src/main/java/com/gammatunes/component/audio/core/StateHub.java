@@ -0,0 +1,211 @@
+package com.gammatunes.component.audio.core;
+
+import com.gammatunes.component.guild.GuildContext;
+import com.gammatunes.component.guild.GuildContexts;
+import com.gammatunes.component.guild.StateCell;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Publishes one kind of per-guild state, e.g. the UI state, to any number of subscribers.
+ * <p>
+ * The latest value of each guild lives in a {@link StateCell} of the guild's context. Publishing only writes the
+ * cell and marks the guild dirty for every subscriber, so it never blocks and never fails, whichever thread it
+ * runs on. Each subscriber drains its dirty guilds serially and only as far as it has requested, always reading
+ * the cell's latest value: a slow subscriber skips intermediate values of a guild instead of losing other guilds'
+ * updates or buffering without bound.
+ * <p>
+ * Per-guild subscriptions retain the guild's cell, which keeps the guild's context from being evicted while
+ * somebody listens; the last one to cancel lets the context go again.
+ *
+ * @param <T> The state type.
+ */
+final class StateHub<T> {
+
+    private final String name;
+    private final GuildContexts guildContexts;
+    private final Function<GuildContext, StateCell<T>> cellOf;
+    private final StateHubMetrics metrics;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    /** subscribers of {@link #streamAll}, which see every guild */
+    private final AtomicInteger globalListeners = new AtomicInteger();
+
+    StateHub(String name, GuildContexts guildContexts, Function<GuildContext, StateCell<T>> cellOf, StateHubMetrics metrics) {
+        this.name = name;
+        this.guildContexts = guildContexts;
+        this.cellOf = cellOf;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Replaces a guild's value and notifies the subscribers.
+     * A guild without a context has neither a player nor a per-guild subscriber, so its value is dropped rather
+     * than creating a context that would only wait to be evicted again.
+     *
+     * @param guildId The ID of the guild.
+     * @param value   The new value.
+     */
+    void publish(long guildId, T value) {
+        GuildContext context = guildContexts.get(guildId);
+        if (context == null) return;
+        StateCell<T> cell = cellOf.apply(context);
+        cell.set(value);
+        for (Listener listener : listeners) {
+            if (listener.follows(guildId)) {
+                listener.markDirty(cell);
+            }
+        }
+    }
+
+    /**
+     * Gets a guild's latest value without creating its context.
+     *
+     * @param guildId The ID of the guild.
+     * @return The value, or null if none was published.
+     */
+    T latest(long guildId) {
+        GuildContext context = guildContexts.get(guildId);
+        return context == null ? null : cellOf.apply(context).get();
+    }
+
+    /**
+     * Tells whether anybody would receive a value published for a guild, so publishers can skip computing values
+     * nobody watches.
+     *
+     * @param guildId The ID of the guild.
+     * @return true if a subscriber follows all guilds or this guild in particular.
+     */
+    boolean isObserved(long guildId) {
+        if (globalListeners.get() > 0) {
+            return true;
+        }
+        GuildContext context = guildContexts.get(guildId);
+        return context != null && cellOf.apply(context).isListened();
+    }
+
+    /**
+     * Clears a guild's value without notifying anyone, e.g. after its player was released.
+     *
+     * @param guildId The ID of the guild.
+     */
+    void clear(long guildId) {
+        GuildContext context = guildContexts.get(guildId);
+        if (context != null) {
+            cellOf.apply(context).set(null);
+        }
+    }
+
+    /**
+     * Streams the values published for all guilds from now on, conflated per guild.
+     *
+     * @return A Flux of values.
+     */
+    Flux<T> streamAll() {
+        return Flux.create(sink -> {
+            globalListeners.incrementAndGet();
+            register(new Listener(sink, false, 0L), globalListeners::decrementAndGet);
+        });
+    }
+
+    /**
+     * Streams the values of one guild, starting with its current value, conflated to the latest.
+     *
+     * @param guildId The ID of the guild.
+     * @return A Flux of values.
+     */
+    Flux<T> stream(long guildId) {
+        return Flux.create(sink -> {
+            StateCell<T> cell = guildContexts.compute(guildId, context -> {
+                StateCell<T> retained = cellOf.apply(context);
+                retained.retain();
+                return retained;
+            });
+            Listener listener = new Listener(sink, true, guildId);
+            register(listener, () -> {
+                if (cell.release()) {
+                    guildContexts.evictIfUnused(guildId);
+                }
+            });
+            listener.markDirty(cell);
+        });
+    }
+
+    /**
+     * Adds a subscriber. A sink takes a single dispose callback, so extra cleanup is passed in and run with it.
+     */
+    private void register(Listener listener, Runnable onDispose) {
+        listeners.add(listener);
+        listener.sink.onRequest(ignored -> listener.drain());
+        listener.sink.onDispose(() -> {
+            listeners.remove(listener);
+            onDispose.run();
+        });
+    }
+
+    /**
+     * One subscriber: the cells it has not seen the latest value of yet, each queued at most once.
+     */
+    private final class Listener {
+
+        private final FluxSink<T> sink;
+        private final boolean singleGuild;
+        private final long guildId;
+
+        private final Queue<StateCell<T>> dirty = new ConcurrentLinkedQueue<>();
+        private final Set<StateCell<T>> queued = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Listener(FluxSink<T> sink, boolean singleGuild, long guildId) {
+            this.sink = sink;
+            this.singleGuild = singleGuild;
+            this.guildId = guildId;
+        }
+
+        boolean follows(long guildId) {
+            return !singleGuild || this.guildId == guildId;
+        }
+
+        void markDirty(StateCell<T> cell) {
+            if (queued.add(cell)) {
+                dirty.offer(cell);
+            } else {
+                metrics.recordConflated(name);
+            }
+            drain();
+        }
+
+        /**
+         * Emits the latest value of queued cells while the subscriber has demand. Only one thread drains at a
+         * time; others just leave a mark so the draining thread loops once more.
+         * A cell is unqueued before its value is read, so an update racing with the read queues it again rather
+         * than being lost.
+         */
+        void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                while (!sink.isCancelled() && sink.requestedFromDownstream() > 0) {
+                    StateCell<T> cell = dirty.poll();
+                    if (cell == null) break;
+                    queued.remove(cell);
+                    T value = cell.get();
+                    if (value != null) {
+                        sink.next(value);
+                        metrics.recordDelivered(name);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.gammatunes.component.audio.core;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Sinks;
+
+import java.util.Locale;
+
+/**
+ * Component for recording metrics related to publishing player state.
+ * It uses Micrometer to count how state updates reach their subscribers: delivered, conflated into a newer value,
+ * or lost because an emission failed.
+ */
+@Component
+public record StateHubMetrics(MeterRegistry meterRegistry) {
+
+    public void recordDelivered(String stream) {
+        increment(stream, "delivered");
+    }
+
+    /**
+     * Increments the counter for updates that a subscriber never saw because a newer value of the same guild
+     * replaced them first.
+     *
+     * @param stream The state stream, e.g. "ui".
+     */
+    public void recordConflated(String stream) {
+        increment(stream, "conflated");
+    }
+
+    /**
+     * Increments the counter for emissions a sink rejected.
+     *
+     * @param stream The state stream, e.g. "queue_deltas".
+     * @param result The failed emit result.
+     */
+    public void recordEmitFailure(String stream, Sinks.EmitResult result) {
+        increment(stream, result.name().toLowerCase(Locale.ROOT));
+    }
+
+    private void increment(String stream, String outcome) {
+        meterRegistry.counter("bot.state.emissions", Tags.of("stream", stream, "outcome", outcome)).increment();
+    }
+}
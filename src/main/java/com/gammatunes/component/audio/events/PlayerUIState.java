@@ -1,7 +1,7 @@
 package com.gammatunes.component.audio.events;
 
 import com.gammatunes.model.domain.PlayerState;
-import dev.arbjerg.lavalink.client.player.Track;
+import com.gammatunes.component.audio.queue.QueueEntry;
 
 import java.util.List;
 
@@ -9,13 +9,17 @@ import java.util.List;
  * Represents the UI state of a player in the audio component.
  * This record contains information about the player's state, volume, repeat status,
  * current track, queue, and history.
+ * The queue and history are immutable views over the scheduler's persistent track list,
+ * so publishing a state does not copy them.
+ * {@code queueVersion} is the version of the last {@link QueueDelta} reflected in this snapshot.
  */
 public record PlayerUIState(
     long guildId,
     PlayerState state,
     int volume,
     boolean repeat,
-    Track currentTrack,
-    List<Track> queue,
-    List<Track> history
+    QueueEntry currentTrack,
+    List<QueueEntry> queue,
+    List<QueueEntry> history,
+    long queueVersion
 ) {}
@@ -0,0 +1,38 @@
+package com.gammatunes.component.audio.events;
+
+import com.gammatunes.component.audio.queue.QueueEntry;
+
+import java.util.List;
+
+/**
+ * Represents a single change to a guild's track list.
+ * Deltas are numbered by a per-guild version that increases by one with every delta, so a consumer that applies
+ * them in order can detect a gap and fall back to the {@link PlayerUIState} snapshot, which carries the version
+ * it corresponds to. Indices refer to the whole track list: history, current track and queue.
+ */
+public sealed interface QueueDelta {
+
+    long guildId();
+
+    long version();
+
+    /**
+     * Entries were inserted at the given index.
+     */
+    record Enqueued(long guildId, long version, int index, List<QueueEntry> entries) implements QueueDelta { }
+
+    /**
+     * {@code count} tracks starting at the given index were removed.
+     */
+    record Removed(long guildId, long version, int index, int count) implements QueueDelta { }
+
+    /**
+     * The tracks from the given index to the end were shuffled with {@code new Random(seed)}.
+     */
+    record Shuffled(long guildId, long version, int fromIndex, long seed) implements QueueDelta { }
+
+    /**
+     * The current track index changed; -1 means there is no current track.
+     */
+    record CursorMoved(long guildId, long version, int currentIndex) implements QueueDelta { }
+}
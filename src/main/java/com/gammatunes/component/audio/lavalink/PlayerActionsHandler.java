@@ -1,6 +1,7 @@
 package com.gammatunes.component.audio.lavalink;
 
 import com.gammatunes.component.lavalink.NodePlayer;
+import com.gammatunes.component.lavalink.PlayerUpdate;
 import dev.arbjerg.lavalink.client.player.Track;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
@@ -28,6 +29,28 @@ public record PlayerActionsHandler(NodePlayer nodePlayer) {
             });
     }
 
+    /**
+     * Plays a track with the specified volume, starting at the given position.
+     * Track, volume and position are sent to the node in a single update, so playback starts at the position
+     * without first playing from the beginning.
+     *
+     * @param track           The track to play.
+     * @param volume          The volume level to set (0-100).
+     * @param startPositionMs The position to start at in milliseconds; 0 starts from the beginning.
+     * @return A Mono<Void> indicating completion of the operation.
+     */
+    public Mono<Void> playTrack(Track track, int volume, long startPositionMs) {
+        if (startPositionMs <= 0) {
+            return playTrack(track, volume);
+        }
+        long guildId = nodePlayer.guildId();
+        return nodePlayer.update(PlayerUpdate.create().withTrack(track).withVolume(volume).withPosition(startPositionMs))
+            .onErrorResume(ex -> {
+                log.error("Error playing track at {}ms for guild {}", startPositionMs, guildId, ex);
+                return Mono.empty();
+            });
+    }
+
     /**
      * Stops the currently playing track and clears the queue.
      *
@@ -78,4 +101,18 @@ public record PlayerActionsHandler(NodePlayer nodePlayer) {
                 return Mono.empty();
             });
     }
+
+    /**
+     * Destroys the player on the Lavalink node, releasing its resources there.
+     *
+     * @return A Mono<Void> indicating completion of the operation.
+     */
+    public Mono<Void> destroyPlayer() {
+        long guildId = nodePlayer.guildId();
+        return nodePlayer.destroy()
+            .onErrorResume(ex -> {
+                log.error("Error destroying player for guild {}", guildId, ex);
+                return Mono.empty();
+            });
+    }
 }
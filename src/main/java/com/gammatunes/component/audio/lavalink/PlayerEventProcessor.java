@@ -1,7 +1,6 @@
 package com.gammatunes.component.audio.lavalink;
 
 import com.gammatunes.component.audio.core.Player;
-import com.gammatunes.model.domain.PlayerState;
 import dev.arbjerg.lavalink.client.player.Track;
 import dev.arbjerg.lavalink.client.player.TrackException;
 import dev.arbjerg.lavalink.protocol.v4.Message;
@@ -24,9 +23,7 @@ public record PlayerEventProcessor(Player player) {
      * @return A Mono<Void> indicating completion of the operation.
      */
     public Mono<Void> onTrackStart(Track track) {
-        player.updateState(PlayerState.PLAYING);
-        player.updatePosition(0L);
-        return Mono.empty();
+        return player.markTrackStarted();
     }
 
     /**
@@ -37,15 +34,14 @@ public record PlayerEventProcessor(Player player) {
      * @return A Mono<Void> indicating completion of the operation.
      */
     public Mono<Void> onPlayerUpdate(long positionMillis) {
-        player.updatePosition(positionMillis);
-        return Mono.empty();
+        return player.updatePosition(positionMillis);
     }
 
     /**
      * Called when a track ends.
      * Handles different end reasons: FINISHED, REPLACED, STOPPED, and LOAD_FAILED.
      * If FINISHED and repeat is enabled, replays the current track.
-     * If REPLACED, does nothing. If STOPPED, updates the state to STOPPED.
+     * If REPLACED, does nothing. If STOPPED, updates the state to STOPPED, or IDLE when the queue is empty.
      * If LOAD_FAILED, attempts to play the next track or become idle.
      *
      * @param track      The track that ended.
@@ -73,14 +69,7 @@ public record PlayerEventProcessor(Player player) {
                     });
                 }
             }
-            case STOPPED -> {
-                if (player.getQueue().isEmpty()) {
-                    player.updateState(PlayerState.IDLE);
-                } else {
-                    player.updateState(PlayerState.STOPPED);
-                }
-                yield Mono.empty();
-            }
+            case STOPPED -> player.markTrackStopped();
             case LOAD_FAILED -> player.playNextOrBecomeIdle().onErrorResume(e -> {
                 log.warn("Advance after LOAD_FAILED failed in guild {}: {}", guildId, e.toString());
                 return Mono.empty();
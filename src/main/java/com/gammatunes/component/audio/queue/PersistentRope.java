@@ -0,0 +1,338 @@
+package com.gammatunes.component.audio.queue;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Immutable, structurally shared sequence backed by a size-annotated AVL tree.
+ * Every update returns a new rope that shares all untouched subtrees with the old one, so an older version stays
+ * valid and can be handed out as a snapshot without copying.
+ * <p>
+ * Indexed access, insertion, splitting and concatenation are O(log n); {@link #slice(int, int)} returns an
+ * unmodifiable list view in O(1).
+ *
+ * @param <E> The element type.
+ */
+public final class PersistentRope<E> {
+
+    private static final PersistentRope<?> EMPTY = new PersistentRope<>(null);
+
+    private final Node<E> root;
+
+    private PersistentRope(Node<E> root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the empty rope.
+     *
+     * @return A rope without elements.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentRope<E> empty() {
+        return (PersistentRope<E>) EMPTY;
+    }
+
+    /**
+     * Builds a perfectly balanced rope from the given elements in O(n).
+     *
+     * @param elements The elements, in order.
+     * @return A rope holding the elements.
+     */
+    public static <E> PersistentRope<E> of(List<? extends E> elements) {
+        return wrap(build(elements, 0, elements.size()));
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the element at the given index.
+     *
+     * @param index The index of the element.
+     * @return The element.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public E get(int index) {
+        Objects.checkIndex(index, size());
+        return elementAt(root, index);
+    }
+
+    /**
+     * Returns a rope with the element inserted at the given index.
+     *
+     * @param index   The index to insert at, between 0 and {@link #size()} inclusive.
+     * @param element The element to insert.
+     * @return The new rope.
+     */
+    public PersistentRope<E> insert(int index, E element) {
+        Objects.checkIndex(index, size() + 1);
+        Split<E> split = split(root, index);
+        return wrap(join(split.left, element, split.right));
+    }
+
+    public PersistentRope<E> append(E element) {
+        return wrap(join(root, element, null));
+    }
+
+    public PersistentRope<E> appendAll(List<? extends E> elements) {
+        return concat(of(elements));
+    }
+
+    /**
+     * Returns a rope holding this rope's elements followed by the other rope's elements.
+     *
+     * @param other The rope to append.
+     * @return The concatenated rope.
+     */
+    public PersistentRope<E> concat(PersistentRope<E> other) {
+        if (other.root == null) return this;
+        if (root == null) return other;
+        Split<E> headAndRest = split(other.root, 1);
+        return wrap(join(root, headAndRest.left.value, headAndRest.right));
+    }
+
+    /**
+     * Returns a rope holding the first {@code count} elements.
+     *
+     * @param count The number of elements to keep.
+     * @return The prefix rope.
+     */
+    public PersistentRope<E> take(int count) {
+        Objects.checkIndex(count, size() + 1);
+        return wrap(split(root, count).left);
+    }
+
+    /**
+     * Returns a rope without the first {@code count} elements.
+     *
+     * @param count The number of elements to drop.
+     * @return The suffix rope.
+     */
+    public PersistentRope<E> drop(int count) {
+        Objects.checkIndex(count, size() + 1);
+        return wrap(split(root, count).right);
+    }
+
+    /**
+     * Returns an unmodifiable view of a range of this rope.
+     * Since the rope never changes, the view is a stable snapshot and is created without copying.
+     *
+     * @param fromIndex The first index of the range, inclusive.
+     * @param toIndex   The last index of the range, exclusive.
+     * @return A list view of the range.
+     */
+    public List<E> slice(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, size());
+        if (fromIndex == toIndex) return List.of();
+        return new Slice<>(root, fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Returns an unmodifiable view of the whole rope.
+     *
+     * @return A list view of all elements.
+     */
+    public List<E> asList() {
+        return slice(0, size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> PersistentRope<E> wrap(Node<E> root) {
+        return root == null ? (PersistentRope<E>) EMPTY : new PersistentRope<>(root);
+    }
+
+    private static <E> E elementAt(Node<E> node, int index) {
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private static <E> Node<E> build(List<? extends E> elements, int from, int to) {
+        if (from >= to) return null;
+        int mid = (from + to) >>> 1;
+        return node(build(elements, from, mid), elements.get(mid), build(elements, mid + 1, to));
+    }
+
+    /**
+     * Splits a tree into its first {@code index} elements and the rest.
+     */
+    private static <E> Split<E> split(Node<E> node, int index) {
+        if (node == null) return new Split<>(null, null);
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            Split<E> inner = split(node.left, index);
+            return new Split<>(inner.left, join(inner.right, node.value, node.right));
+        }
+        Split<E> inner = split(node.right, index - leftSize - 1);
+        return new Split<>(join(node.left, node.value, inner.left), inner.right);
+    }
+
+    /**
+     * Joins two trees with a middle element between them, rebalancing along the spine of the taller tree.
+     */
+    private static <E> Node<E> join(Node<E> left, E value, Node<E> right) {
+        if (height(left) > height(right) + 1) return joinRight(left, value, right);
+        if (height(right) > height(left) + 1) return joinLeft(left, value, right);
+        return node(left, value, right);
+    }
+
+    private static <E> Node<E> joinRight(Node<E> left, E value, Node<E> right) {
+        Node<E> spine = left.right;
+        if (height(spine) <= height(right) + 1) {
+            Node<E> joined = node(spine, value, right);
+            if (height(joined) <= height(left.left) + 1) {
+                return node(left.left, left.value, joined);
+            }
+            return rotateLeft(node(left.left, left.value, rotateRight(joined)));
+        }
+        Node<E> joined = joinRight(spine, value, right);
+        Node<E> result = node(left.left, left.value, joined);
+        return height(joined) <= height(left.left) + 1 ? result : rotateLeft(result);
+    }
+
+    private static <E> Node<E> joinLeft(Node<E> left, E value, Node<E> right) {
+        Node<E> spine = right.left;
+        if (height(spine) <= height(left) + 1) {
+            Node<E> joined = node(left, value, spine);
+            if (height(joined) <= height(right.right) + 1) {
+                return node(joined, right.value, right.right);
+            }
+            return rotateRight(node(rotateLeft(joined), right.value, right.right));
+        }
+        Node<E> joined = joinLeft(left, value, spine);
+        Node<E> result = node(joined, right.value, right.right);
+        return height(joined) <= height(right.right) + 1 ? result : rotateRight(result);
+    }
+
+    private static <E> Node<E> rotateLeft(Node<E> node) {
+        Node<E> pivot = node.right;
+        return node(node(node.left, node.value, pivot.left), pivot.value, pivot.right);
+    }
+
+    private static <E> Node<E> rotateRight(Node<E> node) {
+        Node<E> pivot = node.left;
+        return node(pivot.left, pivot.value, node(pivot.right, node.value, node.right));
+    }
+
+    private static <E> Node<E> node(Node<E> left, E value, Node<E> right) {
+        return new Node<>(
+            left,
+            value,
+            right,
+            size(left) + size(right) + 1,
+            Math.max(height(left), height(right)) + 1
+        );
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private record Node<E>(Node<E> left, E value, Node<E> right, int size, int height) { }
+
+    private record Split<E>(Node<E> left, Node<E> right) { }
+
+    /**
+     * Read-only window over a tree. Iteration walks the tree in order instead of descending from the root
+     * for every element.
+     */
+    private static final class Slice<E> extends AbstractList<E> {
+
+        private final Node<E> root;
+        private final int offset;
+        private final int length;
+
+        private Slice(Node<E> root, int offset, int length) {
+            this.root = root;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public E get(int index) {
+            Objects.checkIndex(index, length);
+            return elementAt(root, offset + index);
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+
+        @Override
+        public List<E> subList(int fromIndex, int toIndex) {
+            Objects.checkFromToIndex(fromIndex, toIndex, length);
+            if (fromIndex == toIndex) return List.of();
+            return new Slice<>(root, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+                private final Deque<Node<E>> path = descendTo(offset);
+                private int remaining = length;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                public E next() {
+                    if (remaining == 0) throw new NoSuchElementException();
+                    Node<E> node = path.pop();
+                    for (Node<E> next = node.right; next != null; next = next.left) {
+                        path.push(next);
+                    }
+                    remaining--;
+                    return node.value;
+                }
+            };
+        }
+
+        /**
+         * Builds the in-order traversal stack positioned at the given index.
+         */
+        private Deque<Node<E>> descendTo(int index) {
+            Deque<Node<E>> path = new ArrayDeque<>();
+            Node<E> node = root;
+            while (node != null) {
+                int leftSize = PersistentRope.size(node.left);
+                if (index < leftSize) {
+                    path.push(node);
+                    node = node.left;
+                } else if (index == leftSize) {
+                    path.push(node);
+                    break;
+                } else {
+                    index -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+            return path;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.gammatunes.component.audio.queue;
+
+import dev.arbjerg.lavalink.client.player.Track;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A slot in a guild's track list.
+ * An entry either wraps an already loaded Lavalink {@link Track}, or is a placeholder that only carries display
+ * metadata (e.g. from Spotify) together with a way to look up the playable track later. Placeholders are resolved
+ * once: the first {@link #resolve()} or {@link #prefetch(Context)} starts the lookup, callers arriving while it runs
+ * share it, and a successful result is kept for good. A failure is only shared with the callers of that lookup; the
+ * next {@link #resolve()} starts a fresh one, so a transient error does not make the entry unplayable.
+ * <p>
+ * The metadata getters describe the loaded track once it is available and fall back to the placeholder
+ * metadata before that.
+ */
+@Slf4j
+public final class QueueEntry {
+
+    /** rough fixed cost of an entry and of a loaded track object, excluding their strings */
+    private static final long ENTRY_OVERHEAD_BYTES = 96L;
+    private static final long TRACK_OVERHEAD_BYTES = 256L;
+
+    private final String identifier;
+    private final String title;
+    private final String author;
+    private final String uri;
+    private final String artworkUrl;
+    private final long lengthMs;
+    private final Object userData;
+
+    private final Supplier<Mono<Track>> resolver;
+    private final Mono<Track> resolution;
+
+    private volatile Track track;
+    /** whether the last lookup failed; only stops prefetching, playback still retries */
+    private volatile boolean failed;
+
+    private QueueEntry(
+        String identifier,
+        String title,
+        String author,
+        String uri,
+        String artworkUrl,
+        long lengthMs,
+        Object userData,
+        Track track,
+        Supplier<Mono<Track>> resolver
+    ) {
+        this.identifier = identifier;
+        this.title = title;
+        this.author = author;
+        this.uri = uri;
+        this.artworkUrl = artworkUrl;
+        this.lengthMs = lengthMs;
+        this.userData = userData;
+        this.track = track;
+        this.resolver = resolver;
+        this.resolution = track != null
+            ? Mono.just(track)
+            : Mono.defer(resolver)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("No playable track for " + describe())))
+                .doOnNext(this::onResolved)
+                .doOnError(error -> failed = true)
+                // reactor keeps a value cached for Long.MAX_VALUE ms without ever expiring it
+                .cache(resolved -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    /**
+     * Creates an entry for a track that is already loaded.
+     *
+     * @param track The loaded track.
+     * @return A resolved entry.
+     */
+    public static QueueEntry of(Track track) {
+        Objects.requireNonNull(track, "track must not be null");
+        var info = track.getInfo();
+        return new QueueEntry(
+            info.getIdentifier(),
+            info.getTitle(),
+            info.getAuthor(),
+            info.getUri(),
+            info.getArtworkUrl(),
+            info.getLength(),
+            track.getUserData(),
+            track,
+            null
+        );
+    }
+
+    /**
+     * Creates a placeholder entry that is resolved on demand.
+     *
+     * @param identifier A stable identifier of the source item, e.g. a Spotify track id.
+     * @param title      The title to display until the entry is resolved.
+     * @param author     The author to display until the entry is resolved.
+     * @param uri        A link to the source item.
+     * @param artworkUrl The artwork to display until the entry is resolved; may be null.
+     * @param lengthMs   The expected length in milliseconds.
+     * @param resolver   Looks up the playable track; an empty result counts as a failure.
+     * @return An unresolved entry.
+     */
+    public static QueueEntry pending(
+        String identifier,
+        String title,
+        String author,
+        String uri,
+        String artworkUrl,
+        long lengthMs,
+        Supplier<Mono<Track>> resolver
+    ) {
+        return new QueueEntry(identifier, title, author, uri, artworkUrl, lengthMs, null, null,
+            Objects.requireNonNull(resolver, "resolver must not be null"));
+    }
+
+    /**
+     * Returns a copy of this entry that attaches the given user data to its track.
+     * A loaded track is cloned so the original instance is left untouched.
+     *
+     * @param userData The user data, e.g. the requester.
+     * @return The new entry.
+     */
+    public QueueEntry withUserData(Object userData) {
+        Track loaded = this.track;
+        if (resolver == null) {
+            Track clone = loaded.makeClone();
+            clone.setUserData(userData);
+            return new QueueEntry(identifier, title, author, uri, artworkUrl, lengthMs, userData, clone, null);
+        }
+        return new QueueEntry(identifier, title, author, uri, artworkUrl, lengthMs, userData, null, resolver);
+    }
+
+    /**
+     * Resolves the playable track, starting the lookup if it has not been started yet.
+     *
+     * @return A Mono that emits the track, or errors if the entry cannot be resolved.
+     */
+    public Mono<Track> resolve() {
+        return resolution;
+    }
+
+    /**
+     * Starts resolving the entry in the background so it is ready when playback reaches it.
+     * Does nothing if the entry is already resolved, being resolved, or its last lookup failed.
+     *
+     * @param context The context the lookup runs with, e.g. to attribute it to a guild.
+     */
+    public void prefetch(Context context) {
+        if (track != null || failed) {
+            return;
+        }
+        resolution.contextWrite(context).subscribe(
+            ignored -> { },
+            error -> log.debug("Prefetch failed for {}: {}", describe(), error.toString())
+        );
+    }
+
+    public boolean isResolved() {
+        return track != null;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Returns the identifier the entry was created with, which stays stable after resolution.
+     *
+     * @return The identifier.
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public String getTitle() {
+        Track loaded = track;
+        return loaded != null ? loaded.getInfo().getTitle() : title;
+    }
+
+    public String getAuthor() {
+        Track loaded = track;
+        return loaded != null ? loaded.getInfo().getAuthor() : author;
+    }
+
+    public String getUri() {
+        Track loaded = track;
+        return loaded != null ? loaded.getInfo().getUri() : uri;
+    }
+
+    public String getArtworkUrl() {
+        Track loaded = track;
+        return loaded != null && loaded.getInfo().getArtworkUrl() != null ? loaded.getInfo().getArtworkUrl() : artworkUrl;
+    }
+
+    public long getLengthMs() {
+        Track loaded = track;
+        return loaded != null ? loaded.getInfo().getLength() : lengthMs;
+    }
+
+    public Object getUserData() {
+        return userData;
+    }
+
+    /**
+     * Estimates the heap held by this entry: its metadata strings and, once loaded, the track with its encoding.
+     * The estimate is only meant for reporting how much memory is released with a queue.
+     *
+     * @return The estimated size in bytes.
+     */
+    public long estimatedSizeBytes() {
+        long size = ENTRY_OVERHEAD_BYTES + stringBytes(identifier) + stringBytes(title) + stringBytes(author)
+            + stringBytes(uri) + stringBytes(artworkUrl);
+        Track loaded = track;
+        if (loaded != null) {
+            var info = loaded.getInfo();
+            size += TRACK_OVERHEAD_BYTES + stringBytes(loaded.getEncoded()) + stringBytes(info.getTitle())
+                + stringBytes(info.getAuthor()) + stringBytes(info.getUri()) + stringBytes(info.getArtworkUrl());
+        }
+        return size;
+    }
+
+    private void onResolved(Track resolved) {
+        if (userData != null) {
+            resolved.setUserData(userData);
+        }
+        this.track = resolved;
+        this.failed = false;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0L : 40L + value.length();
+    }
+
+    private String describe() {
+        return "'" + author + " - " + title + "' (" + identifier + ")";
+    }
+}
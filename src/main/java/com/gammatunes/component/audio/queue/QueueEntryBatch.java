@@ -0,0 +1,26 @@
+package com.gammatunes.component.audio.queue;
+
+import java.util.List;
+
+/**
+ * A slice of entries produced while a larger source, such as a playlist, is still being listed.
+ *
+ * @param entries The entries of this batch, in source order.
+ * @param total   The expected number of entries across all batches of the source.
+ */
+public record QueueEntryBatch(List<QueueEntry> entries, int total) {
+
+    public QueueEntryBatch {
+        entries = List.copyOf(entries);
+    }
+
+    /**
+     * Wraps a complete list of entries as a single batch.
+     *
+     * @param entries The entries.
+     * @return A batch whose total equals its size.
+     */
+    public static QueueEntryBatch of(List<QueueEntry> entries) {
+        return new QueueEntryBatch(entries, entries.size());
+    }
+}
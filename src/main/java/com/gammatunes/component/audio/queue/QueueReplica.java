@@ -0,0 +1,84 @@
+package com.gammatunes.component.audio.queue;
+
+import com.gammatunes.component.audio.events.PlayerUIState;
+import com.gammatunes.component.audio.events.QueueDelta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Rebuilds a guild's track list on the consumer side from {@link QueueDelta}s.
+ * A replica starts from a {@link PlayerUIState} snapshot and applies deltas in version order; when a delta does
+ * not directly follow the replica's version it is rejected and the consumer should {@link #reset} from a fresh
+ * snapshot.
+ * <p>
+ * Not thread-safe; each consumer keeps its own replica per guild.
+ */
+public class QueueReplica {
+
+    private PersistentRope<QueueEntry> tracks = PersistentRope.empty();
+    private int currentIndex = -1;
+    private long version = -1L;
+
+    /**
+     * Replaces the replica's contents with a snapshot.
+     *
+     * @param snapshot The snapshot to start from.
+     */
+    public void reset(PlayerUIState snapshot) {
+        List<QueueEntry> all = new ArrayList<>(snapshot.history());
+        if (snapshot.currentTrack() != null) {
+            all.add(snapshot.currentTrack());
+        }
+        currentIndex = snapshot.currentTrack() != null ? snapshot.history().size() : -1;
+        all.addAll(snapshot.queue());
+        tracks = PersistentRope.of(all);
+        version = snapshot.queueVersion();
+    }
+
+    /**
+     * Applies a delta if it directly follows the replica's version.
+     *
+     * @param delta The delta to apply.
+     * @return true if the delta was applied, false if the replica is stale and must be reset from a snapshot.
+     */
+    public boolean apply(QueueDelta delta) {
+        if (version < 0 || delta.version() != version + 1) {
+            return false;
+        }
+        switch (delta) {
+            case QueueDelta.Enqueued enqueued -> tracks = tracks.take(enqueued.index())
+                .appendAll(enqueued.entries())
+                .concat(tracks.drop(enqueued.index()));
+            case QueueDelta.Removed removed -> tracks = tracks.take(removed.index())
+                .concat(tracks.drop(removed.index() + removed.count()));
+            case QueueDelta.Shuffled shuffled -> {
+                List<QueueEntry> shuffledTracks = new ArrayList<>(tracks.slice(shuffled.fromIndex(), tracks.size()));
+                Collections.shuffle(shuffledTracks, new Random(shuffled.seed()));
+                tracks = tracks.take(shuffled.fromIndex()).appendAll(shuffledTracks);
+            }
+            case QueueDelta.CursorMoved moved -> currentIndex = moved.currentIndex();
+        }
+        version = delta.version();
+        return true;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * Returns the replicated track list as an immutable snapshot.
+     *
+     * @return All tracks, including history and the current track.
+     */
+    public List<QueueEntry> getTracks() {
+        return tracks.asList();
+    }
+}
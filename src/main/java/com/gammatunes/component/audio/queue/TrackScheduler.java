@@ -1,23 +1,53 @@
 package com.gammatunes.component.audio.queue;
 
-import dev.arbjerg.lavalink.client.player.Track;
+import com.gammatunes.component.audio.events.QueueDelta;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
 
 /**
- * Manages a queue of tracks for playback, allowing operations like enqueue, push,
+ * Manages a queue of {@link QueueEntry entries} for playback, allowing operations like enqueue, push,
  * jump to specific tracks, and navigation through the queue.
- * Tracks are stored in a list, and the current track index is maintained.
+ * Tracks are stored in a {@link PersistentRope}, and the current track index is maintained.
+ * Because the rope is immutable, the queue and history views handed out for UI snapshots are created in
+ * constant time and stay valid after later mutations.
+ * <p>
+ * Every change to the track list or the current index bumps the list's version and, while somebody subscribes to
+ * queue deltas, is also recorded as a versioned {@link QueueDelta}; the owning player drains them with
+ * {@link #drainDeltas()} and publishes them next to its UI state. Changes made while nobody listens only show up as
+ * a version gap, after which a consumer resyncs from a snapshot.
+ * <p>
+ * Not thread-safe: a scheduler is owned by a single {@code Player}, whose mailbox guarantees that only one
+ * command touches it at a time.
  */
 @Slf4j
 public class TrackScheduler {
 
-    private final List<Track> tracks = new ArrayList<>();
+    private final long guildId;
+    private final BooleanSupplier deltasObserved;
+    private final List<QueueDelta> pendingDeltas = new ArrayList<>();
+
+    private PersistentRope<QueueEntry> tracks = PersistentRope.empty();
     private int currentIndex = -1;
+    private long version = 0L;
+
+    /**
+     * Creates an empty scheduler.
+     *
+     * @param guildId        The ID of the guild the scheduler belongs to.
+     * @param deltasObserved Tells whether anybody consumes queue deltas; deltas are only recorded while it does.
+     */
+    public TrackScheduler(long guildId, BooleanSupplier deltasObserved) {
+        this.guildId = guildId;
+        this.deltasObserved = deltasObserved;
+    }
 
     /**
      * Enqueues a track to the end of the queue.
@@ -25,24 +55,29 @@ public class TrackScheduler {
      *
      * @param track The track to enqueue.
      */
-    public synchronized void enqueue(Track track) {
-        log.debug("Enqueuing track: {}", track.getInfo().getIdentifier());
-        tracks.add(track);
-        if (currentIndex == -1) currentIndex = 0;
+    public void enqueue(QueueEntry track) {
+        log.debug("Enqueuing track: {}", track.getIdentifier());
+        int index = tracks.size();
+        tracks = tracks.append(track);
+        record(new QueueDelta.Enqueued(guildId, nextVersion(), index, List.of(track)));
+        if (currentIndex == -1) moveCursor(0);
     }
 
     /**
      * Enqueues multiple tracks to the end of the queue.
      * If the queue is empty, sets the current index to 0.
      *
-     * @param tracksToEnqueue The list of tracks to enqueue.
+     * @param entriesToEnqueue The list of tracks to enqueue.
      */
-    public synchronized void enqueueAll(List<Track> tracksToEnqueue) {
-        if (tracksToEnqueue.isEmpty()) return;
+    public void enqueueAll(List<QueueEntry> entriesToEnqueue) {
+        if (entriesToEnqueue.isEmpty()) return;
         
-        log.debug("Enqueuing {} tracks", tracksToEnqueue.size());
-        tracks.addAll(tracksToEnqueue);
-        if (currentIndex == -1) currentIndex = 0;
+        log.debug("Enqueuing {} tracks", entriesToEnqueue.size());
+        int index = tracks.size();
+        tracks = tracks.appendAll(entriesToEnqueue);
+        // a view of the new rope, so the delta shares the entries instead of copying them
+        record(new QueueDelta.Enqueued(guildId, nextVersion(), index, tracks.slice(index, tracks.size())));
+        if (currentIndex == -1) moveCursor(0);
     }
 
     /**
@@ -51,13 +86,14 @@ public class TrackScheduler {
      *
      * @param track The track to push into the queue.
      */
-    public synchronized void push(Track track) {
-        log.debug("Pushing track: {}", track.getInfo().getIdentifier());
+    public void push(QueueEntry track) {
+        log.debug("Pushing track: {}", track.getIdentifier());
         if (currentIndex == -1) {
             enqueue(track);
             return;
         }
-        tracks.add(currentIndex + 1, track);
+        tracks = tracks.insert(currentIndex + 1, track);
+        record(new QueueDelta.Enqueued(guildId, nextVersion(), currentIndex + 1, List.of(track)));
     }
 
     /**
@@ -66,14 +102,14 @@ public class TrackScheduler {
      *
      * @return The next track if available, otherwise an empty Optional.
      */
-    public synchronized Optional<Track> next() {
+    public Optional<QueueEntry> next() {
         if (currentIndex + 1 < tracks.size()) {
-            currentIndex++;
-            log.debug("Next track: {}", tracks.get(currentIndex).getInfo().getIdentifier());
+            moveCursor(currentIndex + 1);
+            log.debug("Next track: {}", tracks.get(currentIndex).getIdentifier());
             return Optional.of(tracks.get(currentIndex));
         }
         log.debug("No next track available");
-        currentIndex = tracks.size() - 1;
+        moveCursor(tracks.size() - 1);
         return Optional.empty();
     }
 
@@ -83,10 +119,10 @@ public class TrackScheduler {
      *
      * @return The previous track if available, otherwise an empty Optional.
      */
-    public synchronized Optional<Track> previous() {
+    public Optional<QueueEntry> previous() {
         if (currentIndex - 1 >= 0) {
-            currentIndex--;
-            log.debug("Previous track: {}", tracks.get(currentIndex).getInfo().getIdentifier());
+            moveCursor(currentIndex - 1);
+            log.debug("Previous track: {}", tracks.get(currentIndex).getIdentifier());
             return Optional.of(tracks.get(currentIndex));
         }
         log.debug("No previous track available");
@@ -100,8 +136,8 @@ public class TrackScheduler {
      * @param track The track to jump to.
      * @return The track if found, otherwise an empty Optional.
      */
-    public synchronized Optional<Track> jumpToTrack(Track track) {
-        log.debug("Jumping track: {}", track.getInfo().getIdentifier());
+    public Optional<QueueEntry> jumpToTrack(QueueEntry track) {
+        log.debug("Jumping track: {}", track.getIdentifier());
         int index = findTrackIndex(track);
         return jumpToIndex(index);
     }
@@ -113,10 +149,10 @@ public class TrackScheduler {
      * @param identifier The identifier of the track to jump to.
      * @return The track if found, otherwise an empty Optional.
      */
-    public Optional<Track> jumpToIdentifier(String identifier) {
+    public Optional<QueueEntry> jumpToIdentifier(String identifier) {
         log.debug("Jumping to track with identifier: {}", identifier);
         return getQueue().stream()
-            .filter(t -> Objects.equals(t.getInfo().getIdentifier(), identifier))
+            .filter(t -> Objects.equals(t.getIdentifier(), identifier))
             .findFirst()
             .flatMap(this::jumpToTrack);
     }
@@ -129,7 +165,7 @@ public class TrackScheduler {
      * @param prefixedIdentifier The prefixed identifier to jump to.
      * @return The track if found, otherwise an empty Optional.
      */
-    public synchronized Optional<Track> jumpToPrefixedIdentifier(String prefixedIdentifier) {
+    public Optional<QueueEntry> jumpToPrefixedIdentifier(String prefixedIdentifier) {
         log.debug("Jumping to prefixed identifier: {}", prefixedIdentifier);
         if (prefixedIdentifier.startsWith("q:")) {
             String[] parts = prefixedIdentifier.split(":", 3);
@@ -168,10 +204,10 @@ public class TrackScheduler {
      * @param index The index to jump to.
      * @return The track at the specified index if valid, otherwise an empty Optional.
      */
-    public synchronized Optional<Track> jumpToIndex(int index) {
+    public Optional<QueueEntry> jumpToIndex(int index) {
         log.debug("Jumping to index: {}", index);
         if (index >= 0 && index < tracks.size()) {
-            currentIndex = index;
+            moveCursor(index);
             return Optional.of(tracks.get(currentIndex));
         }
         log.warn("Attempted to jump to invalid index: {}", index);
@@ -184,7 +220,7 @@ public class TrackScheduler {
      *
      * @return The current track if available, otherwise an empty Optional.
      */
-    public synchronized Optional<Track> getCurrentTrack() {
+    public Optional<QueueEntry> getCurrentTrack() {
         log.debug("Getting current track at index: {}", currentIndex);
         if (currentIndex >= 0 && currentIndex < tracks.size()) {
             return Optional.of(tracks.get(currentIndex));
@@ -194,46 +230,65 @@ public class TrackScheduler {
     }
 
     /**
-     * Retrieves the next track in the queue without advancing the current index.
-     * If there is no next track, returns an empty Optional.
+     * Retrieves the tracks after the current track without advancing the current index.
+     * The returned list is an immutable snapshot that shares structure with the scheduler.
      *
-     * @return The next track if available, otherwise an empty Optional.
+     * @return The upcoming tracks, or an empty list if there are none.
      */
-    public synchronized List<Track> getQueue() {
+    public List<QueueEntry> getQueue() {
         log.debug("Getting queue from index: {}", currentIndex);
         if (currentIndex + 1 >= tracks.size()) return List.of();
-        return List.copyOf(tracks.subList(currentIndex + 1, tracks.size()));
+        return tracks.slice(currentIndex + 1, tracks.size());
+    }
+
+    /**
+     * Retrieves up to {@code count} tracks directly after the current track.
+     *
+     * @param count The maximum number of tracks to return.
+     * @return The next tracks in play order.
+     */
+    public List<QueueEntry> upcoming(int count) {
+        int from = currentIndex + 1;
+        int to = Math.min(tracks.size(), from + Math.max(0, count));
+        if (from >= to) return List.of();
+        return tracks.slice(from, to);
     }
 
     /**
      * Retrieves the history of tracks played before the current track.
      * If no tracks have been played, returns an empty list.
+     * The returned list is an immutable snapshot that shares structure with the scheduler.
      *
      * @return A list of tracks in the history.
      */
-    public synchronized List<Track> getHistory() {
+    public List<QueueEntry> getHistory() {
         log.debug("Getting history up to index: {}", currentIndex);
         if (currentIndex <= 0) return List.of();
-        return List.copyOf(tracks.subList(0, currentIndex));
+        return tracks.slice(0, currentIndex);
     }
 
     /**
      * Clears the entire queue, removing all tracks and resetting the current index.
      */
-    public synchronized void clearAll() {
+    public void clearAll() {
         log.debug("Clearing all tracks from the queue");
-        tracks.clear();
-        currentIndex = -1;
+        if (!tracks.isEmpty()) {
+            record(new QueueDelta.Removed(guildId, nextVersion(), 0, tracks.size()));
+        }
+        tracks = PersistentRope.empty();
+        moveCursor(-1);
     }
 
     /**
      * Clears the queue of tracks that have been played, keeping only the current track.
      * If no current track is set, clears the entire queue.
      */
-    public synchronized int findTrackIndex(Track track) {
-        String id = track.getInfo().getIdentifier();
-        for (int i = 0; i < tracks.size(); i++) {
-            if (tracks.get(i).getInfo().getIdentifier().equals(id)) return i;
+    public int findTrackIndex(QueueEntry track) {
+        String id = track.getIdentifier();
+        int index = 0;
+        for (QueueEntry candidate : tracks.asList()) {
+            if (candidate.getIdentifier().equals(id)) return index;
+            index++;
         }
         return -1;
     }
@@ -242,11 +297,15 @@ public class TrackScheduler {
      * Shuffles the queue of tracks starting from the current index + 1.
      * If there are no tracks to shuffle, does nothing.
      */
-    public synchronized void shuffle() {
+    public void shuffle() {
         log.debug("Shuffling tracks from index: {}", currentIndex + 1);
         int start = currentIndex + 1;
         if (start >= tracks.size()) return;
-        java.util.Collections.shuffle(tracks.subList(start, tracks.size()));
+        long seed = ThreadLocalRandom.current().nextLong();
+        List<QueueEntry> upcoming = new ArrayList<>(tracks.slice(start, tracks.size()));
+        Collections.shuffle(upcoming, new Random(seed));
+        tracks = tracks.take(start).appendAll(upcoming);
+        record(new QueueDelta.Shuffled(guildId, nextVersion(), start, seed));
     }
 
     /**
@@ -255,7 +314,7 @@ public class TrackScheduler {
      *
      * @return true if the queue is empty, false otherwise.
      */
-    public synchronized boolean isEmpty() {
+    public boolean isEmpty() {
         return tracks.isEmpty();
     }
 
@@ -264,7 +323,62 @@ public class TrackScheduler {
      *
      * @return The size of the queue.
      */
-    public synchronized int size() {
+    public int size() {
         return tracks.size();
     }
+
+    /**
+     * Estimates the heap held by the queued entries.
+     *
+     * @return The summed {@link QueueEntry#estimatedSizeBytes() estimate} of every entry, in bytes.
+     */
+    public long estimatedSizeBytes() {
+        long size = 0L;
+        for (QueueEntry entry : tracks.asList()) {
+            size += entry.estimatedSizeBytes();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the version of the track list, i.e. the version of the last recorded delta.
+     *
+     * @return The current version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns and forgets the deltas recorded since the last call, oldest first.
+     *
+     * @return The pending deltas.
+     */
+    public List<QueueDelta> drainDeltas() {
+        if (pendingDeltas.isEmpty()) return List.of();
+        List<QueueDelta> drained = List.copyOf(pendingDeltas);
+        pendingDeltas.clear();
+        return drained;
+    }
+
+    /**
+     * Moves the current index, recording a delta if it actually changed.
+     *
+     * @param index The new current index.
+     */
+    private void moveCursor(int index) {
+        if (index == currentIndex) return;
+        currentIndex = index;
+        record(new QueueDelta.CursorMoved(guildId, nextVersion(), index));
+    }
+
+    private long nextVersion() {
+        return ++version;
+    }
+
+    private void record(QueueDelta delta) {
+        if (deltasObserved.getAsBoolean()) {
+            pendingDeltas.add(delta);
+        }
+    }
 }
@@ -52,6 +52,17 @@ public class DiscordVoiceConnector {
         }).subscribeOn(Schedulers.boundedElastic()).then();
     }
 
+    /**
+     * Checks whether the bot is connected, or connecting, to a voice channel in the specified guild.
+     *
+     * @param guildId The ID of the guild to check.
+     * @return true if a voice connection exists, false otherwise.
+     */
+    public boolean isConnected(long guildId) {
+        Guild guild = jda.getGuildById(guildId);
+        return guild != null && guild.getAudioManager().isConnected();
+    }
+
     /**
      * Disconnects from the voice channel in the specified guild.
      *
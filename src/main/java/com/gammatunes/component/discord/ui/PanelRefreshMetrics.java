@@ -0,0 +1,49 @@
+package com.gammatunes.component.discord.ui;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Component for recording metrics related to player panel refreshes.
+ * It uses Micrometer to count panel writes, the refresh requests they absorbed and the edits they actually sent,
+ * and to time how long a panel showed an outdated state before a write caught up.
+ */
+@Component
+public record PanelRefreshMetrics(MeterRegistry meterRegistry) {
+
+    /**
+     * Records one panel write together with the requests it covered.
+     *
+     * @param requests The number of refresh requests the write covered; all but one of them were coalesced.
+     */
+    public void recordWrite(int requests) {
+        meterRegistry.counter("bot.panel.refresh", "outcome", "written").increment();
+        if (requests > 1) {
+            meterRegistry.counter("bot.panel.refresh", "outcome", "coalesced").increment(requests - 1);
+        }
+    }
+
+    /**
+     * Records what a panel write sent to Discord after comparing the panel with the one last sent.
+     *
+     * @param kind "full", "embed" or "components" for the parts edited, or "skipped" if nothing changed.
+     */
+    public void recordEdit(String kind) {
+        meterRegistry.counter("bot.panel.edits", "kind", kind).increment();
+    }
+
+    /**
+     * Records how long a panel was stale, from the first refresh request it missed until the write that caught up.
+     *
+     * @param staleness The time the panel lagged behind the player state.
+     */
+    public void recordStaleness(Duration staleness) {
+        Timer.builder("bot.panel.staleness")
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(staleness);
+    }
+}
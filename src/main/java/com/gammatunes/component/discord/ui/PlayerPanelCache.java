@@ -1,42 +1,89 @@
 package com.gammatunes.component.discord.ui;
 
+import com.gammatunes.component.discord.ui.panel.PlayerPanel;
+import com.gammatunes.component.guild.GuildContext;
+import com.gammatunes.component.guild.GuildContexts;
 import com.gammatunes.model.dto.MessageRef;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Cache for player panel state, including message references, last status,
- * progress bar index, and last edit timestamp for each guild.
+ * progress bar index, last edit and write timestamps, and content hashes of the last sent panel for each guild.
  * This cache is used to maintain the state of the player panel across interactions.
+ * The state itself lives in each guild's {@link GuildContext}. Only {@link #putMessage} creates a context; every
+ * other write is dropped if the guild has none, so a Discord edit finishing after the guild was released cannot
+ * bring its context back. A guild with a player always has a context, so statuses set while playing are kept.
  */
 @Component
+@RequiredArgsConstructor
 public class PlayerPanelCache {
 
-    private final Map<Long, MessageRef> messages   = new ConcurrentHashMap<>();
-    private final Map<Long, String>     lastStatus = new ConcurrentHashMap<>();
-    private final Map<Long, Integer>    lastBarIdx = new ConcurrentHashMap<>();
-    private final Map<Long, Long>       lastEditTs = new ConcurrentHashMap<>();
+    private final GuildContexts guildContexts;
 
     /* MessageRef */
-    public Optional<MessageRef> getMessage(long guild)        { return Optional.ofNullable(messages.get(guild)); }
-    public void putMessage(long guild, MessageRef ref)        { messages.put(guild, ref); }
-    public void removeMessage(long guild)                     { messages.remove(guild); }
+    public Optional<MessageRef> getMessage(long guild)        { return Optional.ofNullable(read(guild, GuildContext::getPanelMessage)); }
+    public void putMessage(long guild, MessageRef ref)        { guildContexts.update(guild, context -> context.setPanelMessage(ref)); }
+    public void removeMessage(long guild)                     { write(guild, context -> { context.setPanelMessage(null); context.setPanelHashes(null); }); }
 
     /* Status */
-    public void setStatus(long guild, String txt)             { lastStatus.put(guild, txt); }
-    public String getStatus(long guild)                       { return lastStatus.get(guild); }
+    public void setStatus(long guild, String txt)             { write(guild, context -> context.setPanelStatus(txt)); }
+    public String getStatus(long guild)                       { return read(guild, GuildContext::getPanelStatus); }
 
     /* Progress-bar bookkeeping */
-    public int  getBarIdx(Long guild)                         { return lastBarIdx.getOrDefault(guild, -1); }
-    public void setBarIdx(Long guild, int idx)                { lastBarIdx.put(guild, idx); }
-    public long getEditTs(Long guild)                         { return lastEditTs.getOrDefault(guild, 0L); }
-    public void setEditTs(Long guild, long ts)                { lastEditTs.put(guild, ts); }
+    public int  getBarIdx(long guild)                         { GuildContext c = guildContexts.get(guild); return c == null ? -1 : c.getPanelBarIdx(); }
+    public void setBarIdx(long guild, int idx)                { write(guild, context -> context.setPanelBarIdx(idx)); }
+    public long getEditTs(long guild)                         { GuildContext c = guildContexts.get(guild); return c == null ? 0L : c.getPanelEditTs(); }
+    public void setEditTs(long guild, long ts)                { write(guild, context -> context.setPanelEditTs(ts)); }
 
-    public Set<Long> guildIds() {
-        return messages.keySet();
+    /* Last panel write, 0 if none */
+    public long getWriteTs(long guild)                        { GuildContext c = guildContexts.get(guild); return c == null ? 0L : c.getPanelWriteAt(); }
+    public void setWriteTs(long guild, long ts)               { write(guild, context -> context.setPanelWriteAt(ts)); }
+    public void clearWriteTs(long guild)                      { write(guild, context -> context.setPanelWriteAt(0L)); }
+
+    /* Content hashes of the last sent panel, null if unknown */
+    public PlayerPanel.Hashes getHashes(long guild)           { return read(guild, GuildContext::getPanelHashes); }
+    public void setHashes(long guild, PlayerPanel.Hashes h)   { write(guild, context -> context.setPanelHashes(h)); }
+    public void clearHashes(long guild)                       { write(guild, context -> context.setPanelHashes(null)); }
+
+    /**
+     * Returns the contexts of all guilds that currently have a panel.
+     *
+     * @return The contexts, in no particular order.
+     */
+    public List<GuildContext> panelContexts() {
+        List<GuildContext> contexts = new ArrayList<>();
+        for (GuildContext context : guildContexts.all()) {
+            if (context.getPanelMessage() != null) contexts.add(context);
+        }
+        return contexts;
+    }
+
+    /** Forgets everything cached for a guild. */
+    public void clear(long guild) {
+        write(guild, context -> {
+            context.setPanelMessage(null);
+            context.setPanelStatus(null);
+            context.setPanelBarIdx(-1);
+            context.setPanelEditTs(0L);
+            context.setPanelWriteAt(0L);
+            context.setPanelHashes(null);
+        });
+    }
+
+    private <T> T read(long guild, Function<GuildContext, T> field) {
+        GuildContext context = guildContexts.get(guild);
+        return context == null ? null : field.apply(context);
+    }
+
+    private void write(long guild, Consumer<GuildContext> update) {
+        GuildContext context = guildContexts.get(guild);
+        if (context != null) update.accept(context);
     }
 }
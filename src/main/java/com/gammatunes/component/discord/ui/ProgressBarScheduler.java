@@ -1,9 +1,9 @@
 package com.gammatunes.component.discord.ui;
 
 import com.gammatunes.model.domain.PlayerState;
-import com.gammatunes.component.audio.core.PlayerStateStore;
 import com.gammatunes.component.audio.events.PlayerUIState;
 import com.gammatunes.component.audio.events.PlayerPosition;
+import com.gammatunes.component.guild.GuildContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -12,39 +12,39 @@ import org.springframework.stereotype.Component;
  * Scheduler that updates the progress bar for the Discord player UI.
  * It periodically checks the current position of the track and updates the visual representation
  * of the progress bar in the player panel.
+ * Each guild's UI state, position and bar bookkeeping are read from its {@link GuildContext} in one lookup.
  */
 @Component
 @RequiredArgsConstructor
 public class ProgressBarScheduler {
 
-    private final PlayerStateStore stateStore;
     private final PlayerPanelCache cache;
 
     @Scheduled(fixedRate = 1000)
     void tick() {
         long now = System.currentTimeMillis();
 
-        for (Long guildId : cache.guildIds()) {
-            PlayerUIState uiState = stateStore.getUI(guildId);
-            PlayerPosition position = stateStore.getPosition(guildId);
+        for (GuildContext context : cache.panelContexts()) {
+            PlayerUIState uiState = context.getUiState();
+            PlayerPosition position = context.getPosition();
 
             if (uiState != null && uiState.state() == PlayerState.PLAYING && position != null) {
                 long pos = position.positionMs();
                 long dur = position.lengthMs();
 
                 // Get the previous and current visual index of the progress bar head.
-                int prevHeadIdx = cache.getBarIdx(guildId);
+                int prevHeadIdx = context.getPanelBarIdx();
                 int headIdx = dur > 0 ? (int) (20 * pos / dur) : 0;
 
                 // Check the time of the last edit.
-                long prevEditTs = cache.getEditTs(guildId);
+                long prevEditTs = context.getPanelEditTs();
                 long minInt = chooseInterval(dur);
                 boolean intervalElapsed = now - prevEditTs >= minInt;
 
                 // Only update if the interval has passed AND the bar has moved.
                 if (intervalElapsed && headIdx != prevHeadIdx) {
-                    cache.setBarIdx(guildId, headIdx);
-                    cache.setEditTs(guildId, now);
+                    context.setPanelBarIdx(headIdx);
+                    context.setPanelEditTs(now);
                 }
             }
         }
@@ -0,0 +1,35 @@
+package com.gammatunes.component.discord.ui.panel;
+
+import com.gammatunes.service.PlayerPanelService;
+import lombok.RequiredArgsConstructor;
+import net.dv8tion.jda.api.events.message.MessageBulkDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listens for deleted messages, so a player panel deleted by hand is recreated right away.
+ * Unchanged panels are never edited, so without this a missing panel would only be noticed once its content
+ * changed.
+ */
+@Component
+@RequiredArgsConstructor
+public class PanelDeletionListener extends ListenerAdapter {
+
+    private final PlayerPanelService playerPanelService;
+
+    @Override
+    public void onMessageDelete(@NotNull MessageDeleteEvent event) {
+        if (!event.isFromGuild()) return;
+        playerPanelService.onMessageDeleted(event.getGuild().getIdLong(), event.getMessageIdLong());
+    }
+
+    @Override
+    public void onMessageBulkDelete(@NotNull MessageBulkDeleteEvent event) {
+        long guildId = event.getGuild().getIdLong();
+        for (String messageId : event.getMessageIds()) {
+            playerPanelService.onMessageDeleted(guildId, Long.parseLong(messageId));
+        }
+    }
+}
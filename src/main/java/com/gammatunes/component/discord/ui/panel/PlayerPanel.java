@@ -11,4 +11,22 @@ import java.util.List;
 public record PlayerPanel(
     MessageEmbed embed,
     List<ActionRow> components
-) {}
+) {
+
+    /**
+     * Hashes the rendered content, so a panel can be compared with the one last sent without keeping it around.
+     * Both parts are hashed from the JSON sent to Discord, which does not depend on how the objects were built.
+     *
+     * @return The content hashes of the embed and the components.
+     */
+    public Hashes hashes() {
+        List<String> rows = components.stream().map(row -> row.toData().toString()).toList();
+        return new Hashes(embed.toData().toString().hashCode(), rows.hashCode());
+    }
+
+    /**
+     * Content hashes of a rendered panel, one for the embed and one for the components, so each can be edited on
+     * its own.
+     */
+    public record Hashes(int embed, int components) { }
+}
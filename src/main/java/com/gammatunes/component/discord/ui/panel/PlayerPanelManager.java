@@ -3,6 +3,8 @@ package com.gammatunes.component.discord.ui.panel;
 import com.gammatunes.component.audio.core.PlayerStateStore;
 import com.gammatunes.component.audio.events.PlayerUIState;
 import com.gammatunes.component.audio.events.PlayerPosition;
+import com.gammatunes.component.discord.ui.PanelRefreshMetrics;
+import com.gammatunes.component.discord.ui.PlayerPanelCache;
 import com.gammatunes.model.dto.MessageRef;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,12 +16,15 @@ import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
 import net.dv8tion.jda.api.exceptions.ErrorResponseException;
 import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.requests.restaction.MessageEditAction;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 /**
  * Manages player panels in Discord guilds.
  * Handles creation, updating, deletion, and recreation of player panels.
+ * Content hashes of the last panel sent are kept in the {@link PlayerPanelCache}, so updates only edit the parts
+ * of the message that changed, or nothing at all.
  */
 @Slf4j
 @Component
@@ -29,6 +34,8 @@ public class PlayerPanelManager {
     private final JDA jda;
     private final PlayerPanelFactory panelFactory;
     private final PlayerStateStore stateStore;
+    private final PlayerPanelCache panelCache;
+    private final PanelRefreshMetrics panelRefreshMetrics;
 
     /**
      * Creates a new player panel in the specified channel with the given status.
@@ -49,12 +56,17 @@ public class PlayerPanelManager {
                     .submit()
             )
             .map(Message::getIdLong)
-            .doOnNext(id -> log.info("Created panel {} in channel {}", id, channel.getId()))
+            .doOnNext(id -> {
+                panelCache.setHashes(guildId, panel.hashes());
+                log.info("Created panel {} in channel {}", id, channel.getId());
+            })
             .map(id -> new MessageRef(guildId, channel.getIdLong(), id));
     }
 
     /**
      * Updates the existing player panel message with the new status.
+     * The panel is compared with the one last sent: an unchanged panel is not edited at all, and if only the embed
+     * or only the components changed, only that part is sent.
      * If the message is missing, it will log a warning and ignore the error.
      *
      * @param ref    The reference to the message to update.
@@ -65,16 +77,40 @@ public class PlayerPanelManager {
         log.debug("updatePanel ref={} guild={} channel={}", ref, ref.guildId(), ref.channelId());
 
         return Mono.fromCallable(() -> buildPlayerPanel(ref.guildId(), status))
-            .flatMap(panel -> resolveMessageChannel(ref)
-                .flatMap(ch -> {
-                    log.debug("Editing message {} in channel {}", ref.messageId(), ch.getId());
-                    return Mono.fromFuture(
-                        ch.editMessageEmbedsById(ref.messageId(), panel.embed())
-                            .setComponents(panel.components())
-                            .submit()
-                    );
-                })
-            )
+            .flatMap(panel -> {
+                PlayerPanel.Hashes hashes = panel.hashes();
+                PlayerPanel.Hashes sent = panelCache.getHashes(ref.guildId());
+                boolean embedChanged = sent == null || sent.embed() != hashes.embed();
+                boolean componentsChanged = sent == null || sent.components() != hashes.components();
+
+                if (!embedChanged && !componentsChanged) {
+                    log.debug("Panel {} unchanged, skipping edit", ref.messageId());
+                    panelRefreshMetrics.recordEdit("skipped");
+                    return Mono.empty();
+                }
+
+                return resolveMessageChannel(ref)
+                    .flatMap(ch -> {
+                        log.debug("Editing message {} in channel {} (embed={}, components={})",
+                            ref.messageId(), ch.getId(), embedChanged, componentsChanged);
+                        MessageEditAction action;
+                        if (!embedChanged) {
+                            action = ch.editMessageComponentsById(ref.messageId(), panel.components());
+                        } else if (!componentsChanged) {
+                            action = ch.editMessageEmbedsById(ref.messageId(), panel.embed());
+                        } else {
+                            action = ch.editMessageEmbedsById(ref.messageId(), panel.embed())
+                                .setComponents(panel.components());
+                        }
+                        return Mono.fromFuture(action.submit());
+                    })
+                    .doOnSuccess(message -> {
+                        panelCache.setHashes(ref.guildId(), hashes);
+                        panelRefreshMetrics.recordEdit(embedChanged && componentsChanged ? "full"
+                            : embedChanged ? "embed" : "components");
+                    })
+                    .doOnError(err -> panelCache.clearHashes(ref.guildId()));
+            })
             .doOnError(err -> log.warn("Failed to update panel {} (will bubble to coordinator): {}", ref, err.toString()))
             .then();
     }
@@ -128,7 +164,10 @@ public class PlayerPanelManager {
                             .submit()
                     )
                     .map(Message::getIdLong)
-                    .doOnNext(id -> log.info("Recreated panel {} in channel {}", id, ch.getId()))
+                    .doOnNext(id -> {
+                        panelCache.setHashes(oldRef.guildId(), panel.hashes());
+                        log.info("Recreated panel {} in channel {}", id, ch.getId());
+                    })
                     .map(id -> new MessageRef(oldRef.guildId(), ch.getIdLong(), id))
             );
     }
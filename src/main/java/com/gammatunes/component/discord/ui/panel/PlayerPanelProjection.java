@@ -45,28 +45,24 @@ public class PlayerPanelProjection {
         log.info("PlayerPanelProjection starting; stateStore#={}", System.identityHashCode(playerStateStore));
 
 
+        // the store conflates per guild, so a slow refresh never drops another guild's latest state
         Flux<PlayerUIState> uiStates =
             playerStateStore.streamAllUI()
-                .onBackpressureLatest()
                 .doOnNext(s -> log.debug("[panel] UI change guild={} state={}",
                     s.guildId(), s.state()));
 
+        // refreshes only mark the panel dirty; the panel service coalesces them into at most one edit in flight
         Flux<Void> refreshFlow =
             uiStates
-                .groupBy(PlayerUIState::guildId)
-                .flatMap(group ->
-                    group
-                        .delayElements(Duration.ofMillis(100))
-                        .concatMap(s -> {
-                            long guildId = group.key();
-                            log.debug("[panel] refresh submit guild={}", guildId);
-                            return panelCoordinator.refreshPanel(guildId)
-                                .onErrorResume(e -> {
-                                    log.warn("Panel refresh failed for guild {}: {}", guildId, e.toString());
-                                    return Mono.empty();
-                                });
-                        })
-                );
+                .concatMap(s -> {
+                    long guildId = s.guildId();
+                    log.debug("[panel] refresh submit guild={}", guildId);
+                    return panelCoordinator.refreshPanel(guildId)
+                        .onErrorResume(e -> {
+                            log.warn("Panel refresh failed for guild {}: {}", guildId, e.toString());
+                            return Mono.empty();
+                        });
+                });
 
         Flux<Void> announceFlow = announceOutcomes
             ? uiStates
@@ -78,7 +74,9 @@ public class PlayerPanelProjection {
                     .concatMap(state -> {
                         long guildId = group.key();
                         String text = humanizeState(state);
+                        // refresh again so the announcement is rendered even if the state's refresh was written first
                         return panelCoordinator.setStatusNoRefresh(guildId, text)
+                            .then(panelCoordinator.refreshPanel(guildId))
                             .onErrorResume(e -> {
                                 log.warn("Publish status failed for guild {}: {}", guildId, e.toString());
                                 return Mono.empty();
@@ -3,8 +3,8 @@ package com.gammatunes.component.discord.ui.panel;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.gammatunes.component.audio.events.PlayerUIState;
 import com.gammatunes.component.audio.events.PlayerPosition;
+import com.gammatunes.component.audio.queue.QueueEntry;
 import com.gammatunes.model.dto.PlayerView;
-import dev.arbjerg.lavalink.client.player.Track;
 
 import java.util.List;
 import java.util.Map;
@@ -14,7 +14,7 @@ import java.util.Optional;
  * Utility class to map PlayerUIState and PlayerPosition to a PlayerView.
  * This class handles the conversion of the current track, queue, and history
  * into a format suitable for the player view, including requester information
- * extracted from the track's user data.
+ * extracted from the entry's user data. Unresolved entries are shown with their placeholder metadata.
  */
 public final class PlayerViewMapper {
 
@@ -45,17 +45,17 @@ public final class PlayerViewMapper {
     }
 
     /**
-     * Convert a Lavalink Track to a PlayerView.TrackView, including the requester info
-     * if it was attached to track.getUserData() at enqueue-time.
+     * Convert a queue entry to a PlayerView.TrackView, including the requester info
+     * if it was attached to the entry's user data at enqueue-time.
      */
-    private static PlayerView.TrackView toTrackView(Track track) {
+    private static PlayerView.TrackView toTrackView(QueueEntry track) {
         return new PlayerView.TrackView(
-            track.getInfo().getIdentifier(),
-            track.getInfo().getTitle(),
-            track.getInfo().getAuthor(),
-            track.getInfo().getUri(),
-            track.getInfo().getArtworkUrl(),
-            track.getInfo().getLength(),
+            track.getIdentifier(),
+            track.getTitle(),
+            track.getAuthor(),
+            track.getUri(),
+            track.getArtworkUrl(),
+            track.getLengthMs(),
             extractRequesterFromUserData(track.getUserData())
         );
     }
@@ -0,0 +1,156 @@
+package com.gammatunes.component.guild;
+
+import com.gammatunes.component.audio.core.Player;
+import com.gammatunes.component.audio.events.PlayerPosition;
+import com.gammatunes.component.audio.events.PlayerUIState;
+import com.gammatunes.component.discord.ui.panel.PlayerPanel;
+import com.gammatunes.component.spotify.control.SpotifyControlPlaybackState;
+import com.gammatunes.component.spotify.control.SpotifyControlSession;
+import com.gammatunes.model.dto.MessageRef;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Everything the bot keeps about one guild: its player, the last published UI state and position, the player
+ * panel bookkeeping and the Spotify control state. One lookup in {@link GuildContexts} gives access to all of it.
+ * <p>
+ * The fields are independent, so each is volatile, or a {@link StateCell}, and read or written on its own; the
+ * stores that used to keep them in separate maps still own their meaning. A context that has been
+ * {@linkplain GuildContexts#evictIfUnused evicted} is retired and refuses to take a new player; every other write
+ * that creates state goes through {@link GuildContexts#update}, which retries such writes on a fresh context.
+ */
+@Getter
+@Setter
+public final class GuildContext {
+
+    private final long guildId;
+
+    /** the guild's player; only set through {@link #getOrCreatePlayer} */
+    @Setter(AccessLevel.NONE)
+    private volatile Player player;
+
+    /** the last published UI state and position; written through the state hub in {@code PlayerStateStore} */
+    private final StateCell<PlayerUIState> uiCell = new StateCell<>();
+    private final StateCell<PlayerPosition> positionCell = new StateCell<>();
+
+    private volatile MessageRef panelMessage;
+    private volatile String panelStatus;
+    private volatile int panelBarIdx = -1;
+    private volatile long panelEditTs;
+    /** wall-clock time of the last panel write, or 0 if none since the panel was created */
+    private volatile long panelWriteAt;
+    /** content hashes of the panel last sent successfully, or null if unknown */
+    private volatile PlayerPanel.Hashes panelHashes;
+    /** panel refreshes requested and not yet covered by a write; non-zero while a refresh loop runs */
+    private final AtomicInteger panelRefreshRequests = new AtomicInteger();
+    /** wall-clock time of the oldest refresh request not yet written, or 0 if the panel is up to date */
+    private final AtomicLong panelStaleSince = new AtomicLong();
+
+    private volatile SpotifyControlSession spotifyControlSession;
+    private volatile SpotifyControlPlaybackState spotifyPlaybackState;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final AtomicBoolean spotifySyncing = new AtomicBoolean();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean retired;
+
+    GuildContext(long guildId) {
+        this.guildId = guildId;
+    }
+
+    public PlayerUIState getUiState() {
+        return uiCell.get();
+    }
+
+    /**
+     * Returns the guild's playback position, computed from the player when there is one; the last published
+     * position is only pushed while somebody subscribes to it.
+     *
+     * @return The position, or null if the guild has neither a player nor a published position.
+     */
+    public PlayerPosition getPosition() {
+        Player current = player;
+        return current != null ? current.getPosition() : positionCell.get();
+    }
+
+    /**
+     * Returns the guild's player, creating it if there is none.
+     *
+     * @param factory Creates the player for the guild id.
+     * @return The player, or null if this context was retired and the caller has to look up a fresh one.
+     */
+    public Player getOrCreatePlayer(LongFunction<Player> factory) {
+        Player existing = player;
+        if (existing != null) return existing;
+        synchronized (this) {
+            if (retired) return null;
+            if (player == null) {
+                player = factory.apply(guildId);
+            }
+            return player;
+        }
+    }
+
+    /**
+     * Forgets the player.
+     *
+     * @return The player that was removed, or null if there was none.
+     */
+    public synchronized Player removePlayer() {
+        Player removed = player;
+        player = null;
+        return removed;
+    }
+
+    /**
+     * Marks a Spotify sync of the guild as running.
+     *
+     * @return true if no sync was running yet.
+     */
+    public boolean tryBeginSpotifySync() {
+        return spotifySyncing.compareAndSet(false, true);
+    }
+
+    public void endSpotifySync() {
+        spotifySyncing.set(false);
+    }
+
+    /**
+     * Runs a write against the context unless it has been retired. The context cannot be retired while the write
+     * runs, so the write is never lost to an eviction; the write must not look up other contexts.
+     *
+     * @param write The write.
+     * @return false if the context was retired and the write did not run.
+     */
+    synchronized boolean writeIfLive(Consumer<GuildContext> write) {
+        if (retired) return false;
+        write.accept(this);
+        return true;
+    }
+
+    /**
+     * Retires the context if nothing worth keeping is left in it: no player, no panel, no Spotify control state
+     * and nobody subscribed to the guild's state. Leftover UI state and position only describe a player that is
+     * gone.
+     *
+     * @return true if the context was retired.
+     */
+    synchronized boolean retireIfUnused() {
+        if (player != null || panelMessage != null || spotifyControlSession != null || spotifyPlaybackState != null
+            || spotifySyncing.get() || uiCell.isListened() || positionCell.isListened()) {
+            return false;
+        }
+        retired = true;
+        return true;
+    }
+}
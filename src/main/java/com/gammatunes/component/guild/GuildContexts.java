@@ -0,0 +1,95 @@
+package com.gammatunes.component.guild;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Owns the {@link GuildContext} of every guild the bot currently keeps state for.
+ * Contexts are created on first use and evicted once nothing worth keeping is left in them; the stores that
+ * clear their part of a context call {@link #evictIfUnused} afterwards.
+ */
+@Component
+public class GuildContexts {
+
+    private final StripedLongMap<GuildContext> contexts = new StripedLongMap<>();
+
+    /**
+     * Gets the context of a guild without creating one.
+     *
+     * @param guildId The ID of the guild.
+     * @return The context, or null if the guild has none.
+     */
+    public GuildContext get(long guildId) {
+        return contexts.get(guildId);
+    }
+
+    /**
+     * Gets the context of a guild, creating it if it does not exist.
+     *
+     * @param guildId The ID of the guild.
+     * @return The guild's context.
+     */
+    public GuildContext getOrCreate(long guildId) {
+        return contexts.computeIfAbsent(guildId, GuildContext::new);
+    }
+
+    /**
+     * Writes to the context of a guild, creating it if it does not exist.
+     * A context that is retired concurrently is never written to; the write is retried on the guild's fresh
+     * context instead, so it cannot be lost to an eviction. Writes that only clear state may use {@link #get}.
+     *
+     * @param guildId The ID of the guild.
+     * @param write   The write; it must not look up other contexts.
+     * @return The context that was written to.
+     */
+    public GuildContext update(long guildId, Consumer<GuildContext> write) {
+        while (true) {
+            GuildContext context = getOrCreate(guildId);
+            if (context.writeIfLive(write)) {
+                return context;
+            }
+            // retired after the lookup; it is being removed, so the next lookup finds or creates its successor
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Like {@link #update}, but returns what the write computed.
+     *
+     * @param guildId The ID of the guild.
+     * @param write   The write; it must not look up other contexts.
+     * @return The result of the write.
+     */
+    public <T> T compute(long guildId, Function<GuildContext, T> write) {
+        AtomicReference<T> result = new AtomicReference<>();
+        update(guildId, context -> result.set(write.apply(context)));
+        return result.get();
+    }
+
+    /**
+     * Returns a snapshot of all contexts.
+     *
+     * @return The contexts, in no particular order.
+     */
+    public List<GuildContext> all() {
+        return contexts.values();
+    }
+
+    public int size() {
+        return contexts.size();
+    }
+
+    /**
+     * Evicts a guild's context if it holds no player, panel or Spotify control state anymore.
+     *
+     * @param guildId The ID of the guild.
+     * @return true if the context was evicted.
+     */
+    public boolean evictIfUnused(long guildId) {
+        return contexts.removeIf(guildId, GuildContext::retireIfUnused);
+    }
+}
@@ -0,0 +1,66 @@
+package com.gammatunes.component.guild;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Versioned latest-value cell for one piece of a guild's state, e.g. its UI state.
+ * Every {@link #set} replaces the value and bumps the version in a single compare-and-set, so concurrent writers
+ * never lose an update to each other and readers always see a value together with its version.
+ * The cell also counts the per-guild subscriptions listening to it, which keeps its guild's context alive.
+ *
+ * @param <T> The value type.
+ */
+public final class StateCell<T> {
+
+    private final AtomicReference<Versioned<T>> current = new AtomicReference<>(new Versioned<>(0L, null));
+    private final AtomicInteger listeners = new AtomicInteger();
+
+    /**
+     * Replaces the value.
+     *
+     * @param value The new value; null clears the cell.
+     * @return The version of the new value.
+     */
+    public long set(T value) {
+        Versioned<T> previous;
+        Versioned<T> next;
+        do {
+            previous = current.get();
+            next = new Versioned<>(previous.version() + 1, value);
+        } while (!current.compareAndSet(previous, next));
+        return next.version();
+    }
+
+    public T get() {
+        return current.get().value();
+    }
+
+    /**
+     * Returns the current value together with its version.
+     *
+     * @return The versioned value; its value is null while the cell is empty.
+     */
+    public Versioned<T> versioned() {
+        return current.get();
+    }
+
+    public void retain() {
+        listeners.incrementAndGet();
+    }
+
+    /**
+     * Drops one listener.
+     *
+     * @return true if nobody listens to the cell anymore.
+     */
+    public boolean release() {
+        return listeners.decrementAndGet() == 0;
+    }
+
+    public boolean isListened() {
+        return listeners.get() > 0;
+    }
+
+    public record Versioned<T>(long version, T value) { }
+}
@@ -0,0 +1,201 @@
+package com.gammatunes.component.guild;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent map from primitive {@code long} keys to values, e.g. from guild ids to per-guild state.
+ * Keys are never boxed. The map is split into stripes; each stripe holds an immutable open-addressing table that
+ * is replaced as a whole on every write. Reads are a single volatile load followed by a short probe and never
+ * block; writes lock only their stripe and copy its table, which suits maps that are read on every event but
+ * only written when a key comes or goes.
+ *
+ * @param <V> The value type.
+ */
+public final class StripedLongMap<V> {
+
+    private static final int STRIPE_BITS = 6;
+
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+    public StripedLongMap() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the key is not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long hash = hash(key);
+        return (V) stripe(hash).table.get(key, hash);
+    }
+
+    /**
+     * Returns the value mapped to a key, mapping a new value first if there is none.
+     * The factory runs at most once per missing key, while the key's stripe is locked.
+     *
+     * @param key     The key.
+     * @param factory Creates the value for a missing key; must not return null.
+     * @return The existing or newly mapped value.
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, LongFunction<? extends V> factory) {
+        long hash = hash(key);
+        Stripe stripe = stripe(hash);
+        Object existing = stripe.table.get(key, hash);
+        if (existing != null) return (V) existing;
+        synchronized (stripe) {
+            Table table = stripe.table;
+            existing = table.get(key, hash);
+            if (existing != null) return (V) existing;
+            V created = Objects.requireNonNull(factory.apply(key), "factory must not return null");
+            stripe.table = table.with(key, hash, created);
+            return created;
+        }
+    }
+
+    /**
+     * Removes the mapping of a key if its value matches a condition.
+     * The condition is evaluated while the key's stripe is locked, so no other write to the key interleaves.
+     *
+     * @param key       The key.
+     * @param condition Decides whether the current value is removed.
+     * @return true if the mapping was removed.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(long key, Predicate<? super V> condition) {
+        long hash = hash(key);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            Table table = stripe.table;
+            Object existing = table.get(key, hash);
+            if (existing == null || !condition.test((V) existing)) return false;
+            stripe.table = table.without(key);
+            return true;
+        }
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param key The key.
+     * @return true if the key was mapped.
+     */
+    public boolean remove(long key) {
+        return removeIf(key, ignored -> true);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.table.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns a snapshot of the values. Every stripe is read once, so writes that happen meanwhile may or may
+     * not be reflected.
+     *
+     * @return The values, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            for (Object value : stripe.table.values) {
+                if (value != null) values.add((V) value);
+            }
+        }
+        return values;
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[(int) (hash >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    /**
+     * Fibonacci hashing; Discord snowflakes carry their entropy in the high bits, the table slots and stripes
+     * both need it spread over all bits.
+     */
+    private static long hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static final class Stripe {
+        private volatile Table table = Table.EMPTY;
+    }
+
+    /**
+     * Immutable linear-probing table; a null value marks a free slot. Kept at most half full.
+     */
+    private static final class Table {
+
+        private static final Table EMPTY = new Table(new long[1], new Object[1], 0);
+
+        private final long[] keys;
+        private final Object[] values;
+        private final int size;
+
+        private Table(long[] keys, Object[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        Object get(long key, long hash) {
+            int mask = values.length - 1;
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                Object value = values[slot];
+                if (value == null || keys[slot] == key) return value;
+            }
+        }
+
+        Table with(long key, long hash, Object value) {
+            int capacity = values.length;
+            while ((size + 1) * 2 > capacity) {
+                capacity <<= 1;
+            }
+            Table copy = new Table(new long[capacity], new Object[capacity], size + 1);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) copy.put(keys[i], hash(keys[i]), values[i]);
+            }
+            copy.put(key, hash, value);
+            return copy;
+        }
+
+        Table without(long key) {
+            if (size == 1) return EMPTY;
+            int capacity = values.length;
+            while (capacity > 2 && (size - 1) * 4 < capacity) {
+                capacity >>>= 1;
+            }
+            Table copy = new Table(new long[capacity], new Object[capacity], size - 1);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null && keys[i] != key) copy.put(keys[i], hash(keys[i]), values[i]);
+            }
+            return copy;
+        }
+
+        /** only used while building a fresh copy, before it is published */
+        private void put(long key, long hash, Object value) {
+            int mask = values.length - 1;
+            int slot = (int) hash & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+    }
+}
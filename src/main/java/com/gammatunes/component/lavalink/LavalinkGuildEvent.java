@@ -0,0 +1,28 @@
+package com.gammatunes.component.lavalink;
+
+import dev.arbjerg.lavalink.client.player.Track;
+import dev.arbjerg.lavalink.client.player.TrackException;
+import dev.arbjerg.lavalink.protocol.v4.Message;
+
+/**
+ * A Lavalink event reduced to what the player needs, keyed by the guild it belongs to.
+ * Every Lavalink event type is mapped onto this interface so all of a guild's events can share one ordered lane.
+ */
+sealed interface LavalinkGuildEvent {
+
+    long guildId();
+
+    record TrackStarted(long guildId, Track track) implements LavalinkGuildEvent { }
+
+    record TrackEnded(
+        long guildId,
+        Track track,
+        Message.EmittedEvent.TrackEndEvent.AudioTrackEndReason endReason
+    ) implements LavalinkGuildEvent { }
+
+    record TrackFailed(long guildId, Track track, TrackException exception) implements LavalinkGuildEvent { }
+
+    record TrackStuck(long guildId, Track track, long thresholdMs) implements LavalinkGuildEvent { }
+
+    record PositionUpdated(long guildId, long positionMs) implements LavalinkGuildEvent { }
+}
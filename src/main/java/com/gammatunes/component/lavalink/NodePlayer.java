@@ -5,21 +5,72 @@ import dev.arbjerg.lavalink.client.Link;
 import dev.arbjerg.lavalink.client.player.Track;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayList;
+import java.util.List;
 
 
 /* This service is used to control the player on the Lavalink node.
  * It provides methods to play, stop, pause, and change the volume of the player.
  * It is bound to a specific guild, meaning it operates on the player associated with that guild.
  * The methods return a Mono<Void> to indicate completion of the operation.
+ *
+ * Every change is expressed as a PlayerUpdate and sent as a createOrUpdatePlayer PATCH right away. Updates issued
+ * while a PATCH is in flight are merged and sent as a single PATCH once it completes, so e.g. a track change
+ * followed by a seek reaches the node as "play at position" without delaying an update that finds the player
+ * idle. The guild's Link is looked up once and reused until a request fails.
  */
 @Slf4j
-public record NodePlayer(LavalinkClient lavalink, long guildId) {
+public final class NodePlayer {
+
+    private final LavalinkClient lavalink;
+    private final long guildId;
+
+    private final Object lock = new Object();
+    /** whether a PATCH is in flight; guarded by lock */
+    private boolean sending;
+    /** update waiting for the PATCH in flight to complete; guarded by lock */
+    private PlayerUpdate pending;
+    /** callers waiting for the pending update; guarded by lock */
+    private List<MonoSink<Void>> waiters = new ArrayList<>();
+
+    private volatile Link link;
 
+    public NodePlayer(LavalinkClient lavalink, long guildId) {
+        this.lavalink = lavalink;
+        this.guildId = guildId;
+    }
+
+    public long guildId() {
+        return guildId;
+    }
+
+    /**
+     * Applies an update to the player.
+     * The update is sent right away unless a PATCH is in flight; then it is merged with the other updates issued
+     * in the meantime and sent once that PATCH completes.
+     *
+     * @param update The update to apply.
+     * @return A Mono that completes when the (merged) update has been sent.
+     */
+    public Mono<Void> update(PlayerUpdate update) {
+        return Mono.create(sink -> {
+            boolean idle;
+            synchronized (lock) {
+                pending = pending == null ? update : pending.merge(update);
+                waiters.add(sink);
+                idle = !sending;
+                sending = true;
+            }
+            if (idle) {
+                flush();
+            }
+        });
+    }
 
     public Mono<Void> play(Track track, int volume) {
-        return link().createOrUpdatePlayer()
-            .setTrack(track)
-            .setVolume(volume).then();
+        return update(PlayerUpdate.create().withTrack(track).withVolume(volume));
     }
 
     /**
@@ -28,7 +79,7 @@ public record NodePlayer(LavalinkClient lavalink, long guildId) {
      * @return A Mono that completes when the stop operation is done.
      */
     public Mono<Void> stop() {
-        return link().createOrUpdatePlayer().setTrack(null).then();
+        return update(PlayerUpdate.create().withoutTrack());
     }
 
     /**
@@ -38,11 +89,11 @@ public record NodePlayer(LavalinkClient lavalink, long guildId) {
      * @return A Mono that completes when the operation is done.
      */
     public Mono<Void> pause(boolean shouldPause) {
-        return link().createOrUpdatePlayer().setPaused(shouldPause).then();
+        return update(PlayerUpdate.create().withPaused(shouldPause));
     }
 
     public Mono<Void> seek(long positionMs) {
-        return link().createOrUpdatePlayer().setPosition(positionMs).then();
+        return update(PlayerUpdate.create().withPosition(positionMs));
     }
 
     /**
@@ -51,16 +102,80 @@ public record NodePlayer(LavalinkClient lavalink, long guildId) {
      * @return A Mono that completes when the skip operation is done.
      */
     public Mono<Void> volume(int volume) {
-        return link().createOrUpdatePlayer().setVolume(volume).then();
+        return update(PlayerUpdate.create().withVolume(volume));
     }
 
     /**
-     * Gets the current player state.
+     * Destroys the guild's player on the Lavalink node and forgets the guild's link.
+     * Does nothing if no link was ever created for the guild.
      *
-     * @return A Mono that emits the current player state.
+     * @return A Mono that completes when the node has destroyed the player.
+     */
+    public Mono<Void> destroy() {
+        return Mono.defer(() -> {
+            link = null;
+            Link cached = lavalink.getLinkIfCached(guildId);
+            return cached == null ? Mono.<Void>empty() : cached.destroy().then();
+        });
+    }
+
+    /**
+     * Sends the pending update and completes everyone waiting for it, then sends whatever was merged while it was
+     * in flight.
+     */
+    private void flush() {
+        PlayerUpdate update;
+        List<MonoSink<Void>> sinks;
+        synchronized (lock) {
+            if (pending == null) {
+                sending = false;
+                return;
+            }
+            update = pending;
+            sinks = waiters;
+            pending = null;
+            waiters = new ArrayList<>();
+        }
+        if (sinks.size() > 1) {
+            log.debug("Merged {} player updates for guild {} into one request", sinks.size(), guildId);
+        }
+
+        send(update).subscribe(
+            ignored -> { },
+            error -> {
+                link = null;
+                sinks.forEach(sink -> sink.error(error));
+                flush();
+            },
+            () -> {
+                sinks.forEach(MonoSink::success);
+                flush();
+            }
+        );
+    }
+
+    private Mono<Void> send(PlayerUpdate update) {
+        return Mono.defer(() -> {
+            var request = link().createOrUpdatePlayer();
+            if (update.trackSet()) request.setTrack(update.track());
+            if (update.positionMs() != null) request.setPosition(update.positionMs());
+            if (update.volume() != null) request.setVolume(update.volume());
+            if (update.paused() != null) request.setPaused(update.paused());
+            return request.then();
+        });
+    }
+
+    /**
+     * Gets the guild's link, looking it up only if it is not cached yet.
+     *
+     * @return The link of this player's guild.
      */
     private Link link() {
-        return lavalink.getOrCreateLink(guildId);
+        Link cached = link;
+        if (cached == null) {
+            cached = lavalink.getOrCreateLink(guildId);
+            link = cached;
+        }
+        return cached;
     }
 }
-
@@ -0,0 +1,61 @@
+package com.gammatunes.component.lavalink;
+
+import dev.arbjerg.lavalink.client.player.Track;
+
+/**
+ * A change to a guild's Lavalink player, sent as a single PATCH.
+ * Only the fields that were set are sent; everything else keeps its current value on the node.
+ * Updates are immutable; the {@code with*} methods return a new update.
+ *
+ * @param trackSet   Whether the track should be replaced; a null {@code track} then stops playback.
+ * @param track      The track to play.
+ * @param positionMs The position to play from or seek to, or null to leave it unchanged.
+ * @param volume     The volume, or null to leave it unchanged.
+ * @param paused     Whether the player is paused, or null to leave it unchanged.
+ */
+public record PlayerUpdate(boolean trackSet, Track track, Long positionMs, Integer volume, Boolean paused) {
+
+    private static final PlayerUpdate EMPTY = new PlayerUpdate(false, null, null, null, null);
+
+    public static PlayerUpdate create() {
+        return EMPTY;
+    }
+
+    public PlayerUpdate withTrack(Track track) {
+        return new PlayerUpdate(true, track, positionMs, volume, paused);
+    }
+
+    public PlayerUpdate withoutTrack() {
+        return new PlayerUpdate(true, null, positionMs, volume, paused);
+    }
+
+    public PlayerUpdate withPosition(long positionMs) {
+        return new PlayerUpdate(trackSet, track, positionMs, volume, paused);
+    }
+
+    public PlayerUpdate withVolume(int volume) {
+        return new PlayerUpdate(trackSet, track, positionMs, volume, paused);
+    }
+
+    public PlayerUpdate withPaused(boolean paused) {
+        return new PlayerUpdate(trackSet, track, positionMs, volume, paused);
+    }
+
+    /**
+     * Combines this update with one issued after it, as if both had been sent in order.
+     * The later update's fields win. A later track change also drops this update's position, since that position
+     * referred to the track being replaced.
+     *
+     * @param later The update issued after this one.
+     * @return The combined update.
+     */
+    public PlayerUpdate merge(PlayerUpdate later) {
+        return new PlayerUpdate(
+            trackSet || later.trackSet,
+            later.trackSet ? later.track : track,
+            later.trackSet || later.positionMs != null ? later.positionMs : positionMs,
+            later.volume != null ? later.volume : volume,
+            later.paused != null ? later.paused : paused
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.gammatunes.component.lavalink;
+
+import java.time.Duration;
+
+/**
+ * Per-guild throttle for Lavalink PlayerUpdate events.
+ * Lets the first update of every interval through and drops the rest, so each guild keeps its own
+ * update budget instead of competing with every other guild for a single global sample window.
+ * <p>
+ * An instance belongs to exactly one guild lane; lanes deliver events serially, so no synchronization is needed.
+ */
+final class PlayerUpdateThrottle {
+
+    private final long intervalNanos;
+    private long lastDeliveredNanos;
+    private boolean delivered;
+
+    private long deliveredCount;
+    private long droppedCount;
+
+    PlayerUpdateThrottle(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Decides whether the update arriving now should be delivered to the player.
+     *
+     * @return true if the update should be delivered, false if it should be dropped.
+     */
+    boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (delivered && now - lastDeliveredNanos < intervalNanos) {
+            droppedCount++;
+            return false;
+        }
+        delivered = true;
+        lastDeliveredNanos = now;
+        deliveredCount++;
+        return true;
+    }
+
+    long deliveredCount() {
+        return deliveredCount;
+    }
+
+    long droppedCount() {
+        return droppedCount;
+    }
+}
@@ -1,7 +1,16 @@
 package com.gammatunes.component.lavalink;
 
 import com.gammatunes.component.audio.core.PlayerRegistry;
+import com.gammatunes.component.lavalink.LavalinkGuildEvent.PositionUpdated;
+import com.gammatunes.component.lavalink.LavalinkGuildEvent.TrackEnded;
+import com.gammatunes.component.lavalink.LavalinkGuildEvent.TrackFailed;
+import com.gammatunes.component.lavalink.LavalinkGuildEvent.TrackStarted;
+import com.gammatunes.component.lavalink.LavalinkGuildEvent.TrackStuck;
+import com.gammatunes.component.spotify.match.SpotifyTrackMatchIndex;
 import com.gammatunes.service.SpotifyControlPlaybackService;
+import com.gammatunes.service.playback.FirstAudioTracker;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import dev.arbjerg.lavalink.client.LavalinkClient;
 import dev.arbjerg.lavalink.client.event.PlayerUpdateEvent;
 import dev.arbjerg.lavalink.client.event.TrackEndEvent;
@@ -13,217 +22,233 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import reactor.core.Disposable;
-import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.GroupedFlux;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * This component listens to various Lavalink track events and dispatches them to the appropriate player event handlers.
- * It handles events such as TrackStart, TrackEnd, PlayerUpdate, TrackException, and TrackStuck.
- * Each event is processed per guild, allowing for efficient handling of multiple guilds in a single application instance.
+ * This component listens to the Lavalink track events and dispatches them to the appropriate player event handlers.
+ * TrackStart, TrackEnd, PlayerUpdate, TrackException and TrackStuck are merged into a single stream and split into
+ * one ordered lane per guild: a guild's events are handled strictly in arrival order, while different guilds are
+ * handled in parallel.
+ * <p>
+ * Events only reach an existing player: an event that arrives for a guild whose player was already released is
+ * dropped instead of creating a new player. A track that fails to play is also reported to the
+ * {@link SpotifyTrackMatchIndex}, so a dead Spotify match is not handed out again.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class TrackEventDispatcher {
 
+    private static final String STREAM = "Lavalink";
+
+    /** longer pauses between a finished track and the next start are idle time, not a track transition */
+    private static final Duration MAX_TRACK_GAP = Duration.ofSeconds(60);
+
     private final LavalinkClient lavalinkClient;
     private final PlayerRegistry playerRegistry;
     private final SpotifyControlPlaybackService spotifyControlPlaybackService;
+    private final TrackEventMetrics trackEventMetrics;
+    private final FirstAudioTracker firstAudioTracker;
+    private final SpotifyTrackMatchIndex spotifyTrackMatchIndex;
+
+    @Value("${gamma.bot.lavalink.player-update-interval-ms:350}")
+    private long playerUpdateIntervalMs;
+
+    @Value("${gamma.bot.lavalink.lane-idle-timeout-ms:300000}")
+    private long laneIdleTimeoutMs;
 
-    private Disposable.Composite subscriptions;
+    /** number of guild lanes currently subscribed */
+    private final AtomicInteger activeLanes = new AtomicInteger();
+
+    /** nanoTime at which each guild's last track finished, until the next track starts or the gap turns idle */
+    private final Cache<Long, Long> trackFinishedAt = Caffeine.newBuilder()
+        .expireAfterWrite(MAX_TRACK_GAP)
+        .build();
+
+    private Disposable subscription;
 
     @PostConstruct
     void init() {
-        subscriptions = Disposables.composite();
+        trackEventMetrics.registerActiveLanes(STREAM, activeLanes);
 
-        // === TrackStart ========================================================
-        Disposable trackStartSubscription = lavalinkClient.on(TrackStartEvent.class)
-            .doOnSubscribe(subscription -> log.info("TrackStart stream subscribed"))
-            .doOnError(throwable -> log.error("TrackStart stream error (root)", throwable))
-            .groupBy(TrackStartEvent::getGuildId)
-            .flatMap(groupByGuild ->
-                groupByGuild
-                    .doOnSubscribe(subscription ->
-                        log.debug("TrackStart group[{}] subscribed", groupByGuild.key()))
-                    .doOnNext(event ->
-                        log.debug("TrackStart recv guild={} title='{}' thread={}",
-                            groupByGuild.key(),
-                            safe(event.getTrack().getInfo().getTitle()),
-                            Thread.currentThread().getName()))
-                    .concatMap(event -> {
-                        long startedNanos = System.nanoTime();
-                        return playerRegistry.getOrCreate(groupByGuild.key())
-                            .flatMap(player -> player.getEventHandler().onTrackStart(event.getTrack()))
-                            .doOnSuccess(ignored ->
-                                log.debug("TrackStart handled guild={} in {}ms",
-                                    groupByGuild.key(), msSince(startedNanos)))
-                            .onErrorResume(handlerError -> {
-                                log.warn("TrackStart handler failed guild={}: {}",
-                                    groupByGuild.key(), describe(handlerError));
-                                return Mono.empty();
-                            });
-                    })
-            )
-            .retryWhen(retryBackoff("TrackStart"))
-            .doOnTerminate(() -> log.info("TrackStart stream terminated"))
+        subscription = guildEvents()
+            .doOnSubscribe(ignored -> log.info("{} event stream subscribed", STREAM))
+            .doOnError(throwable -> log.error("{} event stream error (root)", STREAM, throwable))
+            .groupBy(LavalinkGuildEvent::guildId)
+            .flatMap(this::dispatchLane, Integer.MAX_VALUE)
+            .retryWhen(retryBackoff(STREAM))
+            .doOnTerminate(() -> log.info("{} event stream terminated", STREAM))
             .subscribe(
                 ignored -> { },
-                subscriberError -> log.error("TrackStart subscriber error", subscriberError)
+                subscriberError -> log.error("{} event subscriber error", STREAM, subscriberError)
             );
-        subscriptions.add(trackStartSubscription);
 
-        // === TrackEnd ========================================================
-        Disposable trackEndSubscription = lavalinkClient.on(TrackEndEvent.class)
-            .doOnSubscribe(subscription -> log.info("TrackEnd stream subscribed"))
-            .doOnError(throwable -> log.error("TrackEnd stream error (root)", throwable))
-            .groupBy(TrackEndEvent::getGuildId)
-            .flatMap(groupByGuild ->
-                groupByGuild
-                    .doOnSubscribe(subscription ->
-                        log.debug("TrackEnd group[{}] subscribed", groupByGuild.key()))
-                    .doOnNext(event ->
-                        log.debug("TrackEnd recv guild={} reason={} thread={}",
-                            groupByGuild.key(), event.getEndReason(),
-                            Thread.currentThread().getName()))
-                    .concatMap(event -> {
-                        long startedNanos = System.nanoTime();
-                        return playerRegistry.get(groupByGuild.key())
-                            .flatMap(player ->
-                                player.getEventHandler().onTrackEnd(event.getTrack(), event.getEndReason()))
-                            .then(Mono.defer(() -> shouldSyncAfterTrackEnd(event)
-                                ? spotifyControlPlaybackService.syncNow(groupByGuild.key())
-                                    .onErrorResume(syncError -> {
-                                        log.debug("Spotify control track-end sync skipped guild={}: {}",
-                                            groupByGuild.key(), describe(syncError));
-                                        return Mono.empty();
-                                    })
-                                : Mono.empty()))
-                            .doOnSuccess(ignored ->
-                                log.debug("TrackEnd handled guild={} in {}ms",
-                                    groupByGuild.key(), msSince(startedNanos)))
-                            .onErrorResume(handlerError -> {
-                                log.warn("TrackEnd handler failed guild={}: {}",
-                                    groupByGuild.key(), describe(handlerError));
-                                return Mono.empty();
-                            });
-                    })
-            )
-            .retryWhen(retryBackoff("TrackEnd"))
-            .doOnTerminate(() -> log.info("TrackEnd stream terminated"))
-            .subscribe(
-                ignored -> { },
-                subscriberError -> log.error("TrackEnd subscriber error", subscriberError)
-            );
-        subscriptions.add(trackEndSubscription);
+        log.info("TrackEventBridge subscriptions initialized.");
+    }
 
-        // === PlayerUpdate (position/connected/ping) ==========================
-        Disposable playerUpdateSubscription = lavalinkClient.on(PlayerUpdateEvent.class)
-            .onBackpressureDrop(event ->
-                log.debug("Dropped PlayerUpdate guild={} pos={}",
-                    event.getGuildId(),
-                    event.getState().getPosition()))
-            .sample(Duration.ofMillis(350))
-            .groupBy(PlayerUpdateEvent::getGuildId)
-            .flatMap(groupByGuild ->
-                groupByGuild.concatMap(event ->
-                    playerRegistry.getOrCreate(groupByGuild.key())
-                        .flatMap(player ->
-                            player.getEventHandler()
-                                .onPlayerUpdate(event.getState().getPosition()))
-                        .onErrorResume(handlerError -> {
-                            log.warn("PlayerUpdate handler failed guild={}: {}",
-                                groupByGuild.key(), describe(handlerError));
-                            return Mono.empty();
-                        })
-                )
-            )
-            .doOnSubscribe(subscription -> log.info("PlayerUpdate stream subscribed"))
-            .doOnTerminate(() -> log.info("PlayerUpdate stream terminated"))
-            .subscribe(
-                ignored -> { },
-                subscriberError -> log.error("PlayerUpdate subscriber error", subscriberError)
-            );
-        subscriptions.add(playerUpdateSubscription);
+    /**
+     * Merges every Lavalink event type into one stream of guild events.
+     * PlayerUpdate events may be dropped under backpressure since the next update supersedes them;
+     * track lifecycle events are never dropped.
+     *
+     * @return A Flux of all guild events in arrival order.
+     */
+    private Flux<LavalinkGuildEvent> guildEvents() {
+        return Flux.merge(
+            lavalinkClient.on(TrackStartEvent.class)
+                .map(event -> new TrackStarted(event.getGuildId(), event.getTrack())),
+            lavalinkClient.on(TrackEndEvent.class)
+                .map(event -> new TrackEnded(event.getGuildId(), event.getTrack(), event.getEndReason())),
+            lavalinkClient.on(TrackExceptionEvent.class)
+                .map(event -> new TrackFailed(event.getGuildId(), event.getTrack(), event.getException())),
+            lavalinkClient.on(TrackStuckEvent.class)
+                .map(event -> new TrackStuck(event.getGuildId(), event.getTrack(), event.getThresholdMs())),
+            lavalinkClient.on(PlayerUpdateEvent.class)
+                .onBackpressureDrop(event ->
+                    log.debug("Dropped PlayerUpdate guild={} pos={}",
+                        event.getGuildId(),
+                        event.getState().getPosition()))
+                .map(event -> new PositionUpdated(event.getGuildId(), event.getState().getPosition()))
+        );
+    }
 
-        // === TrackException ==================================================
-        Disposable trackExceptionSubscription = lavalinkClient.on(TrackExceptionEvent.class)
-            .doOnSubscribe(subscription -> log.info("TrackException stream subscribed"))
-            .doOnError(throwable -> log.error("TrackException stream error (root)", throwable))
-            .groupBy(TrackExceptionEvent::getGuildId)
-            .flatMap(groupByGuild ->
-                groupByGuild
-                    .doOnSubscribe(subscription ->
-                        log.debug("TrackException group[{}] subscribed", groupByGuild.key()))
-                    .doOnNext(event ->
-                        log.warn("TrackException recv guild={} msg={}",
-                            groupByGuild.key(),
-                            event.getException().getMessage()))
-                    .concatMap(event -> {
-                        long startedNanos = System.nanoTime();
-                        return playerRegistry.getOrCreate(groupByGuild.key())
-                            .flatMap(player ->
-                                player.getEventHandler()
-                                    .onTrackException(event.getTrack(), event.getException()))
-                            .doOnSuccess(ignored ->
-                                log.debug("TrackException handled guild={} in {}ms",
-                                    groupByGuild.key(), msSince(startedNanos)))
-                            .onErrorResume(handlerError -> {
-                                log.warn("TrackException handler failed guild={}: {}",
-                                    groupByGuild.key(), describe(handlerError));
-                                return Mono.empty();
-                            });
-                    })
-            )
-            .retryWhen(retryBackoff("TrackException"))
-            .doOnTerminate(() -> log.info("TrackException stream terminated"))
-            .subscribe(
-                ignored -> { },
-                subscriberError -> log.error("TrackException subscriber error", subscriberError)
-            );
-        subscriptions.add(trackExceptionSubscription);
+    /**
+     * Handles all events of a single guild, one at a time and in order.
+     * Position updates are throttled per guild before they reach the player.
+     *
+     * @param lane The grouped events of a single guild.
+     * @return A Flux that completes when the lane is evicted.
+     */
+    private Flux<Void> dispatchLane(GroupedFlux<Long, LavalinkGuildEvent> lane) {
+        long guildId = lane.key();
+        PlayerUpdateThrottle throttle = new PlayerUpdateThrottle(Duration.ofMillis(playerUpdateIntervalMs));
 
-        // === TrackStuck ======================================================
-        Disposable trackStuckSubscription = lavalinkClient.on(TrackStuckEvent.class)
-            .doOnSubscribe(subscription -> log.info("TrackStuck stream subscribed"))
-            .doOnError(throwable -> log.error("TrackStuck stream error (root)", throwable))
-            .groupBy(TrackStuckEvent::getGuildId)
-            .flatMap(groupByGuild ->
-                groupByGuild
-                    .doOnSubscribe(subscription ->
-                        log.debug("TrackStuck group[{}] subscribed", groupByGuild.key()))
-                    .doOnNext(event ->
-                        log.warn("TrackStuck recv guild={} thresholdMs={}",
-                            groupByGuild.key(), event.getThresholdMs()))
-                    .concatMap(event -> {
-                        long startedNanos = System.nanoTime();
-                        return playerRegistry.getOrCreate(groupByGuild.key())
-                            .flatMap(player ->
-                                player.getEventHandler()
-                                    .onTrackStuck(event.getTrack(), event.getThresholdMs()))
-                            .doOnSuccess(ignored ->
-                                log.debug("TrackStuck handled guild={} in {}ms",
-                                    groupByGuild.key(), msSince(startedNanos)))
-                            .onErrorResume(handlerError -> {
-                                log.warn("TrackStuck handler failed guild={}: {}",
-                                    groupByGuild.key(), describe(handlerError));
+        return evictWhenIdle(lane)
+            .doOnSubscribe(ignored -> log.debug("{} lane[{}] subscribed", STREAM, guildId))
+            .filter(event -> !(event instanceof PositionUpdated) || admitPositionUpdate(throttle))
+            .concatMap(event -> {
+                long startedNanos = System.nanoTime();
+                return handle(event)
+                    .doOnSuccess(ignored ->
+                        log.debug("{} handled guild={} in {}ms",
+                            event.getClass().getSimpleName(), guildId, msSince(startedNanos)))
+                    .onErrorResume(handlerError -> {
+                        log.warn("{} handler failed guild={}: {}",
+                            event.getClass().getSimpleName(), guildId, describe(handlerError));
+                        return Mono.empty();
+                    });
+            })
+            .doFinally(signal ->
+                log.debug("{} lane[{}] closed ({}) positionUpdates delivered={} dropped={}",
+                    STREAM, guildId, signal, throttle.deliveredCount(), throttle.droppedCount()));
+    }
+
+    /**
+     * Records the silence between a guild's finished track and the track that started after it.
+     *
+     * @param guildId The ID of the guild whose track started.
+     */
+    private void recordTrackGap(long guildId) {
+        Long finishedAt = trackFinishedAt.asMap().remove(guildId);
+        if (finishedAt == null) {
+            return;
+        }
+        Duration gap = Duration.ofNanos(System.nanoTime() - finishedAt);
+        if (gap.compareTo(MAX_TRACK_GAP) <= 0) {
+            log.debug("Track gap guild={} {}ms", guildId, gap.toMillis());
+            trackEventMetrics.recordTrackGap(gap);
+        }
+    }
+
+    /**
+     * Routes a guild event to the matching handler of the guild's player.
+     *
+     * @param event The event to handle.
+     * @return A Mono that completes when the event has been handled.
+     */
+    private Mono<Void> handle(LavalinkGuildEvent event) {
+        long guildId = event.guildId();
+        return switch (event) {
+            case TrackStarted started -> {
+                log.debug("TrackStart recv guild={} title='{}' thread={}",
+                    guildId, safe(started.track().getInfo().getTitle()), Thread.currentThread().getName());
+                firstAudioTracker.trackStarted(guildId);
+                recordTrackGap(guildId);
+                yield playerRegistry.get(guildId)
+                    .flatMap(player -> player.getEventHandler().onTrackStart(started.track()));
+            }
+            case TrackEnded ended -> {
+                log.debug("TrackEnd recv guild={} reason={} thread={}",
+                    guildId, ended.endReason(), Thread.currentThread().getName());
+                if (ended.endReason() == Message.EmittedEvent.TrackEndEvent.AudioTrackEndReason.FINISHED) {
+                    trackFinishedAt.put(guildId, System.nanoTime());
+                }
+                yield playerRegistry.get(guildId)
+                    .flatMap(player -> player.getEventHandler().onTrackEnd(ended.track(), ended.endReason()))
+                    .then(Mono.defer(() -> shouldSyncAfterTrackEnd(ended)
+                        ? spotifyControlPlaybackService.syncNow(guildId)
+                            .onErrorResume(syncError -> {
+                                log.debug("Spotify control track-end sync skipped guild={}: {}",
+                                    guildId, describe(syncError));
                                 return Mono.empty();
-                            });
-                    })
-            )
-            .retryWhen(retryBackoff("TrackStuck"))
-            .doOnTerminate(() -> log.info("TrackStuck stream terminated"))
-            .subscribe(
-                ignored -> { },
-                subscriberError -> log.error("TrackStuck subscriber error", subscriberError)
-            );
-        subscriptions.add(trackStuckSubscription);
+                            })
+                        : Mono.empty()));
+            }
+            case TrackFailed failed -> {
+                log.warn("TrackException recv guild={} msg={}", guildId, failed.exception().getMessage());
+                spotifyTrackMatchIndex.invalidate(failed.track());
+                yield playerRegistry.get(guildId)
+                    .flatMap(player -> player.getEventHandler().onTrackException(failed.track(), failed.exception()));
+            }
+            case TrackStuck stuck -> {
+                log.warn("TrackStuck recv guild={} thresholdMs={}", guildId, stuck.thresholdMs());
+                yield playerRegistry.get(guildId)
+                    .flatMap(player -> player.getEventHandler().onTrackStuck(stuck.track(), stuck.thresholdMs()));
+            }
+            case PositionUpdated update -> playerRegistry.get(guildId)
+                .flatMap(player -> player.getEventHandler().onPlayerUpdate(update.positionMs()));
+        };
+    }
 
-        log.info("TrackEventBridge subscriptions initialized.");
+    /**
+     * Applies the per-guild PlayerUpdate throttle and records the outcome.
+     *
+     * @param throttle The throttle of the guild the update belongs to.
+     * @return true if the update should be delivered to the player.
+     */
+    private boolean admitPositionUpdate(PlayerUpdateThrottle throttle) {
+        boolean deliver = throttle.tryAcquire();
+        if (deliver) {
+            trackEventMetrics.recordPlayerUpdateDelivered();
+        } else {
+            trackEventMetrics.recordPlayerUpdateDropped();
+        }
+        return deliver;
+    }
+
+    /**
+     * Wraps a per-guild lane so it completes after a period without events.
+     * Completing the lane lets {@code groupBy} forget the guild; the next event for it opens a fresh lane.
+     * Together with an unbounded {@code flatMap} concurrency this keeps the number of live lanes
+     * proportional to the number of recently active guilds instead of capping it at 256.
+     *
+     * @param lane The grouped events of a single guild.
+     * @return The lane's events, completing once the lane has been idle for the configured timeout.
+     */
+    private <E> Flux<E> evictWhenIdle(GroupedFlux<Long, E> lane) {
+        return lane
+            .timeout(Duration.ofMillis(laneIdleTimeoutMs), Flux.empty())
+            .doOnSubscribe(ignored -> activeLanes.incrementAndGet())
+            .doFinally(signal -> activeLanes.decrementAndGet());
     }
 
     /**
@@ -256,9 +281,9 @@ public class TrackEventDispatcher {
         return (System.nanoTime() - startedNanos) / 1_000_000L;
     }
 
-    private static boolean shouldSyncAfterTrackEnd(TrackEndEvent event) {
-        return event.getEndReason() == Message.EmittedEvent.TrackEndEvent.AudioTrackEndReason.FINISHED
-            || event.getEndReason() == Message.EmittedEvent.TrackEndEvent.AudioTrackEndReason.LOAD_FAILED;
+    private static boolean shouldSyncAfterTrackEnd(TrackEnded event) {
+        return event.endReason() == Message.EmittedEvent.TrackEndEvent.AudioTrackEndReason.FINISHED
+            || event.endReason() == Message.EmittedEvent.TrackEndEvent.AudioTrackEndReason.LOAD_FAILED;
     }
 
     /**
@@ -285,13 +310,13 @@ public class TrackEventDispatcher {
     }
 
     /**
-     * Shuts down the TrackEventBridge by disposing of all subscriptions.
+     * Shuts down the TrackEventBridge by disposing of the event subscription.
      * This is called when the application context is shutting down.
      */
     @PreDestroy
     void shutdown() {
-        if (subscriptions != null) {
-            subscriptions.dispose();
+        if (subscription != null) {
+            subscription.dispose();
             log.info("TrackEventBridge subscriptions disposed.");
         }
     }
@@ -0,0 +1,55 @@
+package com.gammatunes.component.lavalink;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Component for recording metrics related to the Lavalink event pipeline.
+ * It uses Micrometer to record how many PlayerUpdate events are delivered to or dropped before the player,
+ * how many per-guild lanes each event stream currently keeps open, and how long the silence between two tracks is.
+ */
+@Component
+public record TrackEventMetrics(MeterRegistry meterRegistry) {
+
+    /**
+     * Records a PlayerUpdate event that passed the per-guild throttle and was handed to the player.
+     */
+    public void recordPlayerUpdateDelivered() {
+        meterRegistry.counter("bot.lavalink.player_update", "outcome", "delivered").increment();
+    }
+
+    /**
+     * Records a PlayerUpdate event that was conflated away by the per-guild throttle.
+     */
+    public void recordPlayerUpdateDropped() {
+        meterRegistry.counter("bot.lavalink.player_update", "outcome", "dropped").increment();
+    }
+
+    /**
+     * Registers a gauge that reports the number of active per-guild lanes of an event stream.
+     * The caller must keep a strong reference to the counter; Micrometer only holds it weakly.
+     *
+     * @param stream The name of the event stream, e.g. TrackStart.
+     * @param lanes  The counter holding the number of active lanes.
+     */
+    public void registerActiveLanes(String stream, AtomicInteger lanes) {
+        meterRegistry.gauge("bot.lavalink.active_lanes", Tags.of("stream", stream), lanes);
+    }
+
+    /**
+     * Records the time between a track finishing and the next track starting in the same guild.
+     *
+     * @param gap The silence between the two tracks.
+     */
+    public void recordTrackGap(Duration gap) {
+        Timer.builder("bot.lavalink.track_gap")
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(gap);
+    }
+}
@@ -0,0 +1,31 @@
+package com.gammatunes.component.lavalink.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component for recording metrics related to request coalescing.
+ * It uses Micrometer to count, per flight, how many calls were actually executed and how many joined a call that
+ * was already in flight.
+ */
+@Component
+public record CoalescingMetrics(MeterRegistry meterRegistry) {
+
+    /**
+     * Records a call that was executed because no identical call was in flight.
+     *
+     * @param flight The name of the coalesced operation.
+     */
+    public void recordExecuted(String flight) {
+        meterRegistry.counter("bot.coalescer.calls", "flight", flight, "outcome", "executed").increment();
+    }
+
+    /**
+     * Records a call that was saved by joining an identical call already in flight.
+     *
+     * @param flight The name of the coalesced operation.
+     */
+    public void recordSaved(String flight) {
+        meterRegistry.counter("bot.coalescer.calls", "flight", flight, "outcome", "saved").increment();
+    }
+}
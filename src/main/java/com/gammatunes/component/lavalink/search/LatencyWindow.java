@@ -0,0 +1,41 @@
+package com.gammatunes.component.lavalink.search;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window over the most recent request latencies, used to derive percentile-based hedge delays.
+ * Thread-safe; the window is small enough that computing a percentile by sorting a copy is cheap.
+ */
+final class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    LatencyWindow(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Returns the given percentile of the recorded latencies.
+     *
+     * @param percentile The percentile, between 0 and 1.
+     * @param minSamples The number of samples required for a meaningful result.
+     * @return The percentile in milliseconds, or -1 if fewer than {@code minSamples} latencies were recorded.
+     */
+    synchronized long percentile(double percentile, int minSamples) {
+        if (count < Math.max(1, minSamples)) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.clamp(index, 0, count - 1)];
+    }
+}
@@ -0,0 +1,168 @@
+package com.gammatunes.component.lavalink.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.arbjerg.lavalink.client.player.LavalinkLoadResult;
+import dev.arbjerg.lavalink.client.player.LoadFailed;
+import dev.arbjerg.lavalink.client.player.NoMatches;
+import dev.arbjerg.lavalink.client.player.PlaylistLoaded;
+import dev.arbjerg.lavalink.client.player.SearchResult;
+import dev.arbjerg.lavalink.client.player.TrackLoaded;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * In-process cache of Lavalink load results, shared by all guilds.
+ * Entries are keyed by the normalized query and bounded by the total number of cached tracks; Caffeine's
+ * W-TinyLFU admission keeps popular queries while one-off searches are evicted first.
+ * <p>
+ * Search results go stale quickly, so search queries expire after a short time while direct URLs are kept much
+ * longer. Negative results (no matches, load failures and empty results) are cached as well, but only for a short
+ * time, so a query that is known to fail is not sent to Lavalink again on every replay.
+ * <p>
+ * Cached tracks are shared between callers, so callers must clone a track before mutating it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadResultCache {
+
+    private static final String CACHE_NAME = "lavalink.load_results";
+    private static final List<String> SEARCH_PREFIXES = List.of("ytsearch:", "ytmsearch:", "scsearch:", "spsearch:");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${gamma.bot.search-cache.max-tracks:50000}")
+    private long maxTracks;
+
+    @Value("${gamma.bot.search-cache.search-ttl-ms:900000}")
+    private long searchTtlMs;
+
+    @Value("${gamma.bot.search-cache.url-ttl-ms:21600000}")
+    private long urlTtlMs;
+
+    @Value("${gamma.bot.search-cache.negative-ttl-ms:120000}")
+    private long negativeTtlMs;
+
+    private Cache<String, LavalinkLoadResult> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxTracks)
+            .weigher((String key, LavalinkLoadResult result) -> Math.max(1, trackCount(result)))
+            .expireAfter(new Expiry<String, LavalinkLoadResult>() {
+                @Override
+                public long expireAfterCreate(String key, LavalinkLoadResult result, long currentTime) {
+                    return ttlNanos(key, result);
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, LavalinkLoadResult result, long currentTime, long currentDuration) {
+                    return ttlNanos(key, result);
+                }
+
+                @Override
+                public long expireAfterRead(String key, LavalinkLoadResult result, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("Load result cache initialized (max tracks: {}, search TTL: {}ms, URL TTL: {}ms, negative TTL: {}ms)",
+            maxTracks, searchTtlMs, urlTtlMs, negativeTtlMs);
+    }
+
+    /**
+     * Returns the cached load result for a query, or loads and caches it.
+     * The loader is handed the normalized cache key, so loads of queries sharing an entry can be coalesced on it.
+     *
+     * @param query  The processed query, as it is sent to Lavalink.
+     * @param loader Loads the result from Lavalink on a cache miss, given the cache key.
+     * @return A Mono that emits the load result.
+     */
+    public Mono<LavalinkLoadResult> get(String query, Function<String, Mono<LavalinkLoadResult>> loader) {
+        String key = normalize(query);
+        LavalinkLoadResult cached = cache.getIfPresent(key);
+        if (cached != null) {
+            log.debug("Load result cache hit for '{}'", key);
+            return Mono.just(cached);
+        }
+        return loader.apply(key)
+            .doOnNext(result -> {
+                if (isCacheable(result)) {
+                    cache.put(key, result);
+                }
+            });
+    }
+
+    /**
+     * Normalizes a processed query into a cache key.
+     * The search term of a search query is lower-cased and its whitespace collapsed; URLs are kept as they are,
+     * since their path and parameters are case-sensitive.
+     */
+    static String normalize(String query) {
+        String prefix = searchPrefix(query);
+        if (prefix == null) {
+            return query;
+        }
+        String term = WHITESPACE.matcher(query.substring(prefix.length()).trim()).replaceAll(" ");
+        return prefix + term.toLowerCase(Locale.ROOT);
+    }
+
+    private long ttlNanos(String key, LavalinkLoadResult result) {
+        long ttlMs;
+        if (trackCount(result) == 0) {
+            ttlMs = negativeTtlMs;
+        } else if (searchPrefix(key) != null) {
+            ttlMs = searchTtlMs;
+        } else {
+            ttlMs = urlTtlMs;
+        }
+        return ttlMs * 1_000_000L;
+    }
+
+    private static boolean isCacheable(LavalinkLoadResult result) {
+        return switch (result) {
+            case TrackLoaded ignored -> true;
+            case PlaylistLoaded ignored -> true;
+            case SearchResult ignored -> true;
+            case NoMatches ignored -> true;
+            case LoadFailed ignored -> true;
+            default -> false;
+        };
+    }
+
+    private static String searchPrefix(String query) {
+        for (String prefix : SEARCH_PREFIXES) {
+            if (query.startsWith(prefix)) {
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+    private static int trackCount(LavalinkLoadResult result) {
+        return switch (result) {
+            case TrackLoaded ignored -> 1;
+            case PlaylistLoaded playlistLoaded -> playlistLoaded.getTracks().size();
+            case SearchResult searchResult -> searchResult.getTracks().size();
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.gammatunes.component.lavalink.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Component for recording metrics related to routing track loads across Lavalink nodes.
+ * It uses Micrometer to time each request per node and operation, to report how many requests every node
+ * currently has in flight, and to count hedged requests.
+ */
+@Component
+public record NodeRoutingMetrics(MeterRegistry meterRegistry) {
+
+    /**
+     * Records a finished request.
+     *
+     * @param node      The name of the node that served the request.
+     * @param operation The kind of request, e.g. load or decode.
+     * @param outcome   How the request ended, e.g. success or error.
+     * @param duration  How long the request took.
+     */
+    public void recordRequest(String node, String operation, String outcome, Duration duration) {
+        meterRegistry.timer("bot.lavalink.node.requests", "node", node, "operation", operation, "outcome", outcome)
+            .record(duration);
+    }
+
+    /**
+     * Registers a gauge that reports the number of requests in flight on a node.
+     * The caller must keep a strong reference to the counter; Micrometer only holds it weakly.
+     *
+     * @param node     The name of the node.
+     * @param inFlight The counter holding the number of requests in flight.
+     */
+    public void registerInFlight(String node, AtomicInteger inFlight) {
+        meterRegistry.gauge("bot.lavalink.node.in_flight", Tags.of("node", node), inFlight);
+    }
+
+    /**
+     * Records a hedge request sent because the original request was slow.
+     *
+     * @param operation The kind of request.
+     */
+    public void recordHedgeIssued(String operation) {
+        meterRegistry.counter("bot.lavalink.node.hedges", "operation", operation, "outcome", "issued").increment();
+    }
+
+    /**
+     * Records a hedge request that returned before the original request.
+     *
+     * @param operation The kind of request.
+     */
+    public void recordHedgeWon(String operation) {
+        meterRegistry.counter("bot.lavalink.node.hedges", "operation", operation, "outcome", "won").increment();
+    }
+
+    /**
+     * Records a hedge request that was skipped because the hedge budget was used up.
+     *
+     * @param operation The kind of request.
+     */
+    public void recordHedgeDenied(String operation) {
+        meterRegistry.counter("bot.lavalink.node.hedges", "operation", operation, "outcome", "denied").increment();
+    }
+}
@@ -0,0 +1,162 @@
+package com.gammatunes.component.lavalink.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-flight execution of identical concurrent calls.
+ * While a call for a key is in flight, later callers with the same key subscribe to that call instead of starting
+ * their own. The flight is forgotten as soon as it terminates, so results are never kept beyond the call itself;
+ * failures are shared by the callers of that flight and the next caller starts a fresh one.
+ * <p>
+ * A flight belongs to none of its callers: it runs with only the guild of the caller that started it, not with
+ * that caller's whole context, and it is cancelled only once every caller has cancelled. Its resolution priority
+ * is shared by all callers, so a flight queued in the background is promoted when an interactive caller joins.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestCoalescer {
+
+    private final CoalescingMetrics coalescingMetrics;
+
+    private final Map<FlightKey, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the call, or joins an identical call that is already in flight.
+     *
+     * @param flight The name of the operation; keys of different operations never collide.
+     * @param key    The key identifying identical calls.
+     * @param call   Starts the call.
+     * @param copy   Copies the shared result for each caller, so callers may mutate what they receive.
+     * @return A Mono that emits the caller's copy of the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Mono<V> coalesce(String flight, String key, Supplier<Mono<V>> call, UnaryOperator<V> copy) {
+        return Mono.deferContextual(context -> {
+            FlightKey flightKey = new FlightKey(flight, key);
+            ResolutionPriority callerPriority = ResolutionContext.priority(context);
+            while (true) {
+                Flight<V> created = new Flight<>(callerPriority);
+                created.tryJoin();
+                Flight<V> existing = (Flight<V>) inFlight.putIfAbsent(flightKey, created);
+                if (existing == null) {
+                    coalescingMetrics.recordExecuted(flight);
+                    follow(context, created);
+                    created.start(call, ResolutionContext.shared(context, created.priority), () -> inFlight.remove(flightKey, created));
+                    return created.result(() -> inFlight.remove(flightKey, created)).map(copy);
+                }
+                if (existing.tryJoin()) {
+                    log.debug("Joining in-flight {} call for '{}'", flight, key);
+                    coalescingMetrics.recordSaved(flight);
+                    follow(context, existing);
+                    return existing.result(() -> inFlight.remove(flightKey, existing)).map(copy);
+                }
+                // every caller of that flight cancelled; it is being torn down, so start a fresh one
+                inFlight.remove(flightKey, existing);
+            }
+        });
+    }
+
+    /**
+     * Raises the flight to the caller's priority, including later promotions of a caller that is itself shared
+     * work, e.g. another flight.
+     */
+    private void follow(ContextView context, Flight<?> flight) {
+        ResolutionContext.sharedPriority(context).ifPresent(shared -> shared.onRaise(flight.priority::raise));
+        flight.priority.raise(ResolutionContext.priority(context));
+    }
+
+    /**
+     * One in-flight call and the callers waiting for it.
+     */
+    private static final class Flight<V> {
+
+        private final Sinks.One<V> result = Sinks.one();
+        private final SharedPriority priority;
+
+        /** number of callers that joined and have not cancelled; guarded by this */
+        private int callers;
+
+        /** whether the last caller cancelled and the call was cancelled with it; guarded by this */
+        private boolean closed;
+
+        /** the running call; guarded by this */
+        private Disposable upstream;
+
+        private Flight(ResolutionPriority priority) {
+            this.priority = new SharedPriority(priority);
+        }
+
+        /**
+         * Adds a caller unless the flight was already cancelled.
+         */
+        synchronized boolean tryJoin() {
+            if (closed) {
+                return false;
+            }
+            callers++;
+            return true;
+        }
+
+        /**
+         * Subscribes to the call detached from any caller, forgetting the flight before its result is published.
+         */
+        void start(Supplier<Mono<V>> call, Context context, Runnable forget) {
+            Disposable subscription = Mono.defer(call)
+                .contextWrite(context)
+                .subscribe(
+                    value -> {
+                        forget.run();
+                        result.tryEmitValue(value);
+                    },
+                    error -> {
+                        forget.run();
+                        result.tryEmitError(error);
+                    },
+                    () -> {
+                        forget.run();
+                        result.tryEmitEmpty();
+                    }
+                );
+            synchronized (this) {
+                upstream = subscription;
+            }
+        }
+
+        /**
+         * The result as seen by one caller; the call is cancelled when the last caller cancels.
+         */
+        Mono<V> result(Runnable forget) {
+            return result.asMono().doOnCancel(() -> leave(forget));
+        }
+
+        private void leave(Runnable forget) {
+            Disposable subscription;
+            synchronized (this) {
+                if (--callers > 0 || closed) {
+                    return;
+                }
+                closed = true;
+                subscription = upstream;
+            }
+            forget.run();
+            if (subscription != null) {
+                subscription.dispose();
+            }
+        }
+    }
+
+    private record FlightKey(String flight, String key) { }
+}
@@ -0,0 +1,60 @@
+package com.gammatunes.component.lavalink.search;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Optional;
+
+/**
+ * Attributes track resolutions to a guild and a priority through the Reactor context.
+ * Callers write the context around the Mono that ends up resolving a track; the {@link ResolutionScheduler} reads
+ * it when the Lavalink request is queued. Requests without a resolution context are treated as interactive
+ * requests of an unknown guild. Work shared by several callers carries a {@link SharedPriority} instead of a fixed
+ * priority, so it is promoted when a more urgent caller joins.
+ */
+public final class ResolutionContext {
+
+    /** guild ID used for requests that are not attributed to a guild */
+    public static final long UNATTRIBUTED_GUILD = 0L;
+
+    private static final String GUILD_KEY = ResolutionContext.class.getName() + ".guild";
+    private static final String PRIORITY_KEY = ResolutionContext.class.getName() + ".priority";
+    private static final String SHARED_PRIORITY_KEY = ResolutionContext.class.getName() + ".sharedPriority";
+
+    private ResolutionContext() {
+    }
+
+    public static Context interactive(long guildId) {
+        return of(guildId, ResolutionPriority.INTERACTIVE);
+    }
+
+    public static Context background(long guildId) {
+        return of(guildId, ResolutionPriority.BACKGROUND);
+    }
+
+    public static Context of(long guildId, ResolutionPriority priority) {
+        return Context.of(GUILD_KEY, guildId, PRIORITY_KEY, priority);
+    }
+
+    static long guildId(ContextView context) {
+        return context.getOrDefault(GUILD_KEY, UNATTRIBUTED_GUILD);
+    }
+
+    static ResolutionPriority priority(ContextView context) {
+        return sharedPriority(context)
+            .map(SharedPriority::get)
+            .orElseGet(() -> context.getOrDefault(PRIORITY_KEY, ResolutionPriority.INTERACTIVE));
+    }
+
+    static Optional<SharedPriority> sharedPriority(ContextView context) {
+        return context.getOrEmpty(SHARED_PRIORITY_KEY);
+    }
+
+    /**
+     * Builds the context of shared work: the guild of the context it was started from and the shared priority.
+     * Nothing else is copied, since the work outlives the subscriber it came from.
+     */
+    static Context shared(ContextView context, SharedPriority priority) {
+        return Context.of(GUILD_KEY, guildId(context), PRIORITY_KEY, priority.get(), SHARED_PRIORITY_KEY, priority);
+    }
+}
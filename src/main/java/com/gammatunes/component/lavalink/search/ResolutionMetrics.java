@@ -0,0 +1,47 @@
+package com.gammatunes.component.lavalink.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Component for recording metrics related to the resolution scheduler.
+ * It uses Micrometer to report how many resolutions are queued per priority, how long they waited for a slot and
+ * how many gave up waiting.
+ */
+@Component
+public record ResolutionMetrics(MeterRegistry meterRegistry) {
+
+    /**
+     * Registers a gauge that reports the number of queued resolutions of a priority.
+     * The caller must keep a strong reference to the counter; Micrometer only holds it weakly.
+     *
+     * @param priority The priority.
+     * @param depth    The counter holding the number of queued resolutions.
+     */
+    public void registerQueueDepth(ResolutionPriority priority, AtomicInteger depth) {
+        meterRegistry.gauge("bot.resolution.queue_depth", Tags.of("priority", priority.name().toLowerCase()), depth);
+    }
+
+    /**
+     * Records how long a resolution waited in the queue before it was started.
+     *
+     * @param priority The priority of the resolution.
+     * @param wait     The time spent queued.
+     */
+    public void recordWait(ResolutionPriority priority, Duration wait) {
+        meterRegistry.timer("bot.resolution.wait", "priority", priority.name().toLowerCase()).record(wait);
+    }
+
+    /**
+     * Records a resolution that timed out before it was started.
+     *
+     * @param priority The priority of the resolution.
+     */
+    public void recordTimeout(ResolutionPriority priority) {
+        meterRegistry.counter("bot.resolution.timeouts", "priority", priority.name().toLowerCase()).increment();
+    }
+}
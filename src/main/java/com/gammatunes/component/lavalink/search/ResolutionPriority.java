@@ -0,0 +1,14 @@
+package com.gammatunes.component.lavalink.search;
+
+/**
+ * The urgency of a track resolution.
+ * Constants are declared from most to least urgent.
+ */
+public enum ResolutionPriority {
+
+    /** a user is waiting for the result, e.g. the track that should start playing now */
+    INTERACTIVE,
+
+    /** the result is only needed later, e.g. filling the rest of a playlist */
+    BACKGROUND
+}
@@ -0,0 +1,363 @@
+package com.gammatunes.component.lavalink.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongToIntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for Lavalink track loads, shared fairly between guilds.
+ * Every load is queued under the guild and priority taken from its {@link ResolutionContext} and started once a
+ * slot is free. The number of running loads is bounded globally and by the per-node limit of the
+ * {@link SearchNodeRouter}, so a burst of loads waits here instead of piling up on the nodes.
+ * <p>
+ * Interactive loads are started before background loads, except that one background load is let through after a
+ * configurable streak of interactive ones so playlist fill never starves completely. A queued load whose shared
+ * priority is raised, e.g. because an interactive caller joined its coalesced flight, moves to the interactive
+ * queue. Within a priority, guilds take turns in weighted round-robin: each guild with queued loads may start as
+ * many loads as its weight before the next guild's turn. Guilds without a configured weight get the default
+ * quantum, so a guild importing a huge playlist delays another guild's loads by at most one turn per guild.
+ * <p>
+ * Loads that stay queued longer than the queue timeout fail with a {@link TimeoutException}. A periodic sweep
+ * expires them and also starts queued loads when node capacity comes back without a load finishing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResolutionScheduler {
+
+    private final SearchNodeRouter searchNodeRouter;
+    private final ResolutionMetrics resolutionMetrics;
+
+    @Value("${gamma.bot.resolution.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Value("${gamma.bot.resolution.guild-quantum:1}")
+    private int guildQuantum;
+
+    /** per-guild round-robin weights as {@code <guildId>=<weight>} entries */
+    @Value("${gamma.bot.resolution.guild-weights:}")
+    private String[] guildWeightEntries;
+
+    @Value("${gamma.bot.resolution.interactive-burst:8}")
+    private int interactiveBurst;
+
+    @Value("${gamma.bot.resolution.queue-timeout-ms:30000}")
+    private long queueTimeoutMs;
+
+    private final Object lock = new Object();
+    private final Map<ResolutionPriority, Lane> lanes = new EnumMap<>(ResolutionPriority.class);
+    private final Map<Long, Integer> guildWeights = new HashMap<>();
+
+    /** number of loads currently running; guarded by lock */
+    private int running;
+
+    /** number of interactive loads started since the last background load; guarded by lock */
+    private int interactiveStreak;
+
+    @PostConstruct
+    void init() {
+        for (String entry : guildWeightEntries) {
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid guild weight '" + entry + "', expected <guildId>=<weight>");
+            }
+            guildWeights.put(Long.parseLong(parts[0].trim()), Math.max(1, Integer.parseInt(parts[1].trim())));
+        }
+        for (ResolutionPriority priority : ResolutionPriority.values()) {
+            Lane lane = new Lane();
+            lanes.put(priority, lane);
+            resolutionMetrics.registerQueueDepth(priority, lane.depth);
+        }
+    }
+
+    /**
+     * Queues a load and runs it once it is admitted.
+     * The guild and priority are read from the subscriber's {@link ResolutionContext}. Cancelling the returned
+     * Mono removes a queued load or cancels a running one.
+     *
+     * @param load Starts the load.
+     * @return A Mono that emits the result of the load.
+     */
+    public <T> Mono<T> submit(Supplier<Mono<T>> load) {
+        return Mono.deferContextual(context -> Mono.<T>create(sink -> {
+            Task<T> task = new Task<>(ResolutionContext.guildId(context), load, sink);
+            sink.onCancel(() -> cancel(task));
+            // listen before reading the priority, so a raise in between is not missed
+            ResolutionContext.sharedPriority(context).ifPresent(shared -> shared.onRaise(priority -> promote(task, priority)));
+            synchronized (lock) {
+                task.priority = ResolutionContext.priority(context);
+                lanes.get(task.priority).offer(task);
+            }
+            drain();
+        }));
+    }
+
+    /**
+     * Fails loads that have been queued for longer than the queue timeout and starts queued loads if slots are
+     * free, e.g. because a node came back.
+     */
+    @Scheduled(fixedDelayString = "${gamma.bot.resolution.sweep-interval-ms:1000}")
+    void sweep() {
+        long now = System.nanoTime();
+        long timeoutNanos = Duration.ofMillis(queueTimeoutMs).toNanos();
+        List<Task<?>> expired = new ArrayList<>();
+        synchronized (lock) {
+            lanes.values().forEach(lane -> lane.removeIf(task -> now - task.queuedAt >= timeoutNanos, expired));
+        }
+        expired.forEach(task -> {
+            log.debug("Resolution for guild {} expired after {} ms in the {} queue", task.guildId, queueTimeoutMs, task.priority);
+            resolutionMetrics.recordTimeout(task.priority);
+            task.expire(queueTimeoutMs);
+        });
+        drain();
+    }
+
+    /**
+     * Starts queued loads while slots are free.
+     */
+    private void drain() {
+        List<Task<?>> admitted = new ArrayList<>();
+        synchronized (lock) {
+            int limit = Math.min(maxConcurrency, searchNodeRouter.capacity());
+            while (running < limit) {
+                Task<?> task = next();
+                if (task == null) {
+                    break;
+                }
+                running++;
+                admitted.add(task);
+            }
+        }
+        admitted.forEach(task -> {
+            resolutionMetrics.recordWait(task.priority, Duration.ofNanos(System.nanoTime() - task.queuedAt));
+            task.start(this::release);
+        });
+    }
+
+    private void release() {
+        synchronized (lock) {
+            running--;
+        }
+        drain();
+    }
+
+    /**
+     * Moves a queued task to a more urgent lane; a task that has already started keeps running as it is.
+     */
+    private void promote(Task<?> task, ResolutionPriority priority) {
+        synchronized (lock) {
+            if (priority.compareTo(task.priority) >= 0 || !lanes.get(task.priority).remove(task)) {
+                return;
+            }
+            task.priority = priority;
+            lanes.get(priority).offer(task);
+        }
+        drain();
+    }
+
+    private void cancel(Task<?> task) {
+        task.cancel();
+        synchronized (lock) {
+            if (task.priority != null) {
+                lanes.get(task.priority).remove(task);
+            }
+        }
+    }
+
+    private int weightOf(long guildId) {
+        return guildWeights.getOrDefault(guildId, guildQuantum);
+    }
+
+    /**
+     * Picks the next task to start; must be called while holding the lock.
+     */
+    private Task<?> next() {
+        Lane interactive = lanes.get(ResolutionPriority.INTERACTIVE);
+        Lane background = lanes.get(ResolutionPriority.BACKGROUND);
+
+        if (interactiveStreak < interactiveBurst || background.isEmpty()) {
+            Task<?> task = interactive.poll(this::weightOf);
+            if (task != null) {
+                interactiveStreak++;
+                return task;
+            }
+        }
+        Task<?> task = background.poll(this::weightOf);
+        if (task != null) {
+            interactiveStreak = 0;
+            return task;
+        }
+        return interactive.poll(this::weightOf);
+    }
+
+    /**
+     * The queued tasks of one priority, with one queue per guild served in weighted round-robin.
+     * Not thread-safe; guarded by the scheduler's lock.
+     */
+    private static final class Lane {
+
+        private final Map<Long, Deque<Task<?>>> queues = new HashMap<>();
+        private final Deque<Long> turns = new ArrayDeque<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private int servedThisTurn;
+
+        void offer(Task<?> task) {
+            queues.computeIfAbsent(task.guildId, guildId -> {
+                turns.addLast(guildId);
+                return new ArrayDeque<>();
+            }).addLast(task);
+            depth.incrementAndGet();
+        }
+
+        boolean isEmpty() {
+            return turns.isEmpty();
+        }
+
+        /**
+         * Takes the next task that has not been cancelled, moving on to the next guild once the current guild has
+         * used up its weight or has nothing left.
+         */
+        Task<?> poll(LongToIntFunction weightOf) {
+            while (!turns.isEmpty()) {
+                long guildId = turns.peekFirst();
+                Deque<Task<?>> queue = queues.get(guildId);
+                Task<?> task = queue.pollFirst();
+                depth.decrementAndGet();
+                servedThisTurn++;
+
+                if (queue.isEmpty()) {
+                    dropGuild(guildId);
+                } else if (servedThisTurn >= weightOf.applyAsInt(guildId)) {
+                    turns.addLast(turns.pollFirst());
+                    servedThisTurn = 0;
+                }
+
+                if (!task.isCancelled()) {
+                    return task;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Removes a queued task.
+         *
+         * @return false if the task is not queued in this lane.
+         */
+        boolean remove(Task<?> task) {
+            Deque<Task<?>> queue = queues.get(task.guildId);
+            if (queue == null || !queue.remove(task)) {
+                return false;
+            }
+            depth.decrementAndGet();
+            if (queue.isEmpty()) {
+                dropGuild(task.guildId);
+            }
+            return true;
+        }
+
+        /**
+         * Removes all queued tasks matching the filter, adding them to the removed list.
+         */
+        void removeIf(Predicate<Task<?>> filter, List<Task<?>> removed) {
+            Iterator<Map.Entry<Long, Deque<Task<?>>>> guilds = queues.entrySet().iterator();
+            while (guilds.hasNext()) {
+                Map.Entry<Long, Deque<Task<?>>> guild = guilds.next();
+                guild.getValue().removeIf(task -> {
+                    if (!filter.test(task)) {
+                        return false;
+                    }
+                    removed.add(task);
+                    depth.decrementAndGet();
+                    return true;
+                });
+                if (guild.getValue().isEmpty()) {
+                    guilds.remove();
+                    dropTurn(guild.getKey());
+                }
+            }
+        }
+
+        private void dropGuild(long guildId) {
+            queues.remove(guildId);
+            dropTurn(guildId);
+        }
+
+        private void dropTurn(long guildId) {
+            Long current = turns.peekFirst();
+            if (current != null && current == guildId) {
+                turns.pollFirst();
+                servedThisTurn = 0;
+            } else {
+                turns.remove(guildId);
+            }
+        }
+    }
+
+    private static final class Task<T> {
+
+        private final long guildId;
+        private final Supplier<Mono<T>> load;
+        private final MonoSink<T> sink;
+        private final long queuedAt = System.nanoTime();
+
+        /** the lane the task is queued in; guarded by the scheduler's lock */
+        private ResolutionPriority priority;
+
+        private volatile boolean cancelled;
+        private volatile Disposable running;
+
+        private Task(long guildId, Supplier<Mono<T>> load, MonoSink<T> sink) {
+            this.guildId = guildId;
+            this.load = load;
+            this.sink = sink;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        void start(Runnable onDone) {
+            running = Mono.defer(load)
+                .doFinally(ignored -> onDone.run())
+                .subscribe(sink::success, sink::error, sink::success);
+            if (cancelled) {
+                running.dispose();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Disposable current = running;
+            if (current != null) {
+                current.dispose();
+            }
+        }
+
+        void expire(long queueTimeoutMs) {
+            cancelled = true;
+            sink.error(new TimeoutException("Resolution was queued for longer than " + queueTimeoutMs + " ms"));
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.gammatunes.component.lavalink.search;
+
+import com.gammatunes.config.LavalinkConfig;
+import dev.arbjerg.lavalink.client.LavalinkClient;
+import dev.arbjerg.lavalink.client.LavalinkNode;
+import dev.arbjerg.lavalink.client.event.StatsEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Picks the Lavalink node that serves a track load or decode request.
+ * Unavailable nodes are skipped. If any node is marked as dedicated to search, only those nodes are considered
+ * while at least one of them is available; otherwise every available node is.
+ * <p>
+ * Among the candidates, the node with the lowest cost wins. The cost combines the node's last reported CPU load and
+ * playing players from its {@link StatsEvent}s with the number of requests this router currently has in flight on
+ * it, which reacts to bursts long before the next stats report arrives. Nodes that already have the maximum number
+ * of requests in flight are only used if every candidate is at its limit.
+ * <p>
+ * {@link #routeHedged} additionally sends a duplicate request to the next cheapest node when the first one has not
+ * answered within a configurable percentile of recent latencies. Whichever answers first wins and the other request
+ * is cancelled. Latencies are measured from the first request sent until the first answer, so a slow primary that
+ * lost to its hedge still counts with the time it kept the caller waiting. Hedges are paid for from a budget that grows with every routed request, which caps them at a fixed
+ * share of the traffic even when a node is slow for everyone.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchNodeRouter {
+
+    private static final int LATENCY_WINDOW_SIZE = 256;
+
+    private final LavalinkClient lavalinkClient;
+    private final LavalinkConfig lavalinkConfig;
+    private final NodeRoutingMetrics nodeRoutingMetrics;
+
+    @Value("${gamma.bot.search-routing.in-flight-weight:5}")
+    private double inFlightWeight;
+
+    @Value("${gamma.bot.search-routing.cpu-weight:100}")
+    private double cpuWeight;
+
+    @Value("${gamma.bot.search-routing.player-weight:1}")
+    private double playerWeight;
+
+    @Value("${gamma.bot.search-routing.max-in-flight-per-node:4}")
+    private int maxInFlightPerNode;
+
+    @Value("${gamma.bot.search-routing.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+
+    @Value("${gamma.bot.search-routing.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${gamma.bot.search-routing.hedge.default-delay-ms:1000}")
+    private long hedgeDefaultDelayMs;
+
+    @Value("${gamma.bot.search-routing.hedge.min-delay-ms:150}")
+    private long hedgeMinDelayMs;
+
+    @Value("${gamma.bot.search-routing.hedge.min-samples:20}")
+    private int hedgeMinSamples;
+
+    /** hedges earned per routed request, i.e. the maximum share of hedged requests */
+    @Value("${gamma.bot.search-routing.hedge.budget-ratio:0.1}")
+    private double hedgeBudgetRatio;
+
+    @Value("${gamma.bot.search-routing.hedge.max-burst:10}")
+    private double hedgeMaxBurst;
+
+    /** last stats reported per node name */
+    private final Map<String, NodeLoad> loads = new ConcurrentHashMap<>();
+
+    /** requests in flight per node name */
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /** recent latencies per operation, from the first request sent until the first successful answer */
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    private final Object hedgeBudgetLock = new Object();
+    private double hedgeBudget;
+
+    private Set<String> searchNodes;
+
+    @PostConstruct
+    void init() {
+        searchNodes = lavalinkConfig.getNodes().stream()
+            .filter(LavalinkConfig.Node::isDedicatedToSearch)
+            .map(LavalinkConfig.Node::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+        lavalinkClient.on(StatsEvent.class).subscribe(
+            event -> loads.put(event.getNode().getName(), new NodeLoad(event.getCpu().getLavalinkLoad(), event.getPlayingPlayers())),
+            error -> log.error("Stats subscription for search routing failed", error)
+        );
+
+        log.info("Search node router initialized (dedicated search nodes: {})", searchNodes.isEmpty() ? "none" : searchNodes);
+    }
+
+    /**
+     * Runs a request on the least loaded eligible node.
+     *
+     * @param operation The kind of request, used for metrics.
+     * @param request   Sends the request to the given node.
+     * @return A Mono that emits the result of the request.
+     */
+    public <T> Mono<T> route(String operation, Function<LavalinkNode, Mono<T>> request) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return send(select(), operation, request)
+                .doOnSuccess(ignored -> recordLatency(operation, startedAt));
+        });
+    }
+
+    /**
+     * Runs a request on the least loaded eligible node and hedges it on a second node if it is slow.
+     * The hedge is only sent if another eligible node is available and the hedge budget allows it. The request
+     * fails only once every request that was sent has failed.
+     *
+     * @param operation The kind of request, used for metrics and latency tracking.
+     * @param request   Sends the request to the given node; it may be called twice.
+     * @return A Mono that emits the first result.
+     */
+    public <T> Mono<T> routeHedged(String operation, Function<LavalinkNode, Mono<T>> request) {
+        if (!hedgeEnabled) {
+            return route(operation, request);
+        }
+        return Mono.defer(() -> {
+            LavalinkNode primary = select();
+            depositHedgeBudget();
+            long startedAt = System.nanoTime();
+
+            AtomicBoolean hedged = new AtomicBoolean();
+            AtomicInteger failures = new AtomicInteger();
+            Function<Throwable, Mono<T>> onFailure = error ->
+                failures.incrementAndGet() >= (hedged.get() ? 2 : 1) ? Mono.error(error) : Mono.never();
+
+            Mono<T> original = send(primary, operation, request)
+                .onErrorResume(onFailure);
+
+            Mono<T> hedge = Mono.delay(hedgeDelay(operation))
+                .flatMap(ignored -> {
+                    Optional<LavalinkNode> alternative = selectOther(primary);
+                    if (alternative.isEmpty()) {
+                        return Mono.never();
+                    }
+                    if (!withdrawHedgeBudget()) {
+                        nodeRoutingMetrics.recordHedgeDenied(operation);
+                        return Mono.never();
+                    }
+                    hedged.set(true);
+                    nodeRoutingMetrics.recordHedgeIssued(operation);
+                    log.debug("Hedging slow {} request from node '{}' to '{}'",
+                        operation, primary.getName(), alternative.get().getName());
+                    return send(alternative.get(), operation, request)
+                        .doOnNext(result -> nodeRoutingMetrics.recordHedgeWon(operation))
+                        .onErrorResume(onFailure);
+                });
+
+            return Mono.firstWithSignal(original, hedge)
+                .doOnSuccess(ignored -> recordLatency(operation, startedAt));
+        });
+    }
+
+    /**
+     * Returns how many requests the eligible nodes accept in flight together.
+     *
+     * @return The combined per-node limit of the eligible nodes, at least the limit of a single node.
+     */
+    public int capacity() {
+        return Math.max(1, candidates().size()) * maxInFlightPerNode;
+    }
+
+    private <T> Mono<T> send(LavalinkNode node, String operation, Function<LavalinkNode, Mono<T>> request) {
+        String name = node.getName();
+        AtomicInteger counter = inFlightCounter(name);
+        counter.incrementAndGet();
+        long startedAt = System.nanoTime();
+
+        return request.apply(node)
+            .doOnSuccess(ignored -> record(name, operation, "success", startedAt))
+            .doOnError(ignored -> record(name, operation, "error", startedAt))
+            .doOnCancel(() -> record(name, operation, "cancelled", startedAt))
+            .doFinally(ignored -> counter.decrementAndGet());
+    }
+
+    /**
+     * Selects the cheapest eligible node, falling back to the first node if none is available, so the request
+     * fails with the client's own error.
+     */
+    private LavalinkNode select() {
+        List<LavalinkNode> candidates = candidates();
+        if (candidates.isEmpty()) {
+            return lavalinkClient.getNodes().getFirst();
+        }
+        List<LavalinkNode> belowLimit = candidates.stream()
+            .filter(node -> inFlightCounter(node.getName()).get() < maxInFlightPerNode)
+            .toList();
+        return (belowLimit.isEmpty() ? candidates : belowLimit).stream()
+            .min(Comparator.comparingDouble(this::cost))
+            .orElseThrow();
+    }
+
+    /**
+     * Selects the cheapest eligible node other than the given one.
+     */
+    private Optional<LavalinkNode> selectOther(LavalinkNode excluded) {
+        return candidates().stream()
+            .filter(node -> !node.getName().equals(excluded.getName()))
+            .min(Comparator.comparingDouble(this::cost));
+    }
+
+    private List<LavalinkNode> candidates() {
+        List<LavalinkNode> available = lavalinkClient.getNodes().stream()
+            .filter(LavalinkNode::getAvailable)
+            .toList();
+        List<LavalinkNode> dedicated = available.stream()
+            .filter(node -> searchNodes.contains(node.getName()))
+            .toList();
+        return dedicated.isEmpty() ? available : dedicated;
+    }
+
+    /**
+     * Returns how long to wait before hedging: the configured percentile of recent latencies, or the default delay
+     * while too few latencies are known.
+     */
+    private Duration hedgeDelay(String operation) {
+        long percentileMs = latencyWindow(operation).percentile(hedgePercentile, hedgeMinSamples);
+        long delayMs = percentileMs < 0 ? hedgeDefaultDelayMs : Math.max(hedgeMinDelayMs, percentileMs);
+        return Duration.ofMillis(delayMs);
+    }
+
+    private void depositHedgeBudget() {
+        synchronized (hedgeBudgetLock) {
+            hedgeBudget = Math.min(hedgeMaxBurst, hedgeBudget + hedgeBudgetRatio);
+        }
+    }
+
+    private boolean withdrawHedgeBudget() {
+        synchronized (hedgeBudgetLock) {
+            if (hedgeBudget < 1) {
+                return false;
+            }
+            hedgeBudget -= 1;
+            return true;
+        }
+    }
+
+    private LatencyWindow latencyWindow(String operation) {
+        return latencies.computeIfAbsent(operation, ignored -> new LatencyWindow(LATENCY_WINDOW_SIZE));
+    }
+
+    private double cost(LavalinkNode node) {
+        NodeLoad load = loads.getOrDefault(node.getName(), NodeLoad.UNKNOWN);
+        return load.cpuLoad() * cpuWeight
+            + load.playingPlayers() * playerWeight
+            + inFlightCounter(node.getName()).get() * inFlightWeight;
+    }
+
+    private AtomicInteger inFlightCounter(String node) {
+        return inFlight.computeIfAbsent(node, name -> {
+            AtomicInteger counter = new AtomicInteger();
+            nodeRoutingMetrics.registerInFlight(name, counter);
+            return counter;
+        });
+    }
+
+    private void recordLatency(String operation, long startedAt) {
+        latencyWindow(operation).record(Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+    }
+
+    private void record(String node, String operation, String outcome, long startedAt) {
+        nodeRoutingMetrics.recordRequest(node, operation, outcome, Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+
+    private record NodeLoad(double cpuLoad, int playingPlayers) {
+        private static final NodeLoad UNKNOWN = new NodeLoad(0, 0);
+    }
+}
@@ -0,0 +1,46 @@
+package com.gammatunes.component.lavalink.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The priority of work shared by several callers, e.g. a coalesced flight.
+ * It starts at the priority of the caller that started the work and is raised whenever a more urgent caller
+ * joins; it is never lowered. Work queued on behalf of the callers listens for raises to move up its queue.
+ */
+final class SharedPriority {
+
+    private final List<Consumer<ResolutionPriority>> listeners = new ArrayList<>();
+    private ResolutionPriority priority;
+
+    SharedPriority(ResolutionPriority priority) {
+        this.priority = priority;
+    }
+
+    synchronized ResolutionPriority get() {
+        return priority;
+    }
+
+    /**
+     * Raises the priority if the candidate is more urgent, notifying the listeners outside the lock.
+     */
+    void raise(ResolutionPriority candidate) {
+        List<Consumer<ResolutionPriority>> notify;
+        synchronized (this) {
+            if (candidate.compareTo(priority) >= 0) {
+                return;
+            }
+            priority = candidate;
+            notify = List.copyOf(listeners);
+        }
+        notify.forEach(listener -> listener.accept(candidate));
+    }
+
+    /**
+     * Registers a listener for later raises; read {@link #get()} after registering to not miss one.
+     */
+    synchronized void onRaise(Consumer<ResolutionPriority> listener) {
+        listeners.add(listener);
+    }
+}
@@ -1,18 +1,22 @@
 package com.gammatunes.component.spotify.control;
 
+import com.gammatunes.component.guild.GuildContext;
+import com.gammatunes.component.guild.GuildContexts;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
+@RequiredArgsConstructor
 public class SpotifyControlPlaybackStateStore {
 
-    private final ConcurrentHashMap<Long, SpotifyControlPlaybackState> statesByGuildId = new ConcurrentHashMap<>();
+    private final GuildContexts guildContexts;
 
     public Optional<SpotifyControlPlaybackState> get(long guildId) {
-        return Optional.ofNullable(statesByGuildId.get(guildId));
+        GuildContext context = guildContexts.get(guildId);
+        return context == null ? Optional.empty() : Optional.ofNullable(context.getSpotifyPlaybackState());
     }
 
     public SpotifyControlPlaybackState save(long guildId, String lastSpotifyTrackId, boolean playing) {
@@ -22,11 +26,36 @@ public class SpotifyControlPlaybackStateStore {
             playing,
             Instant.now()
         );
-        statesByGuildId.put(guildId, state);
+        guildContexts.update(guildId, context -> context.setSpotifyPlaybackState(state));
         return state;
     }
 
     public Optional<SpotifyControlPlaybackState> clear(long guildId) {
-        return Optional.ofNullable(statesByGuildId.remove(guildId));
+        GuildContext context = guildContexts.get(guildId);
+        if (context == null) {
+            return Optional.empty();
+        }
+        SpotifyControlPlaybackState previous = context.getSpotifyPlaybackState();
+        context.setSpotifyPlaybackState(null);
+        guildContexts.evictIfUnused(guildId);
+        return Optional.ofNullable(previous);
+    }
+
+    /**
+     * Marks a playback sync of the guild as running.
+     *
+     * @param guildId The ID of the guild.
+     * @return true if no sync was running for the guild yet; the caller must then call {@link #endSync}.
+     */
+    public boolean tryBeginSync(long guildId) {
+        return guildContexts.compute(guildId, GuildContext::tryBeginSpotifySync);
+    }
+
+    public void endSync(long guildId) {
+        GuildContext context = guildContexts.get(guildId);
+        if (context != null) {
+            context.endSpotifySync();
+            guildContexts.evictIfUnused(guildId);
+        }
     }
 }
@@ -2,6 +2,8 @@ package com.gammatunes.component.spotify.control;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gammatunes.component.guild.GuildContext;
+import com.gammatunes.component.guild.GuildContexts;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -9,12 +11,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
@@ -25,11 +27,12 @@ public class SpotifyControlSessionStore {
     };
 
     private final ObjectMapper objectMapper;
-    private final ConcurrentHashMap<Long, SpotifyControlSession> sessionsByGuildId = new ConcurrentHashMap<>();
+    private final GuildContexts guildContexts;
 
-    public SpotifyControlSessionStore(ObjectMapper objectMapper) {
+    public SpotifyControlSessionStore(ObjectMapper objectMapper, GuildContexts guildContexts) {
         this.objectMapper = objectMapper;
-        this.sessionsByGuildId.putAll(loadSessions());
+        this.guildContexts = guildContexts;
+        loadSessions().forEach((guildId, session) -> guildContexts.update(guildId, context -> context.setSpotifyControlSession(session)));
     }
 
     public synchronized SpotifyControlSession startControl(
@@ -52,13 +55,13 @@ public class SpotifyControlSessionStore {
             originallyPlaying,
             false
         );
-        sessionsByGuildId.put(guildId, session);
+        guildContexts.update(guildId, context -> context.setSpotifyControlSession(session));
         writeSessions();
         return session;
     }
 
     public synchronized SpotifyControlSession markResumedByControlStart(SpotifyControlSession session) {
-        SpotifyControlSession current = sessionsByGuildId.get(session.guildId());
+        SpotifyControlSession current = getControlSession(session.guildId()).orElse(null);
         if (!session.equals(current)) {
             return session;
         }
@@ -74,34 +77,51 @@ public class SpotifyControlSessionStore {
             session.originallyPlaying(),
             true
         );
-        sessionsByGuildId.put(updated.guildId(), updated);
+        guildContexts.update(updated.guildId(), context -> context.setSpotifyControlSession(updated));
         writeSessions();
         return updated;
     }
 
     public Optional<SpotifyControlSession> getControlSession(long guildId) {
-        return Optional.ofNullable(sessionsByGuildId.get(guildId));
+        GuildContext context = guildContexts.get(guildId);
+        return context == null ? Optional.empty() : Optional.ofNullable(context.getSpotifyControlSession());
     }
 
     public boolean isControlled(long guildId) {
-        return sessionsByGuildId.containsKey(guildId);
+        return getControlSession(guildId).isPresent();
     }
 
     public Collection<SpotifyControlSession> getControlSessions() {
-        return List.copyOf(sessionsByGuildId.values());
+        List<SpotifyControlSession> sessions = new ArrayList<>();
+        for (GuildContext context : guildContexts.all()) {
+            SpotifyControlSession session = context.getSpotifyControlSession();
+            if (session != null) sessions.add(session);
+        }
+        return sessions;
     }
 
     public synchronized void clearAll() {
-        sessionsByGuildId.clear();
+        for (SpotifyControlSession session : getControlSessions()) {
+            remove(session.guildId());
+        }
         writeSessions();
     }
 
     public synchronized void clear(SpotifyControlSession session) {
-        if (sessionsByGuildId.remove(session.guildId(), session)) {
+        if (session.equals(getControlSession(session.guildId()).orElse(null))) {
+            remove(session.guildId());
             writeSessions();
         }
     }
 
+    private void remove(long guildId) {
+        GuildContext context = guildContexts.get(guildId);
+        if (context != null) {
+            context.setSpotifyControlSession(null);
+            guildContexts.evictIfUnused(guildId);
+        }
+    }
+
     private Map<Long, SpotifyControlSession> loadSessions() {
         if (!Files.exists(SESSION_STORE_PATH)) {
             return new HashMap<>();
@@ -115,6 +135,8 @@ public class SpotifyControlSessionStore {
     }
 
     private void writeSessions() {
+        Map<Long, SpotifyControlSession> sessionsByGuildId = new HashMap<>();
+        getControlSessions().forEach(session -> sessionsByGuildId.put(session.guildId(), session));
         try {
             Files.createDirectories(SESSION_STORE_PATH.getParent());
             objectMapper.writerWithDefaultPrettyPrinter().writeValue(SESSION_STORE_PATH.toFile(), sessionsByGuildId);
@@ -0,0 +1,47 @@
+package com.gammatunes.component.spotify.match;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A Spotify track together with the Lavalink track it was matched to.
+ * The Lavalink track is stored in its encoded form, so it can be decoded again without repeating the search.
+ */
+@Entity
+@Table(
+    name = "spotify_track_match",
+    indexes = @Index(name = "idx_spotify_track_match_isrc", columnList = "isrc")
+)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class SpotifyTrackMatch {
+
+    @Id
+    @Column(name = "spotify_track_id", length = 64)
+    private String spotifyTrackId;
+
+    @Column(name = "isrc", length = 16)
+    private String isrc;
+
+    @Column(name = "encoded_track", nullable = false, columnDefinition = "text")
+    private String encodedTrack;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "author")
+    private String author;
+
+    @Column(name = "matched_at", nullable = false)
+    private Instant matchedAt;
+}
@@ -0,0 +1,170 @@
+package com.gammatunes.component.spotify.match;
+
+import com.gammatunes.service.TrackQueryService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.arbjerg.lavalink.client.player.Track;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Durable index of the Lavalink tracks that Spotify tracks were matched to.
+ * Matches are kept in the database, keyed by Spotify track id and searchable by ISRC, so they survive restarts.
+ * Recently used matches are also kept decoded in memory, so repeat lookups do not touch the database or Lavalink.
+ * <p>
+ * Spotify tracks that could not be matched are remembered in memory for a short time, so callers can skip them
+ * instead of searching again, e.g. when the same playlist is replayed.
+ * <p>
+ * Decoding a stored track does not contact its source, so a matched video that was removed or region-locked later
+ * still decodes fine. Every track handed out is therefore remembered by its identifier, and a track that fails to
+ * play is {@linkplain #invalidate invalidated}: its match is forgotten, and the next resolution searches again.
+ * <p>
+ * Lookups never fail: a database or decoding error is logged and reported as a miss, so the caller falls back to
+ * searching.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SpotifyTrackMatchIndex {
+
+    private final SpotifyTrackMatchRepository spotifyTrackMatchRepository;
+    private final TrackQueryService trackQueryService;
+
+    @Value("${gamma.spotify.match.front-cache-size:10000}")
+    private long frontCacheSize;
+
+    @Value("${gamma.spotify.match.negative-ttl-ms:600000}")
+    private long negativeTtlMs;
+
+    private Cache<String, Track> frontCache;
+    private Cache<String, Boolean> unmatched;
+    /** Spotify track id of the stored match, keyed by the identifier of the Lavalink track it was matched to */
+    private Cache<String, String> matchedBy;
+
+    @PostConstruct
+    void init() {
+        frontCache = Caffeine.newBuilder()
+            .maximumSize(frontCacheSize)
+            .build();
+        unmatched = Caffeine.newBuilder()
+            .maximumSize(frontCacheSize)
+            .expireAfterWrite(Duration.ofMillis(negativeTtlMs))
+            .build();
+        matchedBy = Caffeine.newBuilder()
+            .maximumSize(frontCacheSize)
+            .build();
+    }
+
+    /**
+     * Looks up the Lavalink track a Spotify track was matched to.
+     * The Spotify track id is tried first, then the ISRC, which also finds matches recorded for another release
+     * of the same recording.
+     *
+     * @param spotifyTrackId The Spotify track id.
+     * @param isrc           The track's ISRC, if known.
+     * @return A Mono emitting a fresh clone of the matched track, or empty if there is no match.
+     */
+    public Mono<Track> find(String spotifyTrackId, Optional<String> isrc) {
+        Track cached = frontCache.getIfPresent(spotifyTrackId);
+        if (cached != null) {
+            return Mono.just(cached.makeClone());
+        }
+
+        return Mono.fromCallable(() -> spotifyTrackMatchRepository.findById(spotifyTrackId)
+                .or(() -> isrc.flatMap(spotifyTrackMatchRepository::findFirstByIsrc)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(Mono::justOrEmpty)
+            .flatMap(match -> trackQueryService.decode(match.getEncodedTrack())
+                .doOnNext(track -> matchedBy.put(track.getInfo().getIdentifier(), match.getSpotifyTrackId())))
+            .doOnNext(track -> {
+                log.debug("Spotify match index hit for {}", spotifyTrackId);
+                frontCache.put(spotifyTrackId, track);
+            })
+            .map(Track::makeClone)
+            .onErrorResume(error -> {
+                log.warn("Spotify match lookup failed for {}: {}", spotifyTrackId, error.toString());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Records the Lavalink track a Spotify track was matched to.
+     * The match is available in memory right away and written to the database in the background.
+     *
+     * @param spotifyTrackId The Spotify track id.
+     * @param isrc           The track's ISRC, if known.
+     * @param track          The matched track; it is cloned, so the caller may keep mutating it.
+     */
+    public void record(String spotifyTrackId, Optional<String> isrc, Track track) {
+        Track stored = track.makeClone();
+        unmatched.invalidate(spotifyTrackId);
+        frontCache.put(spotifyTrackId, stored);
+        matchedBy.put(stored.getInfo().getIdentifier(), spotifyTrackId);
+
+        SpotifyTrackMatch match = new SpotifyTrackMatch(
+            spotifyTrackId,
+            isrc.orElse(null),
+            stored.getEncoded(),
+            stored.getInfo().getTitle(),
+            stored.getInfo().getAuthor(),
+            Instant.now()
+        );
+        Mono.fromRunnable(() -> spotifyTrackMatchRepository.save(match))
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe(
+                ignored -> { },
+                error -> log.warn("Failed to store Spotify match for {}: {}", spotifyTrackId, error.toString())
+            );
+    }
+
+    /**
+     * Forgets the match of a Lavalink track that failed to play, in memory and in the database.
+     * Tracks that were not handed out by this index are ignored.
+     *
+     * @param track The track that failed.
+     */
+    public void invalidate(Track track) {
+        String identifier = track.getInfo().getIdentifier();
+        String spotifyTrackId = matchedBy.asMap().remove(identifier);
+        if (spotifyTrackId == null) {
+            return;
+        }
+        log.info("Forgetting Spotify match {} -> {} after it failed to play", spotifyTrackId, identifier);
+        frontCache.asMap().values().removeIf(cached -> identifier.equals(cached.getInfo().getIdentifier()));
+
+        Mono.fromRunnable(() -> spotifyTrackMatchRepository.deleteById(spotifyTrackId))
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe(
+                ignored -> { },
+                error -> log.warn("Failed to delete Spotify match for {}: {}", spotifyTrackId, error.toString())
+            );
+    }
+
+    /**
+     * Remembers that a Spotify track could not be matched.
+     *
+     * @param spotifyTrackId The Spotify track id.
+     */
+    public void recordUnmatched(String spotifyTrackId) {
+        unmatched.put(spotifyTrackId, Boolean.TRUE);
+    }
+
+    /**
+     * Checks whether a Spotify track recently failed to match.
+     *
+     * @param spotifyTrackId The Spotify track id.
+     * @return true if the track should be skipped, false otherwise.
+     */
+    public boolean isKnownUnmatched(String spotifyTrackId) {
+        return unmatched.getIfPresent(spotifyTrackId) != null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.gammatunes.component.spotify.match;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface SpotifyTrackMatchRepository extends JpaRepository<SpotifyTrackMatch, String> {
+
+    Optional<SpotifyTrackMatch> findFirstByIsrc(String isrc);
+}
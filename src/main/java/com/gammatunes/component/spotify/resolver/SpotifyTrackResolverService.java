@@ -1,61 +1,146 @@
 package com.gammatunes.component.spotify.resolver;
 
+import com.gammatunes.component.audio.queue.QueueEntry;
+import com.gammatunes.component.audio.queue.QueueEntryBatch;
+import com.gammatunes.component.lavalink.search.RequestCoalescer;
 import com.gammatunes.component.spotify.api.request.SpotifyPlaylistTracksRequest;
+import com.gammatunes.component.spotify.api.response.SpotifyAlbum;
+import com.gammatunes.component.spotify.api.response.SpotifyArtist;
+import com.gammatunes.component.spotify.api.response.SpotifyExternalIds;
 import com.gammatunes.component.spotify.api.response.SpotifyPlaylistTrackItem;
 import com.gammatunes.component.spotify.api.response.SpotifyPlaylistTracksPage;
 import com.gammatunes.component.spotify.api.response.SpotifyTrack;
 import com.gammatunes.component.spotify.auth.SpotifyAccessToken;
+import com.gammatunes.component.spotify.client.SpotifyRateLimitedException;
+import com.gammatunes.component.spotify.match.SpotifyTrackMatchIndex;
 import com.gammatunes.component.spotify.track.SpotifyPlaylistClient;
 import com.gammatunes.component.spotify.track.SpotifyTrackClient;
+import com.gammatunes.exception.track.LoadFailedException;
+import com.gammatunes.exception.track.NoMatchesException;
 import com.gammatunes.service.SpotifyAccountLinkService;
 import com.gammatunes.service.TrackQueryService;
 import dev.arbjerg.lavalink.client.player.Track;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class SpotifyTrackResolverService {
 
     private static final int PLAYLIST_PAGE_LIMIT = 50;
-    private static final String PLAYLIST_TRACK_FIELDS = "items(is_local,track(id,name,uri,duration_ms,artists(name))),next,limit,offset,total";
+    private static final int MAX_RATE_LIMIT_RETRIES = 3;
+    private static final Duration DEFAULT_RATE_LIMIT_BACKOFF = Duration.ofSeconds(1);
+    private static final String SPOTIFY_TRACK_FLIGHT = "spotify_track";
+    private static final String PLAYLIST_TRACK_FIELDS = "items(is_local,track(id,name,uri,duration_ms,external_urls,artists(name),album(images),external_ids(isrc))),next,limit,offset,total";
 
     private final SpotifyAccountLinkService spotifyAccountLinkService;
     private final SpotifyTrackClient spotifyTrackClient;
     private final SpotifyPlaylistClient spotifyPlaylistClient;
     private final SpotifyTrackSearchQueryFormatter spotifyTrackSearchQueryFormatter;
     private final TrackQueryService trackQueryService;
+    private final RequestCoalescer requestCoalescer;
+    private final SpotifyTrackMatchIndex spotifyTrackMatchIndex;
 
+    @Value("${gamma.spotify.playlist.page-concurrency:4}")
+    private int pageConcurrency;
+
+    /**
+     * Resolves a Spotify track id to a playable track.
+     * A track matched before is answered from the match index without calling Spotify.
+     *
+     * @param discordUserId  The Discord user whose Spotify account is used.
+     * @param spotifyTrackId The Spotify track id.
+     * @return A Mono emitting the matching track.
+     */
     public Mono<Track> resolveTrack(long discordUserId, String spotifyTrackId) {
-        return spotifyAccountLinkService.getValidAccessToken(discordUserId)
-            .flatMap(token -> spotifyTrackClient.getTrack(spotifyTrackId, token))
-            .map(spotifyTrackSearchQueryFormatter::format)
-            .flatMap(trackQueryService::resolve);
+        return spotifyTrackMatchIndex.find(spotifyTrackId, Optional.empty())
+            .switchIfEmpty(Mono.defer(() -> spotifyAccountLinkService.getValidAccessToken(discordUserId)
+                .flatMap(token -> spotifyTrackClient.getTrack(spotifyTrackId, token))
+                .flatMap(this::resolveSpotifyTrack)));
     }
 
-    public Mono<List<Track>> resolvePlaylist(long discordUserId, String spotifyPlaylistId) {
-        return spotifyAccountLinkService.getValidAccessToken(discordUserId)
-            .flatMapMany(token -> playlistTrackPages(token, spotifyPlaylistId, 0))
-            .flatMap(page -> Flux.fromIterable(page.items()))
-            .filter(item -> !item.isLocal())
-            .flatMap(this::resolvePlaylistTrackItem)
+    /**
+     * Lists a playlist's tracks as unresolved queue entries.
+     * Only the playlist pages are fetched here; each entry runs its YouTube Music search when it is first
+     * resolved, so playback can start after a single search instead of one per playlist item.
+     *
+     * @param discordUserId     The Discord user whose Spotify account is used.
+     * @param spotifyPlaylistId The Spotify playlist id.
+     * @return A Mono emitting the playlist's entries in playlist order.
+     */
+    public Mono<List<QueueEntry>> resolvePlaylist(long discordUserId, String spotifyPlaylistId) {
+        return streamPlaylist(discordUserId, spotifyPlaylistId)
+            .concatMapIterable(QueueEntryBatch::entries)
             .collectList();
     }
 
-    private Flux<SpotifyPlaylistTracksPage> playlistTrackPages(SpotifyAccessToken token, String playlistId, int offset) {
-        return spotifyPlaylistClient.getPlaylistTracks(token, playlistTracksRequest(playlistId, offset))
-            .expand(page -> nextPlaylistTracksPage(token, playlistId, page));
+    /**
+     * Streams a playlist's tracks as unresolved queue entries, one batch per playlist page.
+     * Batches are emitted in playlist order as soon as their page has been fetched. Local files and items without
+     * a Spotify track id, which Spotify returns e.g. for tracks it no longer knows, are skipped.
+     *
+     * @param discordUserId     The Discord user whose Spotify account is used.
+     * @param spotifyPlaylistId The Spotify playlist id.
+     * @return A Flux of entry batches in playlist order.
+     */
+    public Flux<QueueEntryBatch> streamPlaylist(long discordUserId, String spotifyPlaylistId) {
+        return spotifyAccountLinkService.getValidAccessToken(discordUserId)
+            .flatMapMany(token -> playlistTrackPages(token, spotifyPlaylistId))
+            .map(page -> new QueueEntryBatch(
+                page.items().stream()
+                    .filter(item -> !item.isLocal())
+                    .map(this::toQueueEntry)
+                    .filter(Objects::nonNull)
+                    .filter(entry -> !spotifyTrackMatchIndex.isKnownUnmatched(entry.getIdentifier()))
+                    .toList(),
+                page.total()
+            ));
     }
 
-    private Mono<SpotifyPlaylistTracksPage> nextPlaylistTracksPage(SpotifyAccessToken token, String playlistId, SpotifyPlaylistTracksPage page) {
-        if (page.next().isEmpty()) {
-            return Mono.empty();
-        }
-        return spotifyPlaylistClient.getPlaylistTracks(token, playlistTracksRequest(playlistId, page.offset() + page.limit()));
+    /**
+     * Fetches all pages of a playlist.
+     * The first page tells the playlist's total; the remaining offsets are then fetched concurrently, bounded by
+     * the configured page concurrency, and emitted in playlist order.
+     */
+    private Flux<SpotifyPlaylistTracksPage> playlistTrackPages(SpotifyAccessToken token, String playlistId) {
+        return playlistTracksPage(token, playlistId, 0)
+            .flatMapMany(firstPage -> {
+                int pageSize = firstPage.limit() > 0 ? firstPage.limit() : PLAYLIST_PAGE_LIMIT;
+                int remainingPages = Math.max(0, (firstPage.total() - 1) / pageSize);
+                log.debug("Playlist {} has {} tracks; fetching {} more pages", playlistId, firstPage.total(), remainingPages);
+
+                return Flux.range(1, remainingPages)
+                    .flatMapSequential(page -> playlistTracksPage(token, playlistId, page * pageSize), pageConcurrency)
+                    .startWith(firstPage);
+            });
+    }
+
+    /**
+     * Fetches one page of a playlist, waiting out Spotify's Retry-After when rate limited.
+     */
+    private Mono<SpotifyPlaylistTracksPage> playlistTracksPage(SpotifyAccessToken token, String playlistId, int offset) {
+        return Mono.defer(() -> spotifyPlaylistClient.getPlaylistTracks(token, playlistTracksRequest(playlistId, offset)))
+            .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                if (!(signal.failure() instanceof SpotifyRateLimitedException rateLimited)
+                    || signal.totalRetries() >= MAX_RATE_LIMIT_RETRIES) {
+                    return Mono.<Long>error(signal.failure());
+                }
+                Duration backoff = rateLimited.retryAfter().orElse(DEFAULT_RATE_LIMIT_BACKOFF);
+                log.debug("Spotify rate limited playlist {} offset {}; retrying in {}", playlistId, offset, backoff);
+                return Mono.delay(backoff);
+            })));
     }
 
     private SpotifyPlaylistTracksRequest playlistTracksRequest(String playlistId, int offset) {
@@ -68,14 +153,72 @@ public class SpotifyTrackResolverService {
         );
     }
 
-    private Mono<Track> resolvePlaylistTrackItem(SpotifyPlaylistTrackItem item) {
+    private QueueEntry toQueueEntry(SpotifyPlaylistTrackItem item) {
         return item.item()
             .or(item::track)
-            .map(this::resolveSpotifyTrack)
-            .orElseGet(Mono::empty);
+            .filter(track -> track.id() != null)
+            .map(this::toQueueEntry)
+            .orElse(null);
     }
 
+    private QueueEntry toQueueEntry(SpotifyTrack spotifyTrack) {
+        String artists = spotifyTrack.artists().stream()
+            .map(SpotifyArtist::name)
+            .collect(Collectors.joining(", "));
+        String artworkUrl = spotifyTrack.album()
+            .map(SpotifyAlbum::images)
+            .filter(images -> !images.isEmpty())
+            .map(images -> images.getFirst().url())
+            .orElse(null);
+        String uri = spotifyTrack.externalUrls() != null ? spotifyTrack.externalUrls().spotify() : spotifyTrack.uri();
+
+        return QueueEntry.pending(
+            spotifyTrack.id(),
+            spotifyTrack.name(),
+            artists,
+            uri,
+            artworkUrl,
+            spotifyTrack.durationMs(),
+            () -> resolveSpotifyTrack(spotifyTrack)
+        );
+    }
+
+    /**
+     * Looks up the playable track for a Spotify track.
+     * Known matches come from the match index; otherwise the track is searched and the match recorded.
+     * A track that recently failed to match fails right away with a {@link NoMatchesException}, the same way a
+     * search that finds nothing does. A track without a Spotify id is searched every time.
+     * Concurrent lookups of the same Spotify track, e.g. when several guilds queue the same playlist, share one
+     * search; each caller receives its own clone of the track.
+     *
+     * @param spotifyTrack The Spotify track.
+     * @return A Mono emitting the matching track.
+     */
     public Mono<Track> resolveSpotifyTrack(SpotifyTrack spotifyTrack) {
-        return trackQueryService.resolve(spotifyTrackSearchQueryFormatter.format(spotifyTrack));
+        if (spotifyTrack.id() == null) {
+            return trackQueryService.resolve(spotifyTrackSearchQueryFormatter.format(spotifyTrack));
+        }
+        if (spotifyTrackMatchIndex.isKnownUnmatched(spotifyTrack.id())) {
+            return Mono.error(new NoMatchesException("No match for Spotify track " + spotifyTrack.id()));
+        }
+        Optional<String> isrc = spotifyTrack.externalIds().flatMap(SpotifyExternalIds::isrc);
+        return requestCoalescer.coalesce(
+            SPOTIFY_TRACK_FLIGHT,
+            spotifyTrack.id(),
+            () -> spotifyTrackMatchIndex.find(spotifyTrack.id(), isrc)
+                .switchIfEmpty(Mono.defer(() -> trackQueryService.resolve(spotifyTrackSearchQueryFormatter.format(spotifyTrack))
+                    .doOnNext(track -> spotifyTrackMatchIndex.record(spotifyTrack.id(), isrc, track))
+                    .doOnError(this::isNoMatch, error -> spotifyTrackMatchIndex.recordUnmatched(spotifyTrack.id())))),
+            Track::makeClone
+        );
+    }
+
+    /**
+     * Checks whether a resolution error means the search found nothing playable (no matches, or Lavalink failed
+     * to load the result), as opposed to the request itself failing. Only these outcomes are remembered as
+     * unmatched; timeouts, cancelled loads and node errors are retried on the next request.
+     */
+    private boolean isNoMatch(Throwable error) {
+        return error instanceof NoMatchesException || error instanceof LoadFailedException;
     }
 }
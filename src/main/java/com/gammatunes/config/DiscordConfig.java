@@ -4,6 +4,7 @@ import com.gammatunes.component.discord.interaction.button.ButtonInteractionHand
 import com.gammatunes.component.discord.interaction.command.BotCommand;
 import com.gammatunes.component.discord.interaction.command.CommandInteractionHandler;
 import com.gammatunes.component.discord.interaction.selectmenu.SelectMenuInteractionHandler;
+import com.gammatunes.component.discord.ui.panel.PanelDeletionListener;
 import dev.arbjerg.lavalink.client.LavalinkClient;
 import dev.arbjerg.lavalink.libraries.jda.JDAVoiceUpdateListener;
 import io.github.cdimascio.dotenv.Dotenv;
@@ -92,6 +93,9 @@ public class DiscordConfig {
         SelectMenuInteractionHandler selectMenuInteractionHandler = event.getApplicationContext().getBean(SelectMenuInteractionHandler.class);
         jda.addEventListener(selectMenuInteractionHandler);
 
+        PanelDeletionListener panelDeletionListener = event.getApplicationContext().getBean(PanelDeletionListener.class);
+        jda.addEventListener(panelDeletionListener);
+
         List<BotCommand> botCommands = event.getApplicationContext().getBeanProvider(BotCommand.class).stream().toList();
         List<CommandData> commandData = botCommands.stream()
             .map(BotCommand::getCommandData)
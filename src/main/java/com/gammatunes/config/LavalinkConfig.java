@@ -3,6 +3,7 @@ package com.gammatunes.config;
 import dev.arbjerg.lavalink.client.*;
 import dev.arbjerg.lavalink.client.event.ReadyEvent;
 import dev.arbjerg.lavalink.client.event.StatsEvent;
+import dev.arbjerg.lavalink.client.loadbalancing.IPenaltyProvider;
 import dev.arbjerg.lavalink.client.loadbalancing.IRegionFilter;
 import dev.arbjerg.lavalink.client.loadbalancing.RegionGroup;
 import dev.arbjerg.lavalink.client.loadbalancing.builtin.VoiceRegionPenaltyProvider;
@@ -14,6 +15,8 @@ import org.springframework.context.annotation.Configuration;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Configuration for Lavalink client and properties.
@@ -26,7 +29,10 @@ import java.util.List;
 @ConfigurationProperties(prefix = "lavalink")
 @Data
 public class LavalinkConfig {
-    
+
+    /** load balancer penalty that keeps players off nodes dedicated to search while other nodes are usable */
+    private static final int DEDICATED_SEARCH_PENALTY = 100_000;
+
     private long userId;
     private List<Node> nodes;
 
@@ -40,6 +46,7 @@ public class LavalinkConfig {
         log.info("Creating Lavalink client for user ID {}", userId);
         LavalinkClient client = new LavalinkClient(userId);
         client.getLoadBalancer().addPenaltyProvider(new VoiceRegionPenaltyProvider());
+        client.getLoadBalancer().addPenaltyProvider(dedicatedSearchPenaltyProvider());
 
         nodes.forEach(n ->
             client.addNode(new NodeOptions.Builder()
@@ -62,6 +69,19 @@ public class LavalinkConfig {
         return client;
     }
 
+    /**
+     * Creates a penalty provider that steers new players away from nodes dedicated to search.
+     *
+     * @return the penalty provider
+     */
+    private IPenaltyProvider dedicatedSearchPenaltyProvider() {
+        Set<String> searchNodes = nodes.stream()
+            .filter(Node::isDedicatedToSearch)
+            .map(Node::getName)
+            .collect(Collectors.toUnmodifiableSet());
+        return (node, region) -> searchNodes.contains(node.getName()) ? DEDICATED_SEARCH_PENALTY : 0;
+    }
+
     @Data
     public static class Node {
         private String name;
@@ -69,5 +89,6 @@ public class LavalinkConfig {
         private String password;
         private IRegionFilter region = RegionGroup.US;
         private long httpTimeout = 5000;
+        private boolean dedicatedToSearch = false;
     }
 }
@@ -0,0 +1,11 @@
+package com.gammatunes.exception.track;
+
+/**
+ * A specific type of TrackLoadException thrown when Lavalink reports that it
+ * failed to load a query's result, e.g. because the source rejected the request.
+ */
+public class LoadFailedException extends TrackLoadException {
+    public LoadFailedException(String message) {
+        super(message);
+    }
+}
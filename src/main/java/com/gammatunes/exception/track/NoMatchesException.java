@@ -0,0 +1,11 @@
+package com.gammatunes.exception.track;
+
+/**
+ * A specific type of UnresolvableTrackException thrown when Lavalink loaded a query
+ * but found nothing playable (no matches, an empty search result or an empty playlist).
+ */
+public class NoMatchesException extends UnresolvableTrackException {
+    public NoMatchesException(String message) {
+        super(message);
+    }
+}
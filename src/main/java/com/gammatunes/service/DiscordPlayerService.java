@@ -1,5 +1,7 @@
 package com.gammatunes.service;
 
+import com.gammatunes.component.audio.queue.QueueEntry;
+import com.gammatunes.component.audio.queue.QueueEntryBatch;
 import com.gammatunes.exception.player.MemberNotInVoiceChannelException;
 import com.gammatunes.model.dto.RequesterInfo;
 import com.gammatunes.service.playback.PlaybackMode;
@@ -54,15 +56,19 @@ public class DiscordPlayerService {
             long guildId = member.getGuild().getIdLong();
             RequesterInfo requesterInfo = RequesterInfo.fromMember(member);
 
-            return playInputResolverService.resolveAll(member.getIdLong(), query)
-                .flatMap(tracks -> playbackService.play(playbackRequestFactory.create(
+            return playbackService.playStreaming(
+                guildId,
+                audioChannel.getIdLong(),
+                playInputResolverService.streamAll(member.getIdLong(), query),
+                entries -> playbackRequestFactory.create(
                     guildId,
                     audioChannel.getIdLong(),
                     textChannel,
                     requesterInfo,
-                    tracks,
+                    entries,
                     PlaybackMode.QUEUE
-                )));
+                )
+            );
         });
     }
 
@@ -94,15 +100,21 @@ public class DiscordPlayerService {
             long guildId = member.getGuild().getIdLong();
             RequesterInfo requesterInfo = RequesterInfo.fromMember(member);
 
-            return playInputResolverService.resolveOne(member.getIdLong(), query)
-                .flatMap(track -> playbackService.play(playbackRequestFactory.create(
+            return playbackService.playStreaming(
+                guildId,
+                audioChannel.getIdLong(),
+                playInputResolverService.resolveOne(member.getIdLong(), query)
+                    .map(track -> QueueEntryBatch.of(List.of(QueueEntry.of(track))))
+                    .flux(),
+                entries -> playbackRequestFactory.create(
                     guildId,
                     audioChannel.getIdLong(),
                     textChannel,
                     requesterInfo,
-                    List.of(track),
+                    entries,
                     PlaybackMode.PLAY_NOW
-                )));
+                )
+            );
         });
     }
 
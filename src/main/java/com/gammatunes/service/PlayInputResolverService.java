@@ -1,5 +1,7 @@
 package com.gammatunes.service;
 
+import com.gammatunes.component.audio.queue.QueueEntry;
+import com.gammatunes.component.audio.queue.QueueEntryBatch;
 import com.gammatunes.component.spotify.resolver.SpotifyResource;
 import com.gammatunes.component.spotify.resolver.SpotifyResourceType;
 import com.gammatunes.component.spotify.resolver.SpotifyTrackResolverService;
@@ -7,6 +9,7 @@ import com.gammatunes.component.spotify.resolver.SpotifyUrlParser;
 import dev.arbjerg.lavalink.client.player.Track;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -32,22 +35,59 @@ public class PlayInputResolverService {
         }
 
         return spotifyTrackResolverService.resolvePlaylist(discordUserId, resource.id())
-            .flatMap(tracks -> tracks.isEmpty()
-                ? Mono.error(new IllegalArgumentException("Spotify playlist did not resolve to any playable tracks."))
-                : Mono.just(tracks.getFirst()));
+            .flatMapMany(Flux::fromIterable)
+            .concatMap(entry -> entry.resolve().onErrorResume(error -> Mono.empty()))
+            .next()
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("Spotify playlist did not resolve to any playable tracks.")));
     }
 
-    public Mono<List<Track>> resolveAll(long discordUserId, String input) {
+    /**
+     * Resolves the input into queue entries.
+     * Spotify playlists come back as unresolved entries that are looked up just in time by the player.
+     *
+     * @param discordUserId The Discord user whose linked accounts are used.
+     * @param input         A search term, a supported URL or a Spotify link.
+     * @return A Mono emitting the entries to enqueue.
+     */
+    public Mono<List<QueueEntry>> resolveAll(long discordUserId, String input) {
         Optional<SpotifyResource> spotifyResource = spotifyUrlParser.parse(input);
         if (spotifyResource.isEmpty()) {
-            return trackQueryService.resolveAll(input);
+            return trackQueryService.resolveAll(input)
+                .map(PlayInputResolverService::toEntries);
         }
 
         SpotifyResource resource = spotifyResource.get();
         return switch (resource.type()) {
             case TRACK -> spotifyTrackResolverService.resolveTrack(discordUserId, resource.id())
-                .map(List::of);
-            case PLAYLIST -> spotifyTrackResolverService.resolvePlaylist(discordUserId, resource.id());
+                .map(track -> List.of(QueueEntry.of(track)));
+            case PLAYLIST -> spotifyTrackResolverService.resolvePlaylist(discordUserId, resource.id())
+                .filter(entries -> !entries.isEmpty())
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Spotify playlist has no playable tracks.")));
         };
     }
+
+    /**
+     * Resolves the input into batches of queue entries.
+     * Spotify playlists are streamed page by page so the first tracks can be queued before the rest is listed;
+     * every other input is emitted as a single batch.
+     *
+     * @param discordUserId The Discord user whose linked accounts are used.
+     * @param input         A search term, a supported URL or a Spotify link.
+     * @return A Flux of entry batches in source order.
+     */
+    public Flux<QueueEntryBatch> streamAll(long discordUserId, String input) {
+        Optional<SpotifyResource> spotifyResource = spotifyUrlParser.parse(input);
+        if (spotifyResource.isPresent() && spotifyResource.get().type() == SpotifyResourceType.PLAYLIST) {
+            return spotifyTrackResolverService.streamPlaylist(discordUserId, spotifyResource.get().id());
+        }
+        return resolveAll(discordUserId, input)
+            .map(QueueEntryBatch::of)
+            .flux();
+    }
+
+    private static List<QueueEntry> toEntries(List<Track> tracks) {
+        return tracks.stream()
+            .map(QueueEntry::of)
+            .toList();
+    }
 }
@@ -1,6 +1,9 @@
 package com.gammatunes.service;
 
+import com.gammatunes.component.discord.ui.PanelRefreshMetrics;
 import com.gammatunes.component.discord.ui.PlayerPanelCache;
+import com.gammatunes.component.guild.GuildContext;
+import com.gammatunes.component.guild.GuildContexts;
 import com.gammatunes.model.dto.MessageRef;
 import com.gammatunes.component.discord.ui.panel.PlayerPanelManager;
 import com.gammatunes.component.audio.core.PlayerRegistry;
@@ -12,13 +15,17 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for managing player panels in Discord.
  * It handles creation, deletion, and refreshing of player panels,
  * as well as publishing status updates.
+ * <p>
+ * Refreshes are coalesced per guild: at most one panel edit is in flight at a time, edits are spaced by the
+ * minimum refresh gap, and every request arriving meanwhile is folded into one trailing edit that renders the
+ * newest state. A burst of changes therefore costs two edits at most and never leaves the panel stale.
  */
 @Slf4j
 @Service
@@ -28,12 +35,12 @@ public class PlayerPanelService {
     private final PlayerPanelManager gateway;
     private final PlayerPanelCache cache;
     private final PlayerRegistry playerRegistry;
+    private final GuildContexts guildContexts;
+    private final PanelRefreshMetrics panelRefreshMetrics;
 
     @Value("${gamma.bot.player.panel.min-refresh-gap-ms:1000}")
     private long minRefreshGapMs;
 
-    private final ConcurrentHashMap<Long, Long> lastWriteAt = new ConcurrentHashMap<>();
-
     /**
      * Creates a new player panel in the specified guild and channel.
      * If a panel already exists, it will be deleted first.
@@ -44,70 +51,117 @@ public class PlayerPanelService {
      */
     public Mono<Void> createPanel(long guildId, TextChannel channel) {
         log.debug("createPanel guild={} channel={}", guildId, channel.getId());
-        return Mono.justOrEmpty(cache.getMessage(guildId))
+        Optional<MessageRef> previous = cache.getMessage(guildId);
+        cache.removeMessage(guildId);
+        return Mono.justOrEmpty(previous)
             .flatMap(gateway::deletePanel)
             .onErrorResume(e -> Mono.empty())
             .then(gateway.createPanel(guildId, channel, cache.getStatus(guildId) != null ? cache.getStatus(guildId) : "Initializing..."))
             .doOnNext(ref -> {
                 cache.putMessage(guildId, ref);
-                lastWriteAt.put(guildId, System.currentTimeMillis());
+                cache.setWriteTs(guildId, System.currentTimeMillis());
             })
             .then();
     }
 
     /**
      * Deletes the player panel for the specified guild.
-     * If no panel exists, it will do nothing.
+     * If no panel exists, it will do nothing. The panel is forgotten before the message is deleted, so the
+     * deletion is not mistaken for a panel deleted by hand.
      *
      * @param guildId The ID of the guild whose panel should be deleted.
      * @return A Mono that completes when the panel is deleted.
      */
     public Mono<Void> deletePanel(long guildId) {
         log.debug("deletePanel guild={}", guildId);
-        return Mono.justOrEmpty(cache.getMessage(guildId))
-            .flatMap(gateway::deletePanel)
-            .doFinally(sig -> {
+        return Mono.defer(() -> {
+                Optional<MessageRef> ref = cache.getMessage(guildId);
                 cache.removeMessage(guildId);
-                lastWriteAt.remove(guildId);
+                cache.clearWriteTs(guildId);
+                return Mono.justOrEmpty(ref);
             })
+            .flatMap(gateway::deletePanel)
             .then();
     }
 
     /**
-     * Refreshes the player panel for the specified guild.
-     * If the panel does not exist, it will not perform any action.
-     * It also respects a minimum refresh gap to avoid spamming updates.
+     * Requests a refresh of the player panel for the specified guild.
+     * If the panel does not exist, it will not perform any action. Otherwise the refresh is coalesced with other
+     * requests of the guild and written once the minimum refresh gap since the last write has passed.
      *
      * @param guildId The ID of the guild whose panel should be refreshed.
-     * @return A Mono that completes when the refresh is done or skipped.
+     * @return A Mono that completes once the refresh is scheduled.
      */
     public Mono<Void> refreshPanel(long guildId) {
-        Optional<MessageRef> maybeRef = cache.getMessage(guildId);
-        log.debug("refreshPanel guild={} refPresent={}", guildId, maybeRef.isPresent());
+        return Mono.fromRunnable(() -> requestRefresh(guildId));
+    }
 
-        if (maybeRef.isEmpty()) {
-            return Mono.empty();
+    private void requestRefresh(long guildId) {
+        GuildContext context = guildContexts.get(guildId);
+        if (context == null || context.getPanelMessage() == null) {
+            log.debug("refreshPanel guild={} refPresent=false", guildId);
+            return;
+        }
+        context.getPanelStaleSince().compareAndSet(0L, System.currentTimeMillis());
+        if (context.getPanelRefreshRequests().getAndIncrement() != 0) {
+            log.debug("refreshPanel COALESCED guild={}", guildId);
+            return;
         }
+        scheduleWrite(context);
+    }
 
-        // Simple per-guild throttle to avoid spamming edits
-        long now = System.currentTimeMillis();
-        Long last = lastWriteAt.get(guildId);
-        if (last != null && (now - last) < minRefreshGapMs) {
-            if (log.isDebugEnabled()) {
-                log.debug("refreshPanel SKIPPED ({}ms < gap {}ms) guild={}", (now - last), minRefreshGapMs, guildId);
-            }
+    /**
+     * Writes the panel once the refresh gap has passed, then writes again if more requests came in meanwhile.
+     * Only the caller that raised the guild's request count from zero gets here, so one write loop runs per guild.
+     * The requests are counted before the panel is rendered: requests after that point cause another write,
+     * requests before it are covered by this one, since rendering reads the newest state.
+     */
+    private void scheduleWrite(GuildContext context) {
+        long guildId = context.getGuildId();
+        long last = context.getPanelWriteAt();
+        long waitMs = last == 0L ? 0L : Math.max(0L, last + minRefreshGapMs - System.currentTimeMillis());
+
+        Mono.delay(Duration.ofMillis(waitMs))
+            .then(Mono.defer(() -> {
+                int covered = context.getPanelRefreshRequests().get();
+                long staleSince = context.getPanelStaleSince().getAndSet(0L);
+                return writePanel(guildId)
+                    .onErrorResume(e -> {
+                        log.warn("Panel refresh failed for guild {}: {}", guildId, e.toString());
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> {
+                        panelRefreshMetrics.recordWrite(covered);
+                        if (staleSince != 0L) {
+                            panelRefreshMetrics.recordStaleness(
+                                Duration.ofMillis(System.currentTimeMillis() - staleSince));
+                        }
+                        if (context.getPanelRefreshRequests().addAndGet(-covered) != 0) {
+                            scheduleWrite(context);
+                        }
+                    });
+            }))
+            .subscribe();
+    }
+
+    /**
+     * Edits the panel message to show the current state, recreating it if the edit fails.
+     */
+    private Mono<Void> writePanel(long guildId) {
+        Optional<MessageRef> maybeRef = cache.getMessage(guildId);
+        if (maybeRef.isEmpty()) {
             return Mono.empty();
         }
 
         MessageRef ref = maybeRef.get();
 
         return gateway.updatePanel(ref, cache.getStatus(guildId))
-            .doOnSuccess(v -> lastWriteAt.put(guildId, System.currentTimeMillis()))
+            .doOnSuccess(v -> cache.setWriteTs(guildId, System.currentTimeMillis()))
             .onErrorResume(e -> {
                 if (!playerRegistry.exists(guildId)) {
                     log.debug("Player no longer exists for guild {}, cleaning up panel reference", guildId);
                     cache.removeMessage(guildId);
-                    lastWriteAt.remove(guildId);
+                    cache.clearWriteTs(guildId);
                     return Mono.empty();
                 }
 
@@ -115,13 +169,32 @@ public class PlayerPanelService {
                 return gateway.recreatePanel(ref, cache.getStatus(guildId))
                     .doOnNext(newRef -> {
                         cache.putMessage(guildId, newRef);
-                        lastWriteAt.put(guildId, System.currentTimeMillis());
+                        cache.setWriteTs(guildId, System.currentTimeMillis());
                     })
                     .then();
             })
             .then();
     }
 
+    /**
+     * Handles a message deleted in Discord. If it was the guild's panel, the panel is recreated, since an
+     * unchanged panel would otherwise never be edited and never notice it is gone.
+     * Dropping the content hashes makes the next write a full edit, which fails on the missing message and
+     * recreates it through the usual refresh path.
+     *
+     * @param guildId   The ID of the guild the message was deleted in.
+     * @param messageId The ID of the deleted message.
+     */
+    public void onMessageDeleted(long guildId, long messageId) {
+        Optional<MessageRef> ref = cache.getMessage(guildId);
+        if (ref.isEmpty() || ref.get().messageId() != messageId) {
+            return;
+        }
+        log.info("Panel {} was deleted, recreating it", ref.get());
+        cache.clearHashes(guildId);
+        requestRefresh(guildId);
+    }
+
     /**
      * Sets the status text without triggering a panel refresh.
      * This is useful for updating the status without immediately refreshing the UI.
@@ -145,6 +218,16 @@ public class PlayerPanelService {
         return cache.getMessage(guildId);
     }
 
+    /**
+     * Forgets all panel state kept for a guild, including its status text.
+     * The panel message itself is left alone; delete it with {@link #deletePanel} first.
+     *
+     * @param guildId The ID of the guild to forget.
+     */
+    public void forget(long guildId) {
+        cache.clear(guildId);
+    }
+
     /**
      * Cleans up player panels on application shutdown.
      * It deletes all existing panels in the guilds where they were created.
@@ -152,9 +235,13 @@ public class PlayerPanelService {
     @PreDestroy
     void cleanup() {
         log.info("Cleaning up player panels on shutdown");
-        cache.guildIds().forEach(gid ->
-            cache.getMessage(gid).ifPresent(ref -> gateway.deletePanel(ref).subscribe())
-        );
+        cache.panelContexts().forEach(context -> {
+            MessageRef ref = context.getPanelMessage();
+            if (ref != null) {
+                cache.removeMessage(ref.guildId());
+                gateway.deletePanel(ref).subscribe();
+            }
+        });
     }
 
 }
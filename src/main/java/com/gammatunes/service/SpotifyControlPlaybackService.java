@@ -1,5 +1,7 @@
 package com.gammatunes.service;
 
+import com.gammatunes.component.audio.queue.QueueEntry;
+import com.gammatunes.component.lavalink.search.ResolutionContext;
 import com.gammatunes.component.spotify.api.response.SpotifyTrack;
 import com.gammatunes.component.spotify.control.SpotifyControlPlaybackState;
 import com.gammatunes.component.spotify.control.SpotifyControlPlaybackStateStore;
@@ -19,8 +21,6 @@ import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -35,16 +35,15 @@ public class SpotifyControlPlaybackService {
     private final PlaybackRequestFactory playbackRequestFactory;
     private final PlaybackService playbackService;
     private final JDA jda;
-    private final Set<Long> syncingGuildIds = ConcurrentHashMap.newKeySet();
 
     public Mono<Void> syncNow(long guildId) {
         return Mono.defer(() -> {
-            if (!syncingGuildIds.add(guildId)) {
+            if (!spotifyControlPlaybackStateStore.tryBeginSync(guildId)) {
                 return Mono.empty();
             }
 
             return syncNowInternal(guildId)
-                .doFinally(signalType -> syncingGuildIds.remove(guildId));
+                .doFinally(signalType -> spotifyControlPlaybackStateStore.endSync(guildId));
         });
     }
 
@@ -98,20 +97,12 @@ public class SpotifyControlPlaybackService {
                 }
 
                 return spotifyTrackResolverService.resolveSpotifyTrack(spotifyTrack)
-                    .flatMap(track -> playSpotifyTrack(session, track))
-                    .then(seekToSpotifyProgress(guildId, currentlyPlaying.progressMs().orElse(null)))
+                    .contextWrite(ResolutionContext.interactive(guildId))
+                    .flatMap(track -> playSpotifyTrack(session, track, currentlyPlaying.progressMs().orElse(null)))
                     .doOnSuccess(ignored -> spotifyControlPlaybackStateStore.save(guildId, spotifyTrack.id(), true));
             });
     }
 
-    private Mono<Void> seekToSpotifyProgress(long guildId, Integer spotifyProgressMs) {
-        if (spotifyProgressMs == null || spotifyProgressMs <= 0) {
-            return Mono.empty();
-        }
-
-        return playbackService.seek(guildId, spotifyProgressMs);
-    }
-
     private Mono<Void> seekIfDrifted(long guildId, Integer spotifyProgressMs) {
         if (spotifyProgressMs == null) {
             return Mono.empty();
@@ -140,14 +131,19 @@ public class SpotifyControlPlaybackService {
             .orElse(true);
     }
 
-    private Mono<Void> playSpotifyTrack(SpotifyControlSession session, Track track) {
+    /**
+     * Plays the track Spotify is playing, starting at Spotify's progress in the same player update.
+     */
+    private Mono<Void> playSpotifyTrack(SpotifyControlSession session, Track track, Integer spotifyProgressMs) {
+        long startPositionMs = spotifyProgressMs == null ? 0L : Math.max(0L, spotifyProgressMs);
         return playbackService.play(playbackRequestFactory.create(
             session.guildId(),
             session.voiceChannelId(),
             textChannel(session),
             requesterInfo(session),
-            List.of(track),
-            PlaybackMode.PLAY_NOW
+            List.of(QueueEntry.of(track)),
+            PlaybackMode.PLAY_NOW,
+            startPositionMs
         ));
     }
 
@@ -1,5 +1,7 @@
 package com.gammatunes.service;
 
+import com.gammatunes.component.audio.queue.QueueEntry;
+import com.gammatunes.component.lavalink.search.ResolutionContext;
 import com.gammatunes.component.spotify.api.response.SpotifyCurrentlyPlaying;
 import com.gammatunes.component.spotify.api.response.SpotifyDevice;
 import com.gammatunes.component.spotify.api.response.SpotifyPlaybackState;
@@ -119,27 +121,24 @@ public class SpotifyControlStartService {
 
         SpotifyTrack spotifyTrack = currentlyPlaying.item().get();
         return spotifyTrackResolverService.resolveSpotifyTrack(spotifyTrack)
-            .flatMap(track -> playSpotifyTrack(session, track))
-            .then(seekToSpotifyProgress(session.guildId(), currentlyPlaying.progressMs().orElse(null)))
+            .contextWrite(ResolutionContext.interactive(session.guildId()))
+            .flatMap(track -> playSpotifyTrack(session, track, currentlyPlaying.progressMs().orElse(null)))
             .doOnSuccess(ignored -> spotifyControlPlaybackStateStore.save(session.guildId(), spotifyTrack.id(), true));
     }
 
-    private Mono<Void> seekToSpotifyProgress(long guildId, Integer spotifyProgressMs) {
-        if (spotifyProgressMs == null || spotifyProgressMs <= 0) {
-            return Mono.empty();
-        }
-
-        return playbackService.seek(guildId, spotifyProgressMs);
-    }
-
-    private Mono<Void> playSpotifyTrack(SpotifyControlSession session, Track track) {
+    /**
+     * Plays the track Spotify is playing, starting at Spotify's progress in the same player update.
+     */
+    private Mono<Void> playSpotifyTrack(SpotifyControlSession session, Track track, Integer spotifyProgressMs) {
+        long startPositionMs = spotifyProgressMs == null ? 0L : Math.max(0L, spotifyProgressMs);
         return playbackService.play(playbackRequestFactory.create(
             session.guildId(),
             session.voiceChannelId(),
             textChannel(session),
             requesterInfo(session),
-            List.of(track),
-            PlaybackMode.PLAY_NOW
+            List.of(QueueEntry.of(track)),
+            PlaybackMode.PLAY_NOW,
+            startPositionMs
         ));
     }
 
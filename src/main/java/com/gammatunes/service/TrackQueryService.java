@@ -1,6 +1,11 @@
 package com.gammatunes.service;
 
-import dev.arbjerg.lavalink.client.LavalinkClient;
+import com.gammatunes.component.lavalink.search.LoadResultCache;
+import com.gammatunes.component.lavalink.search.RequestCoalescer;
+import com.gammatunes.component.lavalink.search.ResolutionScheduler;
+import com.gammatunes.component.lavalink.search.SearchNodeRouter;
+import com.gammatunes.exception.track.LoadFailedException;
+import com.gammatunes.exception.track.NoMatchesException;
 import dev.arbjerg.lavalink.client.player.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,19 +13,30 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 
 /**
  * Service for resolving and searching tracks using Lavalink.
  * It processes queries, checks if they are direct URLs or search queries,
- * and interacts with the Lavalink client to load tracks or playlists.
+ * and sends the loads to the Lavalink node picked by the {@link SearchNodeRouter}.
+ * Load results are shared through the {@link LoadResultCache}, and identical concurrent loads are coalesced into
+ * a single Lavalink call; every returned track is a fresh clone, so callers may attach user data without
+ * affecting other requests.
+ * A query that loads but yields nothing playable fails with a {@link NoMatchesException}, and one Lavalink could
+ * not load fails with a {@link LoadFailedException}; any other error means the request itself failed.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TrackQueryService {
 
-    private final LavalinkClient lavalinkClient;
+    private final SearchNodeRouter searchNodeRouter;
+    private final LoadResultCache loadResultCache;
+    private final RequestCoalescer requestCoalescer;
+    private final ResolutionScheduler resolutionScheduler;
+
+    private static final String LOAD_FLIGHT = "lavalink_load";
 
     /**
      * Regular expression pattern to match various music service URLs.
@@ -43,9 +59,9 @@ public class TrackQueryService {
         String processedQuery = processQuery(query);
         log.debug("Resolving query: '{}' -> '{}'", query, processedQuery);
 
-        return lavalinkClient.getNodes().getFirst()
-            .loadItem(processedQuery)
-            .flatMap(this::firstTrack);
+        return load(processedQuery)
+            .flatMap(this::firstTrack)
+            .map(Track::makeClone);
     }
 
     /**
@@ -60,9 +76,9 @@ public class TrackQueryService {
         String processedQuery = processQuery(query);
         log.debug("Resolving all tracks from query: '{}' -> '{}'", query, processedQuery);
 
-        return lavalinkClient.getNodes().getFirst()
-            .loadItem(processedQuery)
-            .flatMap(this::allTracks);
+        return load(processedQuery)
+            .flatMap(this::allTracks)
+            .map(this::cloneAll);
     }
 
     /**
@@ -78,9 +94,43 @@ public class TrackQueryService {
         String processedQuery = processQuery(query);
         log.debug("Searching for tracks: '{}' -> '{}' (limit: {})", query, processedQuery, limit);
 
-        return lavalinkClient.getNodes().getFirst()
-            .loadItem(processedQuery)
-            .flatMap(loadResult -> searchResults(loadResult, limit));
+        return load(processedQuery)
+            .flatMap(loadResult -> searchResults(loadResult, limit))
+            .map(this::cloneAll);
+    }
+
+    /**
+     * Decodes a track from its encoded form, e.g. one stored by an earlier search.
+     *
+     * @param encodedTrack The encoded track.
+     * @return A Mono that emits the decoded Track.
+     */
+    public Mono<Track> decode(String encodedTrack) {
+        return searchNodeRouter.route("decode", node -> node.decodeTrack(encodedTrack));
+    }
+
+    /**
+     * Loads a processed query, answering from the cache when possible and joining an identical load that is
+     * already in flight otherwise. Loads that reach Lavalink are admitted by the {@link ResolutionScheduler}, which
+     * takes the guild and priority from the subscriber's context; slow loads are hedged on a second node.
+     * The shared load result is not copied here; tracks are cloned once extracted.
+     *
+     * @param processedQuery The processed query string.
+     * @return A Mono that emits the Lavalink load result.
+     */
+    private Mono<LavalinkLoadResult> load(String processedQuery) {
+        return loadResultCache.get(processedQuery, key -> requestCoalescer.coalesce(
+            LOAD_FLIGHT,
+            key,
+            () -> resolutionScheduler.submit(() -> searchNodeRouter.routeHedged("load", node -> node.loadItem(processedQuery))),
+            UnaryOperator.identity()
+        ));
+    }
+
+    private List<Track> cloneAll(List<Track> tracks) {
+        return tracks.stream()
+            .map(Track::makeClone)
+            .toList();
     }
 
     /**
@@ -150,19 +200,19 @@ public class TrackQueryService {
 
             case PlaylistLoaded playlistLoaded ->
                 playlistLoaded.getTracks().isEmpty()
-                    ? Mono.error(new IllegalArgumentException("Playlist is empty"))
+                    ? Mono.error(new NoMatchesException("Playlist is empty"))
                     : Mono.just(playlistLoaded.getTracks().getFirst());
 
             case SearchResult searchResult ->
                 searchResult.getTracks().isEmpty()
-                    ? Mono.error(new IllegalArgumentException("No results for query"))
+                    ? Mono.error(new NoMatchesException("No results for query"))
                     : Mono.just(searchResult.getTracks().getFirst());
 
             case NoMatches noMatches ->
-                Mono.error(new IllegalArgumentException("Nothing found for query"));
+                Mono.error(new NoMatchesException("Nothing found for query"));
 
             case LoadFailed lf ->
-                Mono.error(new IllegalStateException("Failed to load track: " + lf.getException().getMessage()));
+                Mono.error(new LoadFailedException("Failed to load track: " + lf.getException().getMessage()));
             default -> throw new IllegalStateException("Unexpected load result: " + loadResult);
         };
     }
@@ -182,19 +232,19 @@ public class TrackQueryService {
 
             case PlaylistLoaded playlistLoaded ->
                 playlistLoaded.getTracks().isEmpty()
-                    ? Mono.error(new IllegalArgumentException("Playlist is empty"))
+                    ? Mono.error(new NoMatchesException("Playlist is empty"))
                     : Mono.just(playlistLoaded.getTracks());
 
             case SearchResult searchResult ->
                 searchResult.getTracks().isEmpty()
-                    ? Mono.error(new IllegalArgumentException("No results for query"))
+                    ? Mono.error(new NoMatchesException("No results for query"))
                     : Mono.just(List.of(searchResult.getTracks().getFirst()));
 
             case NoMatches noMatches ->
-                Mono.error(new IllegalArgumentException("Nothing found for query"));
+                Mono.error(new NoMatchesException("Nothing found for query"));
 
             case LoadFailed lf ->
-                Mono.error(new IllegalStateException("Failed to load track: " + lf.getException().getMessage()));
+                Mono.error(new LoadFailedException("Failed to load track: " + lf.getException().getMessage()));
                 
             default -> throw new IllegalStateException("Unexpected load result: " + loadResult);
         };
@@ -221,16 +271,16 @@ public class TrackQueryService {
 
             case SearchResult searchResult ->
                 searchResult.getTracks().isEmpty()
-                    ? Mono.error(new IllegalArgumentException("No results for query"))
+                    ? Mono.error(new NoMatchesException("No results for query"))
                     : Mono.just(searchResult.getTracks().stream()
                         .limit(limit)
                         .toList());
 
             case NoMatches noMatches ->
-                Mono.error(new IllegalArgumentException("Nothing found for query"));
+                Mono.error(new NoMatchesException("Nothing found for query"));
 
             case LoadFailed lf ->
-                Mono.error(new IllegalStateException("Failed to load track: " + lf.getException().getMessage()));
+                Mono.error(new LoadFailedException("Failed to load track: " + lf.getException().getMessage()));
 
             default -> throw new IllegalStateException("Unexpected load result: " + loadResult);
         };
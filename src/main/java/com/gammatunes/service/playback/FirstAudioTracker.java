@@ -0,0 +1,63 @@
+package com.gammatunes.service.playback;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Measures the time from a play command to the moment its first track starts playing.
+ * A command that is about to start playback is registered with {@link #expect}; the next TrackStart event of the
+ * guild completes the measurement. Registrations that never see a track start are dropped after a while.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FirstAudioTracker {
+
+    private static final Duration PENDING_TTL = Duration.ofMinutes(2);
+
+    private final PlaybackMetrics playbackMetrics;
+
+    /** command start in nanoTime per guild waiting for its first track start */
+    private final Cache<Long, Long> pending = Caffeine.newBuilder()
+        .expireAfterWrite(PENDING_TTL)
+        .build();
+
+    /**
+     * Registers a play command whose first track has not started yet.
+     *
+     * @param guildId     The ID of the guild the command was issued in.
+     * @param commandedAt The {@link System#nanoTime()} at which the command was received.
+     */
+    public void expect(long guildId, long commandedAt) {
+        pending.put(guildId, commandedAt);
+    }
+
+    /**
+     * Forgets a registered command, e.g. because it failed before playback started.
+     *
+     * @param guildId The ID of the guild.
+     */
+    public void cancel(long guildId) {
+        pending.invalidate(guildId);
+    }
+
+    /**
+     * Completes the measurement of a guild's pending command, if any.
+     *
+     * @param guildId The ID of the guild whose track started.
+     */
+    public void trackStarted(long guildId) {
+        Long commandedAt = pending.asMap().remove(guildId);
+        if (commandedAt == null) {
+            return;
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - commandedAt);
+        log.debug("Time to first audio in guild {}: {}ms", guildId, elapsed.toMillis());
+        playbackMetrics.recordTimeToFirstAudio(elapsed);
+    }
+}
@@ -0,0 +1,23 @@
+package com.gammatunes.service.playback;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Component for recording metrics related to starting playback.
+ * It uses Micrometer to record how long users wait for audio after a play command.
+ */
+@Component
+public record PlaybackMetrics(MeterRegistry meterRegistry) {
+
+    /**
+     * Records the time from a play command to the start of the first track it played.
+     *
+     * @param elapsed The time to first audio.
+     */
+    public void recordTimeToFirstAudio(Duration elapsed) {
+        meterRegistry.timer("bot.playback.time_to_first_audio").record(elapsed);
+    }
+}
@@ -1,8 +1,8 @@
 package com.gammatunes.service.playback;
 
+import com.gammatunes.component.audio.queue.QueueEntry;
 import com.gammatunes.component.spotify.control.SpotifyControlSession;
 import com.gammatunes.model.dto.RequesterInfo;
-import dev.arbjerg.lavalink.client.player.Track;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 
 import java.util.List;
@@ -14,8 +14,9 @@ public record PlaybackRequest(
     TextChannel textChannel,
     RequesterInfo requesterInfo,
     SpotifyControlSession spotifyControlSession,
-    List<Track> tracks,
-    PlaybackMode mode
+    List<QueueEntry> tracks,
+    PlaybackMode mode,
+    long startPositionMs
 ) {
     public PlaybackRequest {
         Objects.requireNonNull(tracks, "tracks must not be null");
@@ -25,6 +26,10 @@ public record PlaybackRequest(
             throw new IllegalArgumentException("tracks must not be empty");
         }
 
+        if (startPositionMs < 0) {
+            throw new IllegalArgumentException("startPositionMs must not be negative");
+        }
+
         tracks = List.copyOf(tracks);
     }
 }
@@ -1,8 +1,8 @@
 package com.gammatunes.service.playback;
 
+import com.gammatunes.component.audio.queue.QueueEntry;
 import com.gammatunes.model.dto.RequesterInfo;
 import com.gammatunes.service.SpotifyControlService;
-import dev.arbjerg.lavalink.client.player.Track;
 import lombok.RequiredArgsConstructor;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import org.springframework.stereotype.Component;
@@ -20,8 +20,20 @@ public class PlaybackRequestFactory {
         long voiceChannelId,
         TextChannel textChannel,
         RequesterInfo requesterInfo,
-        List<Track> tracks,
+        List<QueueEntry> tracks,
         PlaybackMode mode
+    ) {
+        return create(guildId, voiceChannelId, textChannel, requesterInfo, tracks, mode, 0L);
+    }
+
+    public PlaybackRequest create(
+        long guildId,
+        long voiceChannelId,
+        TextChannel textChannel,
+        RequesterInfo requesterInfo,
+        List<QueueEntry> tracks,
+        PlaybackMode mode,
+        long startPositionMs
     ) {
         return new PlaybackRequest(
             guildId,
@@ -30,7 +42,8 @@ public class PlaybackRequestFactory {
             requesterInfo,
             spotifyControlService.getControlSession(guildId).orElse(null),
             tracks,
-            mode
+            mode,
+            startPositionMs
         );
     }
 }
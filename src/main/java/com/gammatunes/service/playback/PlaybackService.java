@@ -4,17 +4,25 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.gammatunes.component.audio.core.Player;
 import com.gammatunes.component.audio.core.PlayerRegistry;
+import com.gammatunes.component.audio.queue.QueueEntry;
+import com.gammatunes.component.audio.queue.QueueEntryBatch;
 import com.gammatunes.component.discord.DiscordVoiceConnector;
+import com.gammatunes.model.domain.PlayerState;
 import com.gammatunes.model.dto.RequesterInfo;
 import com.gammatunes.service.PlayerPanelService;
-import dev.arbjerg.lavalink.client.player.Track;
+import com.gammatunes.service.playback.PlaylistProgressService.PlaylistLoad;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -24,6 +32,9 @@ public class PlaybackService {
     private final PlayerRegistry playerRegistry;
     private final DiscordVoiceConnector discordVoiceConnector;
     private final PlayerPanelService playerPanelService;
+    private final PlaylistProgressService playlistProgressService;
+    private final FirstAudioTracker firstAudioTracker;
+    private final PlayerLifecycleManager playerLifecycleManager;
 
     public Mono<Void> pause(long guildId) {
         return playerRegistry.getOrCreate(guildId).flatMap(Player::pause);
@@ -58,14 +69,12 @@ public class PlaybackService {
 
     public Mono<Void> shuffle(long guildId) {
         return playerRegistry.getOrCreate(guildId)
-            .doOnNext(Player::shuffle)
-            .then();
+            .flatMap(Player::shuffle);
     }
 
     public Mono<Void> toggleRepeat(long guildId) {
         return playerRegistry.getOrCreate(guildId)
-            .doOnNext(Player::toggleRepeat)
-            .then();
+            .flatMap(Player::toggleRepeat);
     }
 
     public Mono<Boolean> getRepeat(long guildId) {
@@ -74,45 +83,140 @@ public class PlaybackService {
     }
 
     public Mono<Void> stop(long guildId) {
-        return playerRegistry.getOrCreate(guildId)
-            .flatMap(Player::stop)
+        return playerLifecycleManager.release(guildId, PlayerLifecycleManager.REASON_STOPPED);
+    }
+
+    public Mono<Void> play(PlaybackRequest request) {
+        return play(request, withRequester(request.tracks(), request.requesterInfo()));
+    }
+
+    /**
+     * Plays entries that arrive in batches, e.g. a playlist that is still being listed.
+     * The voice connection and the player are set up right away, concurrently with listing and resolving the first
+     * batch, so their latencies overlap instead of adding up. If nothing can be queued, a connection and player
+     * that were created for this request are torn down again once their setup has finished.
+     * <p>
+     * The first non-empty batch is played like a regular request, so playback starts as soon as it arrives;
+     * later batches are appended to the queue in order. While a playlist of unresolved entries is listed, the
+     * {@link PlaylistProgressService} reports its progress on the panel; the player resolves the entries as playback
+     * approaches them.
+     *
+     * @param guildId        The ID of the guild to play in.
+     * @param voiceChannelId The ID of the voice channel to connect to.
+     * @param batches        The batches, in source order.
+     * @param requestFor     Builds the playback request for a batch's entries.
+     * @return A Mono that completes once every batch has been queued.
+     */
+    public Mono<Void> playStreaming(
+        long guildId,
+        long voiceChannelId,
+        Flux<QueueEntryBatch> batches,
+        Function<List<QueueEntry>, PlaybackRequest> requestFor
+    ) {
+        return Mono.defer(() -> {
+            long commandedAt = System.nanoTime();
+            boolean connectedBefore = discordVoiceConnector.isConnected(guildId);
+
+            AtomicReference<PlayerRegistry.Acquired> acquired = new AtomicReference<>();
+            Mono<Player> ready = discordVoiceConnector.connect(guildId, voiceChannelId)
+                .then(playerRegistry.acquire(guildId))
+                .doOnNext(acquired::set)
+                .map(PlayerRegistry.Acquired::player)
+                .cache();
+            Disposable warmUp = ready.subscribe(
+                ignored -> { },
+                error -> log.debug("Voice setup failed for guild {}: {}", guildId, error.toString())
+            );
+
+            AtomicBoolean started = new AtomicBoolean();
+            AtomicReference<PlaylistLoad> load = new AtomicReference<>();
+            return batches
+                .filter(batch -> !batch.entries().isEmpty())
+                .index()
+                .concatMap(indexed -> {
+                    QueueEntryBatch batch = indexed.getT2();
+                    PlaybackRequest request = requestFor.apply(batch.entries());
+                    List<QueueEntry> entries = withRequester(request.tracks(), request.requesterInfo());
+
+                    Mono<Void> queued = indexed.getT1() == 0
+                        ? ready.flatMap(player -> {
+                                started.set(true);
+                                if (request.mode() == PlaybackMode.PLAY_NOW || player.getState() != PlayerState.PLAYING) {
+                                    firstAudioTracker.expect(guildId, commandedAt);
+                                }
+                                return play(player, entries, request);
+                            })
+                            .then(Mono.defer(() -> createPanelIfMissing(guildId, request.textChannel())))
+                        : ready.flatMap(player -> player.enqueueAll(entries));
+
+                    return queued.doOnSuccess(ignored -> {
+                        if (load.get() == null && entries.stream().anyMatch(entry -> !entry.isResolved())) {
+                            load.set(playlistProgressService.start(guildId, batch.total()));
+                        }
+                        if (load.get() != null) {
+                            load.get().offer(entries);
+                        }
+                    });
+                })
+                .count()
+                .flatMap(queuedBatches -> queuedBatches == 0
+                    ? Mono.error(new IllegalArgumentException("Nothing to play."))
+                    : Mono.<Void>empty())
+                .onErrorResume(error -> started.get()
+                    ? Mono.error(error)
+                    : ready.onErrorResume(ignored -> Mono.empty())
+                        .then(Mono.defer(() -> rollback(guildId, connectedBefore, acquired.get())))
+                        .then(Mono.error(error)))
+                .doOnCancel(warmUp::dispose)
+                .doFinally(signal -> {
+                    if (load.get() != null) {
+                        load.get().complete();
+                    }
+                });
+        });
+    }
+
+    /**
+     * Undoes the voice setup of a play request that could not queue anything, once that setup has settled.
+     * A player this request created is released with everything that belongs to it, unless another request has
+     * queued something on it meanwhile. Otherwise a connection that did not exist before the request is closed,
+     * but only while the guild has no player another request relies on.
+     */
+    private Mono<Void> rollback(long guildId, boolean connectedBefore, PlayerRegistry.Acquired acquired) {
+        firstAudioTracker.cancel(guildId);
+        if (acquired != null && acquired.created()) {
+            return playerLifecycleManager.releaseIf(
+                guildId,
+                PlayerLifecycleManager.REASON_ROLLBACK,
+                player -> player == acquired.player() && player.isEmpty()
+            );
+        }
+        Mono<Void> disconnect = connectedBefore || playerRegistry.exists(guildId)
+            ? Mono.empty()
+            : discordVoiceConnector.disconnect(guildId);
+        return disconnect
             .onErrorResume(error -> {
-                log.warn("Player stop failed for guild {}", guildId, error);
-                return Mono.empty();
-            })
-            .then(playerPanelService.deletePanel(guildId).onErrorResume(error -> {
-                log.warn("Panel delete failed for guild {}", guildId, error);
+                log.warn("Voice rollback failed for guild {}", guildId, error);
                 return Mono.empty();
-            }))
-            .then(discordVoiceConnector.disconnect(guildId))
-            .doFinally(signal -> playerRegistry.destroy(guildId));
+            });
     }
 
-    public Mono<Void> play(PlaybackRequest request) {
+    private Mono<Void> play(PlaybackRequest request, List<QueueEntry> entries) {
         return discordVoiceConnector.connect(request.guildId(), request.voiceChannelId())
             .then(playerRegistry.getOrCreate(request.guildId()))
-            .flatMap(player -> play(player, withRequester(request.tracks(), request.requesterInfo()), request.mode()))
+            .flatMap(player -> play(player, entries, request))
             .then(Mono.defer(() -> createPanelIfMissing(request.guildId(), request.textChannel())));
     }
 
-    private Mono<Void> play(Player player, List<Track> tracks, PlaybackMode mode) {
-        return switch (mode) {
+    private Mono<Void> play(Player player, List<QueueEntry> tracks, PlaybackRequest request) {
+        return switch (request.mode()) {
             case QUEUE -> tracks.size() == 1
                 ? player.play(tracks.getFirst())
                 : player.playAll(tracks);
-            case PLAY_NOW -> playNow(player, tracks);
+            case PLAY_NOW -> player.playNow(tracks, request.startPositionMs());
         };
     }
 
-    private Mono<Void> playNow(Player player, List<Track> tracks) {
-        if (tracks.size() == 1) {
-            return player.playNow(tracks.getFirst());
-        }
-
-        return player.playNow(tracks.getFirst())
-            .then(Mono.defer(() -> player.playAll(tracks.subList(1, tracks.size()))));
-    }
-
     private Mono<Void> createPanelIfMissing(long guildId, TextChannel textChannel) {
         if (textChannel == null || playerPanelService.getMessage(guildId).isPresent()) {
             return Mono.empty();
@@ -120,7 +224,7 @@ public class PlaybackService {
         return playerPanelService.createPanel(guildId, textChannel);
     }
 
-    private List<Track> withRequester(List<Track> tracks, RequesterInfo requesterInfo) {
+    private List<QueueEntry> withRequester(List<QueueEntry> tracks, RequesterInfo requesterInfo) {
         if (requesterInfo == null) {
             return tracks;
         }
@@ -130,14 +234,13 @@ public class PlaybackService {
             .toList();
     }
 
-    private Track attachRequester(Track track, RequesterInfo requesterInfo) {
+    private QueueEntry attachRequester(QueueEntry track, RequesterInfo requesterInfo) {
         ObjectNode node = JsonNodeFactory.instance.objectNode();
         node.put("userId", requesterInfo.userId());
         node.put("displayName", requesterInfo.displayName());
         if (requesterInfo.avatarUrl() != null) {
             node.put("avatarUrl", requesterInfo.avatarUrl());
         }
-        track.setUserData(node);
-        return track;
+        return track.withUserData(node);
     }
 }
@@ -0,0 +1,169 @@
+package com.gammatunes.service.playback;
+
+import com.gammatunes.component.audio.core.Player;
+import com.gammatunes.component.audio.core.PlayerRegistry;
+import com.gammatunes.component.audio.core.PlayerStateStore;
+import com.gammatunes.component.discord.DiscordVoiceConnector;
+import com.gammatunes.component.guild.GuildContexts;
+import com.gammatunes.service.PlayerPanelService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Owns the end of a guild player's life.
+ * Players that have not played or changed for the idle TTL are reaped periodically, and every other teardown
+ * (stop, a failed play request) goes through {@link #release} as well, so a guild's panel, voice connection,
+ * Lavalink player and all per-guild state are always cleaned up together.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlayerLifecycleManager {
+
+    /** rough fixed cost of a player with its mailbox, scheduler and cached state, excluding the queue */
+    private static final long PLAYER_OVERHEAD_BYTES = 4_096L;
+
+    public static final String REASON_IDLE = "idle";
+    public static final String REASON_STOPPED = "stopped";
+    public static final String REASON_ROLLBACK = "rollback";
+
+    private final GuildContexts guildContexts;
+    private final PlayerRegistry playerRegistry;
+    private final PlayerStateStore playerStateStore;
+    private final PlayerPanelService playerPanelService;
+    private final DiscordVoiceConnector discordVoiceConnector;
+    private final FirstAudioTracker firstAudioTracker;
+    private final PlayerLifecycleMetrics playerLifecycleMetrics;
+
+    @Value("${gamma.bot.player.idle-ttl-ms:600000}")
+    private long idleTtlMs;
+
+    /** guilds whose release is in progress */
+    private final Set<Long> releasing = ConcurrentHashMap.newKeySet();
+
+    /** estimated bytes reclaimed by all releases so far */
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        playerLifecycleMetrics.registerLivePlayers(playerRegistry);
+        playerLifecycleMetrics.registerReclaimedBytes(reclaimedBytes);
+    }
+
+    /**
+     * Releases every player that has been idle for longer than the idle TTL.
+     * Idleness is checked again from within the player's mailbox, so a player that a command made active again
+     * after the first check is kept.
+     */
+    @Scheduled(fixedDelayString = "${gamma.bot.player.reap-interval-ms:60000}")
+    void reapIdlePlayers() {
+        Duration ttl = Duration.ofMillis(idleTtlMs);
+        for (Player player : playerRegistry.players()) {
+            if (player.isIdleFor(ttl)) {
+                long guildId = player.getGuildId();
+                log.info("Reaping player idle for over {}s in guild {}", ttl.toSeconds(), guildId);
+                releaseIf(guildId, REASON_IDLE, current -> current == player && current.isIdleFor(ttl)).subscribe(
+                    ignored -> { },
+                    error -> log.warn("Reaping player failed for guild {}", guildId, error)
+                );
+            }
+        }
+    }
+
+    /**
+     * Tears down everything a guild holds: destroys the player on the Lavalink node, deletes the panel, leaves
+     * voice and forgets the guild's player, state and panel bookkeeping. Failures of single steps are logged and
+     * do not stop the remaining ones. A release that is already running for the guild is not repeated.
+     *
+     * @param guildId The ID of the guild to release.
+     * @param reason  Why the guild is released, used as a metric tag.
+     * @return A Mono that completes when the guild has been released.
+     */
+    public Mono<Void> release(long guildId, String reason) {
+        return releaseIf(guildId, reason, player -> true);
+    }
+
+    /**
+     * Tears down everything a guild holds, like {@link #release}, but only if the condition holds for the guild's
+     * player. The condition is checked from within the player's mailbox before anything else is torn down, so a
+     * command that made the player busy again in the meantime keeps the guild alive. The player is unregistered in
+     * the same command, so later requests create a fresh player instead of using the released one; the panel and
+     * the voice connection are left alone if such a player appeared by the time they would be torn down.
+     *
+     * @param guildId   The ID of the guild to release.
+     * @param reason    Why the guild is released, used as a metric tag.
+     * @param condition Checked for the guild's player from within its mailbox; a guild without a player is
+     *                  always released.
+     * @return A Mono that completes when the guild has been released or kept.
+     */
+    public Mono<Void> releaseIf(long guildId, String reason, Predicate<Player> condition) {
+        return Mono.defer(() -> {
+            if (!releasing.add(guildId)) {
+                return Mono.empty();
+            }
+            return playerRegistry.get(guildId)
+                .flatMap(player -> player.releaseIf(condition, () -> playerRegistry.destroy(guildId))
+                    .map(queueBytes -> queueBytes + PLAYER_OVERHEAD_BYTES)
+                    .doOnNext(bytes -> {
+                        reclaimedBytes.addAndGet(bytes);
+                        log.debug("Released player for guild {} ({}), ~{} bytes", guildId, reason, bytes);
+                    })
+                    .map(ignored -> true)
+                    .onErrorResume(error -> {
+                        log.warn("Player release failed for guild {}", guildId, error);
+                        return Mono.just(true);
+                    })
+                    .defaultIfEmpty(false))
+                .defaultIfEmpty(true)
+                .flatMap(released -> released ? tearDown(guildId, reason) : Mono.empty())
+                .doFinally(signal -> releasing.remove(guildId));
+        });
+    }
+
+    /**
+     * Deletes the panel, leaves voice and forgets the guild once its player is gone, unless a new player was
+     * created for the guild in the meantime.
+     */
+    private Mono<Void> tearDown(long guildId, String reason) {
+        return Mono.defer(() -> {
+            playerLifecycleMetrics.recordReleased(reason);
+            if (playerRegistry.exists(guildId)) {
+                log.debug("Guild {} got a new player while being released; keeping its panel and voice", guildId);
+                return Mono.empty();
+            }
+            return playerPanelService.deletePanel(guildId)
+                .onErrorResume(error -> {
+                    log.warn("Panel delete failed for guild {}", guildId, error);
+                    return Mono.empty();
+                })
+                .then(discordVoiceConnector.disconnect(guildId)
+                    .onErrorResume(error -> {
+                        log.warn("Voice disconnect failed for guild {}", guildId, error);
+                        return Mono.empty();
+                    }))
+                .doFinally(signal -> forget(guildId));
+        });
+    }
+
+    /**
+     * Drops every per-guild structure that outlives a single request, then the guild's context itself unless
+     * it still holds Spotify control state.
+     */
+    private void forget(long guildId) {
+        playerStateStore.clear(guildId);
+        playerPanelService.forget(guildId);
+        firstAudioTracker.cancel(guildId);
+        guildContexts.evictIfUnused(guildId);
+    }
+}
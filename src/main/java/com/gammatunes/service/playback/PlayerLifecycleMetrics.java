@@ -0,0 +1,47 @@
+package com.gammatunes.service.playback;
+
+import com.gammatunes.component.audio.core.PlayerRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Component for recording metrics related to the lifecycle of guild players.
+ * It uses Micrometer to expose how many players are alive and how much memory releasing players gave back.
+ */
+@Component
+public record PlayerLifecycleMetrics(MeterRegistry meterRegistry) {
+
+    /**
+     * Registers a gauge that reports the number of live players.
+     *
+     * @param playerRegistry The registry holding the players.
+     */
+    public void registerLivePlayers(PlayerRegistry playerRegistry) {
+        meterRegistry.gauge("bot.player.live", playerRegistry, PlayerRegistry::size);
+    }
+
+    /**
+     * Registers a counter that reports the estimated number of bytes reclaimed by releasing players so far.
+     * The caller must keep a strong reference to the total; Micrometer only holds it weakly.
+     *
+     * @param reclaimedBytes The running total of reclaimed bytes.
+     */
+    public void registerReclaimedBytes(AtomicLong reclaimedBytes) {
+        FunctionCounter.builder("bot.player.reclaimed_bytes", reclaimedBytes, AtomicLong::doubleValue)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Increments the counter for released players.
+     *
+     * @param reason Why the player was released, e.g. "idle" or "stopped".
+     */
+    public void recordReleased(String reason) {
+        meterRegistry.counter("bot.player.released", Tags.of("reason", reason)).increment();
+    }
+}
@@ -0,0 +1,25 @@
+package com.gammatunes.service.playback;
+
+/**
+ * Snapshot of a playlist that is being loaded in the background.
+ *
+ * @param listed The number of entries listed and queued so far.
+ * @param total  The expected number of entries.
+ */
+public record PlaylistProgress(int listed, int total) {
+
+    public boolean isComplete() {
+        return listed >= total;
+    }
+
+    /**
+     * Describes the progress as a panel status line.
+     *
+     * @return A human-readable status.
+     */
+    public String describe() {
+        return isComplete()
+            ? String.format("✅ Playlist ready: %d tracks", listed)
+            : String.format("📥 Loading playlist: %d/%d queued", listed, total);
+    }
+}
@@ -0,0 +1,109 @@
+package com.gammatunes.service.playback;
+
+import com.gammatunes.component.audio.core.PlayerRegistry;
+import com.gammatunes.component.audio.queue.QueueEntry;
+import com.gammatunes.service.PlayerPanelService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reports the progress of a streamed playlist as the panel status while its batches are listed and queued.
+ * Resolving the queued placeholders is left to the player, which only resolves a bounded window ahead of the play
+ * cursor, so a long playlist costs a handful of lookups at a time instead of one per entry up front.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlaylistProgressService {
+
+    private final PlayerRegistry playerRegistry;
+    private final PlayerPanelService playerPanelService;
+
+    @Value("${gamma.bot.playlist.progress-interval-ms:2000}")
+    private long progressIntervalMs;
+
+    /**
+     * Starts reporting the progress of a playlist that is being loaded into a guild's player.
+     *
+     * @param guildId The ID of the guild the playlist is queued in.
+     * @param total   The expected number of entries.
+     * @return A handle that accepts the playlist's entries as they are queued.
+     */
+    public PlaylistLoad start(long guildId, int total) {
+        PlaylistLoad load = new PlaylistLoad(guildId, total);
+        load.run();
+        return load;
+    }
+
+    /**
+     * Progress of one playlist load.
+     * {@link #offer} and {@link #complete} must be called from a single producer, in playlist order.
+     */
+    public final class PlaylistLoad {
+
+        private final long guildId;
+        private final Sinks.Many<Integer> queued = Sinks.many().unicast().onBackpressureBuffer();
+        private final AtomicInteger listed = new AtomicInteger();
+        private volatile int total;
+
+        private PlaylistLoad(long guildId, int total) {
+            this.guildId = guildId;
+            this.total = total;
+        }
+
+        /**
+         * Counts entries that were queued.
+         *
+         * @param entries The entries just added to the player, in playlist order.
+         */
+        public void offer(List<QueueEntry> entries) {
+            queued.tryEmitNext(listed.addAndGet(entries.size()));
+        }
+
+        /**
+         * Signals that the playlist has been listed completely.
+         */
+        public void complete() {
+            total = listed.get();
+            queued.tryEmitComplete();
+        }
+
+        public PlaylistProgress progress() {
+            return new PlaylistProgress(listed.get(), total);
+        }
+
+        private void run() {
+            queued.asFlux()
+                .takeWhile(ignored -> playerRegistry.exists(guildId))
+                .map(ignored -> progress())
+                .sample(Duration.ofMillis(progressIntervalMs))
+                .concatMap(this::publish)
+                .then(Mono.defer(() -> publish(progress())))
+                .subscribe(
+                    ignored -> { },
+                    error -> log.warn("Playlist progress failed for guild {}: {}", guildId, error.toString())
+                );
+        }
+
+        private Mono<Void> publish(PlaylistProgress progress) {
+            if (!playerRegistry.exists(guildId)) {
+                return Mono.empty();
+            }
+            log.debug("Playlist progress guild={} {}", guildId, progress);
+            return playerPanelService.setStatusNoRefresh(guildId, progress.describe())
+                .then(playerPanelService.refreshPanel(guildId))
+                .onErrorResume(error -> {
+                    log.debug("Playlist progress publish failed for guild {}: {}", guildId, error.toString());
+                    return Mono.empty();
+                });
+        }
+    }
+}
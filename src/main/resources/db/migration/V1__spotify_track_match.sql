@@ -0,0 +1,10 @@
+create table if not exists spotify_track_match (
+    spotify_track_id varchar(64)              not null primary key,
+    isrc             varchar(16),
+    encoded_track    text                     not null,
+    title            varchar(255),
+    author           varchar(255),
+    matched_at       timestamp with time zone not null
+);
+
+create index if not exists idx_spotify_track_match_isrc on spotify_track_match (isrc);
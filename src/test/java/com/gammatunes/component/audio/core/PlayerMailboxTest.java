@@ -0,0 +1,75 @@
+package com.gammatunes.component.audio.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlayerMailboxTest {
+
+    private final Scheduler scheduler = Schedulers.newSingle("mailbox-test");
+
+    @AfterEach
+    void disposeScheduler() {
+        scheduler.dispose();
+    }
+
+    @Test
+    void stuckCommandTimesOutAndDoesNotBlockTheQueue() throws InterruptedException {
+        PlayerMailbox mailbox = new PlayerMailbox(1L, scheduler, Duration.ofMillis(200));
+        AtomicBoolean stuckCancelled = new AtomicBoolean();
+        AtomicReference<Throwable> stuckError = new AtomicReference<>();
+        CountDownLatch stuckDone = new CountDownLatch(1);
+
+        mailbox.<Void>submit(() -> Mono.<Void>never().doOnCancel(() -> stuckCancelled.set(true)))
+            .subscribe(ignored -> { }, error -> {
+                stuckError.set(error);
+                stuckDone.countDown();
+            });
+
+        StepVerifier.create(mailbox.submit(() -> Mono.just("stop")))
+            .expectNext("stop")
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+
+        assertTrue(stuckDone.await(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, stuckError.get());
+        assertTrue(stuckCancelled.get());
+    }
+
+    @Test
+    void commandsRunInSubmissionOrderAfterAFailure() {
+        PlayerMailbox mailbox = new PlayerMailbox(1L, scheduler, Duration.ofSeconds(5));
+        List<String> runs = Collections.synchronizedList(new ArrayList<>());
+
+        Mono<Void> failing = mailbox.submit(() -> {
+            runs.add("failing");
+            throw new IllegalStateException("boom");
+        });
+        Mono<Void> slow = mailbox.submit(() -> Mono.delay(Duration.ofMillis(50))
+            .doOnNext(ignored -> runs.add("slow"))
+            .then());
+        Mono<Void> last = mailbox.submit(() -> Mono.fromRunnable(() -> runs.add("last")));
+
+        StepVerifier.create(failing).expectError(IllegalStateException.class).verify(Duration.ofSeconds(5));
+        StepVerifier.create(Mono.when(slow, last)).expectComplete().verify(Duration.ofSeconds(5));
+
+        assertEquals(List.of("failing", "slow", "last"), runs);
+    }
+}
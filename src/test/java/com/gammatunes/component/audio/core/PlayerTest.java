@@ -0,0 +1,95 @@
+package com.gammatunes.component.audio.core;
+
+import com.gammatunes.component.audio.queue.QueueEntry;
+import com.gammatunes.component.lavalink.NodePlayer;
+import com.gammatunes.component.lavalink.PlayerUpdate;
+import dev.arbjerg.lavalink.client.player.Track;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlayerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final Scheduler scheduler = Schedulers.newSingle("player-test");
+    private final NodePlayer nodePlayer = mock(NodePlayer.class);
+    private final Track track = mock(Track.class);
+    private Player player;
+
+    @BeforeEach
+    void createPlayer() {
+        when(nodePlayer.guildId()).thenReturn(1L);
+        when(nodePlayer.update(any())).thenReturn(Mono.empty());
+        when(nodePlayer.play(any(), anyInt())).thenReturn(Mono.empty());
+        when(nodePlayer.seek(anyLong())).thenReturn(Mono.empty());
+        player = new Player(nodePlayer, mock(PlayerStateStore.class), scheduler, 3, 0, 15_000L, TIMEOUT, TIMEOUT);
+    }
+
+    @AfterEach
+    void disposeScheduler() {
+        scheduler.dispose();
+    }
+
+    @Test
+    void playAtPositionSendsOneUpdateAndStartsAtThePosition() {
+        player.playNow(List.of(entry()), 42_000L).block(TIMEOUT);
+
+        ArgumentCaptor<PlayerUpdate> update = ArgumentCaptor.forClass(PlayerUpdate.class);
+        verify(nodePlayer).update(update.capture());
+        assertSame(track, update.getValue().track());
+        assertEquals(42_000L, update.getValue().positionMs());
+        assertEquals(100, update.getValue().volume());
+
+        player.markTrackStarted().block(TIMEOUT);
+        long positionMs = player.getPositionMs();
+        assertTrue(positionMs >= 42_000L && positionMs < 47_000L, "position " + positionMs);
+    }
+
+    @Test
+    void playWithoutPositionStartsAtZero() {
+        player.playNow(List.of(entry())).block(TIMEOUT);
+
+        verify(nodePlayer).play(track, 100);
+        verify(nodePlayer, never()).update(any());
+
+        player.markTrackStarted().block(TIMEOUT);
+        assertTrue(player.getPositionMs() < 5_000L);
+    }
+
+    @Test
+    void positionReportsDoNotKeepAPlayerActiveButSeeksDo() throws InterruptedException {
+        Duration ttl = Duration.ofMillis(50);
+        Thread.sleep(ttl.toMillis() + 20);
+
+        player.updatePosition(1_000L).block(TIMEOUT);
+        assertTrue(player.isIdleFor(ttl));
+
+        player.seek(2_000L).block(TIMEOUT);
+        assertFalse(player.isIdleFor(ttl));
+    }
+
+    private QueueEntry entry() {
+        return QueueEntry.pending("id", "Title", "Author", "https://example.com/id", null, 180_000L,
+            () -> Mono.just(track));
+    }
+}
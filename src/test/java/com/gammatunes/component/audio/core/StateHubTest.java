@@ -0,0 +1,150 @@
+package com.gammatunes.component.audio.core;
+
+import com.gammatunes.component.audio.events.PlayerPosition;
+import com.gammatunes.component.guild.GuildContext;
+import com.gammatunes.component.guild.GuildContexts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateHubTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GuildContexts guildContexts = new GuildContexts();
+    private final StateHub<PlayerPosition> hub = new StateHub<>("position", guildContexts,
+        GuildContext::getPositionCell, new StateHubMetrics(meterRegistry));
+
+    @Test
+    void slowSubscriberReceivesOnlyTheLatestValueOfEachGuild() {
+        guildContexts.getOrCreate(1L);
+        guildContexts.getOrCreate(2L);
+
+        StepVerifier.create(hub.streamAll(), 0)
+            .then(() -> {
+                hub.publish(1L, position(1L, 1));
+                hub.publish(1L, position(1L, 2));
+                hub.publish(2L, position(2L, 1));
+                hub.publish(1L, position(1L, 3));
+            })
+            .expectNoEvent(Duration.ofMillis(50))
+            .thenRequest(2)
+            .expectNext(position(1L, 3), position(2L, 1))
+            .thenCancel()
+            .verify(Duration.ofSeconds(5));
+
+        assertEquals(2.0, meterRegistry.counter("bot.state.emissions", "stream", "position", "outcome", "conflated").count());
+    }
+
+    @Test
+    void drainStopsAtTheRequestedDemand() {
+        for (long guildId = 1; guildId <= 3; guildId++) {
+            guildContexts.getOrCreate(guildId);
+        }
+
+        StepVerifier.create(hub.streamAll(), 1)
+            .then(() -> {
+                hub.publish(1L, position(1L, 1));
+                hub.publish(2L, position(2L, 1));
+                hub.publish(3L, position(3L, 1));
+            })
+            .expectNext(position(1L, 1))
+            .expectNoEvent(Duration.ofMillis(50))
+            .thenRequest(1)
+            .expectNext(position(2L, 1))
+            .expectNoEvent(Duration.ofMillis(50))
+            .thenRequest(1)
+            .expectNext(position(3L, 1))
+            .thenCancel()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void concurrentPublishersEndOnTheirLastValue() throws Exception {
+        int guilds = 8;
+        int updates = 5_000;
+        for (long guildId = 0; guildId < guilds; guildId++) {
+            guildContexts.getOrCreate(guildId);
+        }
+        Map<Long, Long> lastSeen = new ConcurrentHashMap<>();
+        AtomicBoolean wentBackwards = new AtomicBoolean();
+        Disposable subscription = hub.streamAll().subscribe(position -> {
+            Long previous = lastSeen.put(position.guildId(), position.positionMs());
+            if (previous != null && previous > position.positionMs()) {
+                wentBackwards.set(true);
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(guilds);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] publishers = new Future<?>[guilds];
+            for (int i = 0; i < guilds; i++) {
+                long guildId = i;
+                publishers[i] = executor.submit(() -> {
+                    start.await();
+                    for (int update = 1; update <= updates; update++) {
+                        hub.publish(guildId, position(guildId, update));
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> publisher : publishers) {
+                publisher.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            subscription.dispose();
+        }
+
+        assertFalse(wentBackwards.get());
+        for (long guildId = 0; guildId < guilds; guildId++) {
+            assertEquals((long) updates, lastSeen.get(guildId), "guild " + guildId);
+        }
+    }
+
+    @Test
+    void guildSubscriptionKeepsItsContextUntilReleased() {
+        Disposable subscription = hub.stream(1L).subscribe();
+        assertFalse(guildContexts.evictIfUnused(1L));
+        assertTrue(hub.isObserved(1L));
+
+        subscription.dispose();
+
+        assertNull(guildContexts.get(1L));
+        assertFalse(hub.isObserved(1L));
+    }
+
+    @Test
+    void publishWithoutAContextIsDropped() {
+        hub.publish(1L, position(1L, 1));
+
+        assertNull(guildContexts.get(1L));
+        assertNull(hub.latest(1L));
+
+        guildContexts.getOrCreate(1L);
+        hub.publish(1L, position(1L, 2));
+        assertNotNull(hub.latest(1L));
+    }
+
+    private static PlayerPosition position(long guildId, long positionMs) {
+        return new PlayerPosition(guildId, positionMs, 180_000L);
+    }
+}
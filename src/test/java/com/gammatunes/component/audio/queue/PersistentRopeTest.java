@@ -0,0 +1,70 @@
+package com.gammatunes.component.audio.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentRopeTest {
+
+    @Test
+    void randomEditsMatchArrayListReference() {
+        Random random = new Random(42);
+        PersistentRope<Integer> rope = PersistentRope.empty();
+        List<Integer> reference = new ArrayList<>();
+
+        for (int step = 0; step < 2_000; step++) {
+            int value = random.nextInt();
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    rope = rope.append(value);
+                    reference.add(value);
+                }
+                case 1 -> {
+                    int index = random.nextInt(reference.size() + 1);
+                    rope = rope.insert(index, value);
+                    reference.add(index, value);
+                }
+                case 2 -> {
+                    List<Integer> batch = IntStream.range(0, random.nextInt(40)).boxed().toList();
+                    rope = rope.appendAll(batch);
+                    reference.addAll(batch);
+                }
+                default -> {
+                    int start = random.nextInt(reference.size() + 1);
+                    List<Integer> tail = new ArrayList<>(rope.slice(start, rope.size()));
+                    Collections.shuffle(tail, random);
+                    rope = rope.take(start).appendAll(tail);
+                    reference = new ArrayList<>(reference.subList(0, start));
+                    reference.addAll(tail);
+                }
+            }
+            assertEquals(reference, rope.asList());
+        }
+    }
+
+    @Test
+    void slicesStayValidAfterLaterEdits() {
+        PersistentRope<String> rope = PersistentRope.of(List.of("a", "b", "c", "d"));
+        List<String> snapshot = rope.slice(1, 3);
+
+        rope = rope.insert(1, "x").append("e");
+
+        assertEquals(List.of("b", "c"), snapshot);
+        assertEquals(List.of("a", "x", "b", "c", "d", "e"), rope.asList());
+        assertEquals("c", snapshot.subList(1, 2).getFirst());
+    }
+
+    @Test
+    void slicesAreUnmodifiable() {
+        List<String> slice = PersistentRope.of(List.of("a", "b")).asList();
+
+        assertThrows(UnsupportedOperationException.class, () -> slice.add("c"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.gammatunes.component.audio.queue;
+
+import com.gammatunes.component.audio.events.PlayerUIState;
+import com.gammatunes.component.audio.events.QueueDelta;
+import com.gammatunes.model.domain.PlayerState;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueueReplicaTest {
+
+    private static final long GUILD_ID = 1L;
+
+    @Test
+    void replicaFollowsSchedulerThroughRandomEdits() {
+        Random random = new Random(11);
+        TrackScheduler scheduler = new TrackScheduler(GUILD_ID, () -> true);
+        QueueReplica replica = new QueueReplica();
+        replica.reset(snapshot(scheduler));
+
+        for (int step = 0; step < 2_000; step++) {
+            switch (random.nextInt(8)) {
+                case 0 -> scheduler.enqueue(entry(step));
+                case 1 -> scheduler.enqueueAll(IntStream.range(0, random.nextInt(20))
+                    .mapToObj(i -> entry(i)).toList());
+                case 2 -> scheduler.push(entry(step));
+                case 3 -> scheduler.next();
+                case 4 -> scheduler.previous();
+                case 5 -> scheduler.shuffle();
+                case 6 -> scheduler.jumpToIndex(random.nextInt(scheduler.size() + 1));
+                default -> {
+                    if (random.nextInt(20) == 0) scheduler.clearAll();
+                }
+            }
+            for (QueueDelta delta : scheduler.drainDeltas()) {
+                assertTrue(replica.apply(delta), "delta " + delta + " should follow version " + replica.getVersion());
+            }
+            assertEquals(allTracks(scheduler), replica.getTracks());
+            assertEquals(currentIndex(scheduler), replica.getCurrentIndex());
+            assertEquals(scheduler.getVersion(), replica.getVersion());
+        }
+    }
+
+    @Test
+    void changesWhileUnobservedAreAGapThatASnapshotResolves() {
+        AtomicBoolean observed = new AtomicBoolean(true);
+        TrackScheduler scheduler = new TrackScheduler(GUILD_ID, observed::get);
+        QueueReplica replica = new QueueReplica();
+
+        scheduler.enqueue(entry(1));
+        scheduler.drainDeltas();
+        replica.reset(snapshot(scheduler));
+
+        observed.set(false);
+        scheduler.enqueueAll(List.of(entry(2), entry(3)));
+        assertTrue(scheduler.drainDeltas().isEmpty());
+
+        observed.set(true);
+        scheduler.enqueue(entry(4));
+        List<QueueDelta> deltas = scheduler.drainDeltas();
+        assertEquals(1, deltas.size());
+        assertFalse(replica.apply(deltas.getFirst()));
+
+        replica.reset(snapshot(scheduler));
+        assertEquals(allTracks(scheduler), replica.getTracks());
+        assertEquals(scheduler.getVersion(), replica.getVersion());
+    }
+
+    private static PlayerUIState snapshot(TrackScheduler scheduler) {
+        return new PlayerUIState(
+            GUILD_ID,
+            PlayerState.PLAYING,
+            100,
+            false,
+            scheduler.getCurrentTrack().orElse(null),
+            scheduler.getQueue(),
+            scheduler.getHistory(),
+            scheduler.getVersion()
+        );
+    }
+
+    private static List<QueueEntry> allTracks(TrackScheduler scheduler) {
+        List<QueueEntry> all = new ArrayList<>(scheduler.getHistory());
+        scheduler.getCurrentTrack().ifPresent(all::add);
+        all.addAll(scheduler.getQueue());
+        return all;
+    }
+
+    private static int currentIndex(TrackScheduler scheduler) {
+        return scheduler.getCurrentTrack().isPresent() ? scheduler.getHistory().size() : -1;
+    }
+
+    private static QueueEntry entry(int id) {
+        return QueueEntry.pending("id-" + id, "Title " + id, "Author", "https://example.com/" + id, null, 180_000L,
+            Mono::empty);
+    }
+}
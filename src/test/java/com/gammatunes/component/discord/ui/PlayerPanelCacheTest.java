@@ -0,0 +1,40 @@
+package com.gammatunes.component.discord.ui;
+
+import com.gammatunes.component.discord.ui.panel.PlayerPanel;
+import com.gammatunes.component.guild.GuildContexts;
+import com.gammatunes.model.dto.MessageRef;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PlayerPanelCacheTest {
+
+    private static final long GUILD_ID = 1L;
+
+    private final GuildContexts guildContexts = new GuildContexts();
+    private final PlayerPanelCache cache = new PlayerPanelCache(guildContexts);
+
+    @Test
+    void bookkeepingAfterReleaseDoesNotBringTheContextBack() {
+        cache.setStatus(GUILD_ID, "Playing");
+        cache.setBarIdx(GUILD_ID, 3);
+        cache.setEditTs(GUILD_ID, 1L);
+        cache.setWriteTs(GUILD_ID, 1L);
+        cache.setHashes(GUILD_ID, new PlayerPanel.Hashes(1, 2));
+
+        assertNull(guildContexts.get(GUILD_ID));
+    }
+
+    @Test
+    void panelMessageCreatesTheContext() {
+        MessageRef ref = new MessageRef(GUILD_ID, 2L, 3L);
+        cache.putMessage(GUILD_ID, ref);
+        cache.setWriteTs(GUILD_ID, 42L);
+
+        assertNotNull(guildContexts.get(GUILD_ID));
+        assertEquals(ref, cache.getMessage(GUILD_ID).orElseThrow());
+        assertEquals(42L, cache.getWriteTs(GUILD_ID));
+    }
+}
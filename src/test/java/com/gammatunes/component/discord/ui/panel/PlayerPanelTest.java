@@ -0,0 +1,41 @@
+package com.gammatunes.component.discord.ui.panel;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.components.actionrow.ActionRow;
+import net.dv8tion.jda.api.components.buttons.Button;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class PlayerPanelTest {
+
+    @Test
+    void panelsRenderedAlikeHashAlike() {
+        assertEquals(panel("Song", "player:pause").hashes(), panel("Song", "player:pause").hashes());
+    }
+
+    @Test
+    void eachPartIsHashedOnItsOwn() {
+        PlayerPanel.Hashes playing = panel("Song", "player:pause").hashes();
+        PlayerPanel.Hashes paused = panel("Song", "player:resume").hashes();
+        PlayerPanel.Hashes next = panel("Other song", "player:pause").hashes();
+
+        assertEquals(playing.embed(), paused.embed());
+        assertNotEquals(playing.components(), paused.components());
+        assertNotEquals(playing.embed(), next.embed());
+        assertEquals(playing.components(), next.components());
+    }
+
+    private static PlayerPanel panel(String title, String toggleId) {
+        return new PlayerPanel(
+            new EmbedBuilder().setTitle(title).setDescription("by Author").build(),
+            List.of(ActionRow.of(
+                Button.secondary("player:previous", "Previous"),
+                Button.primary(toggleId, "Toggle"),
+                Button.secondary("player:skip", "Skip")))
+        );
+    }
+}
@@ -0,0 +1,74 @@
+package com.gammatunes.component.guild;
+
+import com.gammatunes.component.spotify.control.SpotifyControlPlaybackState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GuildContextsTest {
+
+    private static final long GUILD_ID = 1L;
+
+    @Test
+    void writeToARetiredContextGoesToItsSuccessor() {
+        GuildContexts guildContexts = new GuildContexts();
+        GuildContext retired = guildContexts.getOrCreate(GUILD_ID);
+        assertTrue(guildContexts.evictIfUnused(GUILD_ID));
+        assertFalse(retired.writeIfLive(context -> context.setPanelStatus("lost")));
+
+        GuildContext written = guildContexts.update(GUILD_ID, context -> context.setPanelStatus("kept"));
+
+        assertNotSame(retired, written);
+        assertSame(written, guildContexts.get(GUILD_ID));
+        assertEquals("kept", written.getPanelStatus());
+    }
+
+    @Test
+    void writesRacingWithEvictionAreNeverLost() throws Exception {
+        GuildContexts guildContexts = new GuildContexts();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> evictor = executor.submit(() -> {
+                while (running.get()) {
+                    guildContexts.evictIfUnused(GUILD_ID);
+                }
+            });
+
+            for (int i = 0; i < 20_000; i++) {
+                SpotifyControlPlaybackState state = new SpotifyControlPlaybackState(GUILD_ID, "track-" + i, true, Instant.EPOCH);
+                guildContexts.update(GUILD_ID, context -> context.setSpotifyPlaybackState(state));
+
+                GuildContext context = guildContexts.get(GUILD_ID);
+                assertSame(state, context == null ? null : context.getSpotifyPlaybackState(), "write " + i + " was lost");
+
+                context.setSpotifyPlaybackState(null);
+            }
+
+            running.set(false);
+            evictor.get();
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void computeReturnsTheWritesResult() {
+        GuildContexts guildContexts = new GuildContexts();
+
+        assertTrue(guildContexts.compute(GUILD_ID, GuildContext::tryBeginSpotifySync));
+        assertFalse(guildContexts.evictIfUnused(GUILD_ID));
+        assertFalse(guildContexts.compute(GUILD_ID, GuildContext::tryBeginSpotifySync));
+    }
+}
@@ -0,0 +1,88 @@
+package com.gammatunes.component.guild;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedLongMapTest {
+
+    @Test
+    void randomEditsMatchHashMapReference() {
+        Random random = new Random(7);
+        StripedLongMap<String> map = new StripedLongMap<>();
+        Map<Long, String> reference = new HashMap<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            // a small key space with snowflake-like high bits forces collisions, growth and shrinking
+            long key = (random.nextInt(500) + 1_000L) << 22;
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key) != null, map.remove(key));
+            } else {
+                String value = "v" + step;
+                String expected = reference.computeIfAbsent(key, ignored -> value);
+                assertEquals(expected, map.computeIfAbsent(key, ignored -> value));
+            }
+            long probe = (random.nextInt(500) + 1_000L) << 22;
+            assertEquals(reference.get(probe), map.get(probe));
+        }
+
+        assertEquals(reference.size(), map.size());
+        assertEquals(reference.values().stream().sorted().toList(), map.values().stream().sorted().toList());
+    }
+
+    @Test
+    void removeIfOnlyRemovesMatchingValue() {
+        StripedLongMap<String> map = new StripedLongMap<>();
+        map.computeIfAbsent(42L, ignored -> "kept");
+
+        assertFalse(map.removeIf(42L, "other"::equals));
+        assertEquals("kept", map.get(42L));
+        assertTrue(map.removeIf(42L, "kept"::equals));
+        assertNull(map.get(42L));
+        assertFalse(map.removeIf(42L, ignored -> true));
+    }
+
+    @Test
+    void concurrentCreatorsShareOneValue() throws Exception {
+        StripedLongMap<Object> map = new StripedLongMap<>();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Object>>> results = IntStream.range(0, threads)
+                .mapToObj(ignored -> executor.submit(() -> {
+                    start.await();
+                    return IntStream.range(0, 1_000)
+                        .mapToObj(key -> map.computeIfAbsent(key, id -> new Object()))
+                        .toList();
+                }))
+                .toList();
+            start.countDown();
+
+            List<Object> first = results.getFirst().get();
+            for (Future<List<Object>> result : results) {
+                List<Object> values = result.get();
+                for (int key = 0; key < values.size(); key++) {
+                    assertSame(first.get(key), values.get(key));
+                }
+            }
+            assertEquals(1_000, map.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.gammatunes.component.lavalink;
+
+import dev.arbjerg.lavalink.client.player.Track;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class PlayerUpdateTest {
+
+    private final Track first = mock(Track.class);
+    private final Track second = mock(Track.class);
+
+    @Test
+    void laterFieldsWinAndUnsetFieldsAreKept() {
+        PlayerUpdate merged = PlayerUpdate.create().withVolume(50).withPaused(true)
+            .merge(PlayerUpdate.create().withVolume(80));
+
+        assertFalse(merged.trackSet());
+        assertEquals(80, merged.volume());
+        assertEquals(true, merged.paused());
+        assertNull(merged.positionMs());
+    }
+
+    @Test
+    void trackChangeFollowedBySeekBecomesPlayAtPosition() {
+        PlayerUpdate merged = PlayerUpdate.create().withTrack(first).withVolume(100)
+            .merge(PlayerUpdate.create().withPosition(30_000L));
+
+        assertTrue(merged.trackSet());
+        assertSame(first, merged.track());
+        assertEquals(30_000L, merged.positionMs());
+        assertEquals(100, merged.volume());
+    }
+
+    @Test
+    void laterTrackChangeDropsThePositionOfTheReplacedTrack() {
+        PlayerUpdate merged = PlayerUpdate.create().withTrack(first).withPosition(30_000L)
+            .merge(PlayerUpdate.create().withTrack(second));
+
+        assertSame(second, merged.track());
+        assertNull(merged.positionMs());
+    }
+
+    @Test
+    void laterStopReplacesTheTrack() {
+        PlayerUpdate merged = PlayerUpdate.create().withTrack(first)
+            .merge(PlayerUpdate.create().withoutTrack());
+
+        assertTrue(merged.trackSet());
+        assertNull(merged.track());
+    }
+
+    @Test
+    void mergeIsAssociative() {
+        PlayerUpdate a = PlayerUpdate.create().withTrack(first).withVolume(10);
+        PlayerUpdate b = PlayerUpdate.create().withPosition(5_000L).withPaused(false);
+        PlayerUpdate c = PlayerUpdate.create().withTrack(second).withVolume(20);
+
+        assertEquals(a.merge(b).merge(c), a.merge(b.merge(c)));
+    }
+}
@@ -0,0 +1,140 @@
+package com.gammatunes.component.lavalink.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(new CoalescingMetrics(meterRegistry));
+
+    @Test
+    void concurrentCallersJoinOneFlight() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> upstream = Sinks.one();
+
+        Mono<String> first = coalescer.coalesce("test", "key", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }, UnaryOperator.identity());
+        Mono<String> second = coalescer.coalesce("test", "key", () -> {
+            calls.incrementAndGet();
+            return Mono.just("second");
+        }, UnaryOperator.identity());
+
+        StepVerifier.create(Mono.zip(first, second))
+            .then(() -> upstream.tryEmitValue("shared"))
+            .assertNext(results -> {
+                assertEquals("shared", results.getT1());
+                assertEquals("shared", results.getT2());
+            })
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.counter("bot.coalescer.calls", "flight", "test", "outcome", "saved").count());
+    }
+
+    @Test
+    void everyCallerReceivesItsOwnCopy() {
+        Sinks.One<List<String>> upstream = Sinks.one();
+        UnaryOperator<List<String>> copy = ArrayList::new;
+
+        Mono<List<String>> first = coalescer.coalesce("test", "key", upstream::asMono, copy);
+        Mono<List<String>> second = coalescer.coalesce("test", "key", upstream::asMono, copy);
+
+        StepVerifier.create(Mono.zip(first, second))
+            .then(() -> upstream.tryEmitValue(List.of("a")))
+            .assertNext(results -> {
+                assertEquals(results.getT1(), results.getT2());
+                assertNotSame(results.getT1(), results.getT2());
+            })
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void failedFlightIsSharedAndThenForgotten() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> upstream = Sinks.one();
+
+        Mono<String> first = coalescer.coalesce("test", "key", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }, UnaryOperator.identity());
+        Mono<String> second = coalescer.coalesce("test", "key", Mono::empty, UnaryOperator.identity());
+
+        StepVerifier.create(Mono.zip(first.onErrorReturn("failed"), second.onErrorReturn("failed")))
+            .then(() -> upstream.tryEmitError(new IllegalStateException("boom")))
+            .assertNext(results -> {
+                assertEquals("failed", results.getT1());
+                assertEquals("failed", results.getT2());
+            })
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+
+        StepVerifier.create(coalescer.coalesce("test", "key", () -> {
+                calls.incrementAndGet();
+                return Mono.just("retried");
+            }, UnaryOperator.identity()))
+            .expectNext("retried")
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void flightSurvivesUntilTheLastCallerCancels() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Sinks.One<String> upstream = Sinks.one();
+        Mono<String> call = upstream.asMono().doOnCancel(() -> cancelled.set(true));
+
+        Disposable first = coalescer.coalesce("test", "key", () -> call, UnaryOperator.identity()).subscribe();
+        List<String> received = new ArrayList<>();
+        Disposable second = coalescer.coalesce("test", "key", () -> call, UnaryOperator.identity())
+            .subscribe(received::add);
+
+        first.dispose();
+        assertFalse(cancelled.get());
+
+        second.dispose();
+        assertTrue(cancelled.get());
+        assertTrue(received.isEmpty());
+
+        StepVerifier.create(coalescer.coalesce("test", "key", () -> Mono.just("fresh"), UnaryOperator.identity()))
+            .expectNext("fresh")
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void flightRunsWithOnlyTheResolutionAttributionOfItsCaller() {
+        Mono<String> call = Mono.deferContextual(context -> Mono.just(
+            ResolutionContext.guildId(context) + "/" + ResolutionContext.priority(context) + "/" + context.hasKey("caller")
+        ));
+
+        StepVerifier.create(coalescer.coalesce("test", "key", () -> call, UnaryOperator.identity())
+                .contextWrite(Context.of("caller", "first"))
+                .contextWrite(ResolutionContext.background(42L)))
+            .expectNext("42/BACKGROUND/false")
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    }
+}
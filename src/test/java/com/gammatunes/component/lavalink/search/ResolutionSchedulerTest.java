@@ -0,0 +1,142 @@
+package com.gammatunes.component.lavalink.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResolutionSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+    private final Sinks.One<String> blocker = Sinks.one();
+
+    @Test
+    void interactiveLoadsStartBeforeQueuedBackgroundLoads() {
+        ResolutionScheduler scheduler = scheduler(new String[0], 60_000);
+        block(scheduler);
+
+        submit(scheduler, "background", ResolutionContext.background(1L));
+        submit(scheduler, "interactive", ResolutionContext.interactive(2L));
+        blocker.tryEmitValue("done");
+
+        assertEquals(List.of("blocker", "interactive", "background"), started);
+    }
+
+    @Test
+    void guildsTakeTurnsByWeight() {
+        ResolutionScheduler scheduler = scheduler(new String[]{"1=2"}, 60_000);
+        block(scheduler);
+
+        for (int i = 0; i < 4; i++) {
+            submit(scheduler, "a" + i, ResolutionContext.background(1L));
+        }
+        for (int i = 0; i < 2; i++) {
+            submit(scheduler, "b" + i, ResolutionContext.background(2L));
+        }
+        blocker.tryEmitValue("done");
+
+        assertEquals(List.of("blocker", "a0", "a1", "b0", "a2", "a3", "b1"), started);
+    }
+
+    @Test
+    void interactiveCallerJoiningAQueuedFlightPromotesIt() {
+        ResolutionScheduler scheduler = scheduler(new String[0], 60_000);
+        RequestCoalescer coalescer = new RequestCoalescer(new CoalescingMetrics(meterRegistry));
+        block(scheduler);
+
+        submit(scheduler, "other", ResolutionContext.background(2L));
+        Mono<String> flight = coalescer.coalesce("test", "key",
+            () -> scheduler.submit(() -> Mono.fromSupplier(() -> record("flight"))), UnaryOperator.identity());
+        flight.contextWrite(ResolutionContext.background(1L)).subscribe();
+        flight.contextWrite(ResolutionContext.interactive(3L)).subscribe();
+        blocker.tryEmitValue("done");
+
+        assertEquals(List.of("blocker", "flight", "other"), started);
+    }
+
+    @Test
+    void cancelledLoadLeavesTheQueue() {
+        ResolutionScheduler scheduler = scheduler(new String[0], 60_000);
+        block(scheduler);
+
+        Disposable queued = submit(scheduler, "cancelled", ResolutionContext.background(1L));
+        assertEquals(1.0, queueDepth("background"));
+        queued.dispose();
+        assertEquals(0.0, queueDepth("background"));
+
+        blocker.tryEmitValue("done");
+        assertEquals(List.of("blocker"), started);
+    }
+
+    @Test
+    void loadQueuedPastTheTimeoutFails() throws InterruptedException {
+        ResolutionScheduler scheduler = scheduler(new String[0], 20);
+        block(scheduler);
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        scheduler.submit(() -> Mono.fromSupplier(() -> record("late")))
+            .contextWrite(ResolutionContext.background(1L))
+            .subscribe(ignored -> { }, error::set);
+        Thread.sleep(50);
+        scheduler.sweep();
+
+        assertInstanceOf(TimeoutException.class, error.get());
+        assertEquals(0.0, queueDepth("background"));
+        blocker.tryEmitValue("done");
+        assertTrue(started.stream().noneMatch("late"::equals));
+    }
+
+    private ResolutionScheduler scheduler(String[] guildWeights, long queueTimeoutMs) {
+        SearchNodeRouter router = mock(SearchNodeRouter.class);
+        when(router.capacity()).thenReturn(16);
+        ResolutionScheduler scheduler = new ResolutionScheduler(router, new ResolutionMetrics(meterRegistry));
+        ReflectionTestUtils.setField(scheduler, "maxConcurrency", 1);
+        ReflectionTestUtils.setField(scheduler, "guildQuantum", 1);
+        ReflectionTestUtils.setField(scheduler, "guildWeightEntries", guildWeights);
+        ReflectionTestUtils.setField(scheduler, "interactiveBurst", 8);
+        ReflectionTestUtils.setField(scheduler, "queueTimeoutMs", queueTimeoutMs);
+        scheduler.init();
+        return scheduler;
+    }
+
+    /**
+     * Occupies the only slot until the blocker is emitted, so later loads queue up.
+     */
+    private void block(ResolutionScheduler scheduler) {
+        scheduler.submit(() -> blocker.asMono().doOnSubscribe(ignored -> record("blocker")))
+            .contextWrite(ResolutionContext.interactive(99L))
+            .subscribe();
+    }
+
+    private Disposable submit(ResolutionScheduler scheduler, String name, Context context) {
+        return scheduler.submit(() -> Mono.fromSupplier(() -> record(name)))
+            .contextWrite(context)
+            .subscribe();
+    }
+
+    private String record(String name) {
+        started.add(name);
+        return name;
+    }
+
+    private double queueDepth(String priority) {
+        return meterRegistry.get("bot.resolution.queue_depth").tag("priority", priority).gauge().value();
+    }
+}
@@ -0,0 +1,76 @@
+package com.gammatunes.component.lavalink.search;
+
+import com.gammatunes.config.LavalinkConfig;
+import dev.arbjerg.lavalink.client.LavalinkClient;
+import dev.arbjerg.lavalink.client.LavalinkNode;
+import dev.arbjerg.lavalink.client.event.StatsEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchNodeRouterTest {
+
+    private static final long HEDGE_DELAY_MS = 100;
+
+    private final LavalinkClient lavalinkClient = mock(LavalinkClient.class);
+    private final LavalinkNode slow = node("slow");
+    private final LavalinkNode fast = node("fast");
+    private SearchNodeRouter router;
+
+    @BeforeEach
+    void createRouter() {
+        LavalinkConfig lavalinkConfig = new LavalinkConfig();
+        lavalinkConfig.setNodes(List.of());
+        when(lavalinkClient.on(StatsEvent.class)).thenReturn(Flux.never());
+        when(lavalinkClient.getNodes()).thenReturn(List.of(slow, fast));
+
+        router = new SearchNodeRouter(lavalinkClient, lavalinkConfig, new NodeRoutingMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(router, "inFlightWeight", 5.0);
+        ReflectionTestUtils.setField(router, "maxInFlightPerNode", 4);
+        ReflectionTestUtils.setField(router, "hedgeEnabled", true);
+        ReflectionTestUtils.setField(router, "hedgePercentile", 0.95);
+        ReflectionTestUtils.setField(router, "hedgeDefaultDelayMs", HEDGE_DELAY_MS);
+        ReflectionTestUtils.setField(router, "hedgeMinDelayMs", 0L);
+        ReflectionTestUtils.setField(router, "hedgeMinSamples", 1);
+        ReflectionTestUtils.setField(router, "hedgeBudgetRatio", 1.0);
+        ReflectionTestUtils.setField(router, "hedgeMaxBurst", 10.0);
+        router.init();
+    }
+
+    @Test
+    void slowPrimaryThatLostToItsHedgeStillCountsInTheLatencies() {
+        StepVerifier.create(router.routeHedged("load", node -> node == slow
+                ? Mono.delay(Duration.ofSeconds(10)).map(ignored -> "slow")
+                : Mono.just("fast")))
+            .expectNext("fast")
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+
+        long p95 = latencies().get("load").percentile(0.95, 1);
+        assertTrue(p95 >= HEDGE_DELAY_MS, "recorded " + p95 + "ms, less than the caller waited");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, LatencyWindow> latencies() {
+        return (Map<String, LatencyWindow>) ReflectionTestUtils.getField(router, "latencies");
+    }
+
+    private static LavalinkNode node(String name) {
+        LavalinkNode node = mock(LavalinkNode.class);
+        when(node.getName()).thenReturn(name);
+        when(node.getAvailable()).thenReturn(true);
+        return node;
+    }
+}
@@ -0,0 +1,75 @@
+package com.gammatunes.component.spotify.match;
+
+import com.gammatunes.service.TrackQueryService;
+import dev.arbjerg.lavalink.client.player.Track;
+import dev.arbjerg.lavalink.protocol.v4.TrackInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SpotifyTrackMatchIndexTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SpotifyTrackMatchRepository repository = mock(SpotifyTrackMatchRepository.class);
+    private final SpotifyTrackMatchIndex index = new SpotifyTrackMatchIndex(repository, mock(TrackQueryService.class));
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(index, "frontCacheSize", 100L);
+        ReflectionTestUtils.setField(index, "negativeTtlMs", 60_000L);
+        index.init();
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void matchThatFailsToPlayIsForgotten() {
+        Track matched = track("video-1");
+        index.record("spotify-1", Optional.empty(), matched);
+        StepVerifier.create(index.find("spotify-1", Optional.empty()))
+            .expectNext(matched)
+            .expectComplete()
+            .verify(TIMEOUT);
+
+        index.invalidate(matched);
+
+        StepVerifier.create(index.find("spotify-1", Optional.empty()))
+            .expectComplete()
+            .verify(TIMEOUT);
+        verify(repository, timeout(TIMEOUT.toMillis())).deleteById("spotify-1");
+    }
+
+    @Test
+    void failuresOfTracksNotFromTheIndexAreIgnored() {
+        index.record("spotify-1", Optional.empty(), track("video-1"));
+
+        index.invalidate(track("video-2"));
+
+        StepVerifier.create(index.find("spotify-1", Optional.empty()))
+            .expectNextCount(1)
+            .expectComplete()
+            .verify(TIMEOUT);
+        verify(repository, never()).deleteById(anyString());
+    }
+
+    private static Track track(String identifier) {
+        Track track = mock(Track.class);
+        TrackInfo info = mock(TrackInfo.class);
+        when(info.getIdentifier()).thenReturn(identifier);
+        when(track.getInfo()).thenReturn(info);
+        when(track.makeClone()).thenReturn(track);
+        when(track.getEncoded()).thenReturn("encoded-" + identifier);
+        return track;
+    }
+}
@@ -1,5 +1,6 @@
 package com.gammatunes.service;
 
+import com.gammatunes.component.guild.GuildContexts;
 import com.gammatunes.component.spotify.api.response.SpotifyCurrentlyPlaying;
 import com.gammatunes.component.spotify.api.response.SpotifyTrack;
 import com.gammatunes.component.spotify.control.SpotifyControlPlaybackStateStore;
@@ -30,7 +31,7 @@ class SpotifyControlPlaybackServiceTest {
     private final SpotifyControlService spotifyControlService = mock(SpotifyControlService.class);
     private final SpotifyPlayerService spotifyPlayerService = mock(SpotifyPlayerService.class);
     private final SpotifyTrackResolverService spotifyTrackResolverService = mock(SpotifyTrackResolverService.class);
-    private final SpotifyControlPlaybackStateStore playbackStateStore = new SpotifyControlPlaybackStateStore();
+    private final SpotifyControlPlaybackStateStore playbackStateStore = new SpotifyControlPlaybackStateStore(new GuildContexts());
     private final PlaybackRequestFactory playbackRequestFactory = mock(PlaybackRequestFactory.class);
     private final PlaybackService playbackService = mock(PlaybackService.class);
     private final JDA jda = mock(JDA.class);